@@ -8,6 +8,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
 
 import org.zeromq.ZMQ.Context;
 import org.zeromq.ZMQ.Poller;
@@ -427,6 +429,46 @@ public class ZContext implements Closeable
         return context.getThreadFactory();
     }
 
+    /**
+     * Used to pin the I/O threads, to a core or to a NUMA node for instance. The callback is invoked by each I/O
+     * thread when it starts, with its index, the one of the bit selecting it in {@link Socket#setAffinity(long)}.
+     *
+     * @param ioThreadAffinity the callback invoked by each I/O thread, or null to leave them as created.
+     * @throws IllegalStateException If context was already initialized by the creation of a socket
+     */
+    public void setIoThreadAffinity(IntConsumer ioThreadAffinity)
+    {
+        context.setIoThreadAffinity(ioThreadAffinity);
+    }
+
+    /**
+     * @return the callback invoked by each I/O thread when it starts
+     */
+    public IntConsumer getIoThreadAffinity()
+    {
+        return context.getIoThreadAffinity();
+    }
+
+    /**
+     * Used to colocate the sockets with the I/O threads. The supplier is invoked in the thread creating a socket,
+     * and gives the default value of its {@link Socket#setAffinity(long) affinity}.
+     *
+     * @param socketAffinity the supplier of the affinity of the new sockets, or null to leave it to its default.
+     * @throws IllegalStateException If context was already initialized by the creation of a socket
+     */
+    public void setSocketAffinity(LongSupplier socketAffinity)
+    {
+        context.setSocketAffinity(socketAffinity);
+    }
+
+    /**
+     * @return the supplier of the affinity of the new sockets
+     */
+    public LongSupplier getSocketAffinity()
+    {
+        return context.getSocketAffinity();
+    }
+
     /**
      * @return the main
      */
@@ -0,0 +1,239 @@
+package org.zeromq;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.zeromq.ZMQ.Socket;
+import org.zeromq.ZProxy.Plug;
+
+import zmq.Msg;
+import zmq.SocketBase;
+
+/**
+ * Last value cache for {@link ZProxy}, a pump keeping the latest message of each topic
+ * and sending at once the matching ones to each new subscriber, and to it only.
+ * <br>
+ * The frontend socket receives the messages of the publishers, typically an XSUB socket,
+ * and the backend socket is an XPUB socket in {@link ZMQ.Socket#setXpubManual(boolean) manual mode}
+ * the subscribers connect to:
+ * <pre>
+ * {@code
+        final ZProxy.Proxy provider = new ZProxy.Proxy.SimpleProxy()
+        {
+            public Socket create(ZContext ctx, ZProxy.Plug place, Object... args)
+            {
+                if (place == ZProxy.Plug.FRONT) {
+                    return ctx.createSocket(SocketType.XSUB);
+                }
+                if (place == ZProxy.Plug.BACK) {
+                    Socket socket = ctx.createSocket(SocketType.XPUB);
+                    socket.setXpubManual(true);
+                    return socket;
+                }
+                return null;
+            }
+
+            public boolean configure(Socket socket, ZProxy.Plug place, Object... args)
+            {
+                if (place == ZProxy.Plug.FRONT) {
+                    socket.bind("tcp://*:6660");
+                }
+                if (place == ZProxy.Plug.BACK) {
+                    socket.bind("tcp://*:6661");
+                }
+                return true;
+            }
+        };
+        ZProxy proxy = new ZProxy(ctx, "lvc", provider, new ZLastValueCache(), null);
+        proxy.start(true);
+   }
+ * </pre>
+ * The topic of a message is its first frame, or the first bytes of it, as for {@link zmq.ZMQ#ZMQ_CONFLATE_KEY}.
+ * Messages are kept as received, their data are neither copied nor moved.
+ * <br>
+ * Once a subscription is received, the cached messages whose first frame starts with the subscribed topic are sent
+ * to the subscriber with {@link zmq.ZMQ#ZMQ_XPUB_REPLAY}, before the subscription is forwarded to the publishers.
+ * A subscriber may then receive a message of a topic twice, when it is published while the subscription is on its way.
+ * <br>
+ * This class is not thread-safe and shall be used by a single proxy.
+ */
+public class ZLastValueCache implements ZProxy.Pump
+{
+    // size of the topic taken from the first frame, 0 for the whole frame
+    private final int topicSize;
+
+    // last messages by topic, sorted so that the topics starting with a subscription follow each other
+    private final TreeMap<byte[], Msg[]> cache = new TreeMap<>(Arrays::compareUnsigned);
+
+    /**
+     * Creates a cache keeping the last message of each distinct first frame.
+     */
+    public ZLastValueCache()
+    {
+        this(0);
+    }
+
+    /**
+     * Creates a cache keeping the last message of each topic.
+     *
+     * @param topicSize the number of bytes of the first frame making the topic, 0 for the whole frame.
+     */
+    public ZLastValueCache(int topicSize)
+    {
+        if (topicSize < 0) {
+            throw new IllegalArgumentException("Topic size cannot be negative: " + topicSize);
+        }
+        this.topicSize = topicSize;
+    }
+
+    @Override
+    public boolean flow(Plug splug, Socket source, Socket capture, Plug dplug, Socket destination)
+    {
+        SocketBase src = source.base();
+        SocketBase dst = destination.base();
+        SocketBase cpt = capture == null ? null : capture.base();
+
+        if (splug == Plug.FRONT) {
+            return publish(src, cpt, dst);
+        }
+        return subscribe(src, cpt, dst);
+    }
+
+    // caches and forwards a message of a publisher
+    private boolean publish(SocketBase src, SocketBase cpt, SocketBase dst)
+    {
+        Msg[] frames = recv(src, cpt);
+        if (frames == null) {
+            return false;
+        }
+        if (frames.length > 0 && frames[0].size() > 0) {
+            // the cache keeps its own references to the data of the messages
+            Msg[] cached = new Msg[frames.length];
+            for (int idx = 0; idx < frames.length; ++idx) {
+                cached[idx] = new Msg(frames[idx]);
+            }
+            Msg[] previous = cache.put(topic(frames[0]), cached);
+            if (previous != null) {
+                for (Msg msg : previous) {
+                    msg.release();
+                }
+            }
+        }
+        return send(dst, frames);
+    }
+
+    // applies a subscription message from a subscriber, replays the cached messages, and forwards it to the publishers
+    private boolean subscribe(SocketBase src, SocketBase cpt, SocketBase dst)
+    {
+        Msg[] frames = recv(src, cpt);
+        if (frames == null) {
+            return false;
+        }
+        if (frames.length == 1 && frames[0].size() > 0) {
+            byte[] sub = frames[0].data();
+            if (sub[0] == 1) {
+                src.setSocketOpt(zmq.ZMQ.ZMQ_SUBSCRIBE, sub);
+                replay(src, sub);
+            }
+            else if (sub[0] == 0) {
+                src.setSocketOpt(zmq.ZMQ.ZMQ_UNSUBSCRIBE, sub);
+            }
+        }
+        return send(dst, frames);
+    }
+
+    // sends to the last subscriber the cached messages of the topics matching its subscription
+    private void replay(SocketBase xpub, byte[] sub)
+    {
+        if (cache.isEmpty() || !xpub.setSocketOpt(zmq.ZMQ.ZMQ_XPUB_REPLAY, true)) {
+            return;
+        }
+        int size = sub.length - 1;
+        byte[] prefix = Arrays.copyOfRange(sub, 1, 1 + (topicSize == 0 ? size : Math.min(topicSize, size)));
+
+        Iterator<Map.Entry<byte[], Msg[]>> it = cache.tailMap(prefix, true).entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<byte[], Msg[]> entry = it.next();
+            if (!startsWith(entry.getKey(), prefix, prefix.length)) {
+                break;
+            }
+            Msg[] cached = entry.getValue();
+            // the topic may be shorter than the subscription
+            if (!startsWith(cached[0], sub, size)) {
+                continue;
+            }
+            Msg[] frames = new Msg[cached.length];
+            for (int idx = 0; idx < cached.length; ++idx) {
+                frames[idx] = new Msg(cached[idx]);
+            }
+            if (!send(xpub, frames)) {
+                break;
+            }
+        }
+        xpub.setSocketOpt(zmq.ZMQ.ZMQ_XPUB_REPLAY, false);
+    }
+
+    // the topic is always a copy, the data of a message may be backed by a buffer that is reused
+    private byte[] topic(Msg msg)
+    {
+        byte[] data = msg.data();
+        int size = topicSize == 0 ? data.length : Math.min(topicSize, data.length);
+        return Arrays.copyOf(data, size);
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix, int size)
+    {
+        return key.length >= size && Arrays.equals(key, 0, size, prefix, 0, size);
+    }
+
+    // checks if the message starts with the subscription, skipping its leading byte
+    private static boolean startsWith(Msg msg, byte[] sub, int size)
+    {
+        if (msg.size() < size) {
+            return false;
+        }
+        for (int idx = 0; idx < size; ++idx) {
+            if (msg.get(idx) != sub[idx + 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // receives all the frames of a message, copied to the capture socket if any
+    private static Msg[] recv(SocketBase src, SocketBase cpt)
+    {
+        Msg[] frames = new Msg[1];
+        int count = 0;
+        while (true) {
+            Msg msg = src.recv(0);
+            if (msg == null) {
+                return null;
+            }
+            if (count == frames.length) {
+                frames = Arrays.copyOf(frames, count * 2);
+            }
+            frames[count++] = msg;
+
+            if (cpt != null) {
+                cpt.send(new Msg(msg), msg.hasMore() ? zmq.ZMQ.ZMQ_SNDMORE : 0);
+            }
+            if (!msg.hasMore()) {
+                break;
+            }
+        }
+        return count == frames.length ? frames : Arrays.copyOf(frames, count);
+    }
+
+    private static boolean send(SocketBase dst, Msg[] frames)
+    {
+        for (int idx = 0; idx < frames.length; ++idx) {
+            if (!dst.send(frames[idx], idx < frames.length - 1 ? zmq.ZMQ.ZMQ_SNDMORE : 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -12,6 +12,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
 
 import org.zeromq.proto.ZPicture;
 
@@ -693,6 +695,46 @@ public class ZMQ
             return ctx.getThreadFactory();
         }
 
+        /**
+         * Used to pin the I/O threads, to a core or to a NUMA node for instance. The callback is invoked by each I/O
+         * thread when it starts, with its index, the one of the bit selecting it in {@link Socket#setAffinity(long)}.
+         *
+         * @param ioThreadAffinity the callback invoked by each I/O thread, or null to leave them as created.
+         * @throws IllegalStateException If context was already initialized by the creation of a socket
+         */
+        public void setIoThreadAffinity(IntConsumer ioThreadAffinity)
+        {
+            ctx.setIoThreadAffinity(ioThreadAffinity);
+        }
+
+        /**
+         * @return the callback invoked by each I/O thread when it starts
+         */
+        public IntConsumer getIoThreadAffinity()
+        {
+            return ctx.getIoThreadAffinity();
+        }
+
+        /**
+         * Used to colocate the sockets with the I/O threads. The supplier is invoked in the thread creating a socket,
+         * and gives the default value of its {@link Socket#setAffinity(long) affinity}.
+         *
+         * @param socketAffinity the supplier of the affinity of the new sockets, or null to leave it to its default.
+         * @throws IllegalStateException If context was already initialized by the creation of a socket
+         */
+        public void setSocketAffinity(LongSupplier socketAffinity)
+        {
+            ctx.setSocketAffinity(socketAffinity);
+        }
+
+        /**
+         * @return the supplier of the affinity of the new sockets
+         */
+        public LongSupplier getSocketAffinity()
+        {
+            return ctx.getSocketAffinity();
+        }
+
         /**
          * This is an explicit "destructor". It can be called to ensure the corresponding 0MQ
          * Context has been disposed of.
@@ -2495,6 +2537,20 @@ public class ZMQ
             return setSocketOpt(zmq.ZMQ.ZMQ_XPUB_MANUAL, manual);
         }
 
+        /**
+         * Sets the XPUB socket in manual mode to send the next messages only to the subscriber
+         * of the last subscription message received, whatever the topics it subscribed to.
+         * It is typically used to send a welcome message or the last values of a cache to a new subscriber.
+         * A value of false is the default and sends the messages to all the matching subscribers.
+         *
+         * @param replay true to send the messages only to the last subscriber.
+         * @return true if the option was set, otherwise false.
+         */
+        public boolean setXpubReplay(boolean replay)
+        {
+            return setSocketOpt(zmq.ZMQ.ZMQ_XPUB_REPLAY, replay);
+        }
+
         public boolean setXpubVerboser(boolean verboser)
         {
             return setSocketOpt(zmq.ZMQ.ZMQ_XPUB_VERBOSER, verboser);
@@ -59,7 +59,10 @@ public class Command
         //  are successfully deallocated.
         DONE,
         //  Cancel a single pending I/O call
-        CANCEL
+        CANCEL,
+        //  Sent by a session to itself, through the I/O thread it moves to,
+        //  to plug into that thread.
+        MOVE
     }
 
     Command(ZObject destination, Type type)
@@ -24,18 +24,36 @@ public enum Config
     //  unnecessary network stack traversals.
     IN_BATCH_SIZE(8192),
 
+    //  Minimal size of a message body to be read with a scattering read,
+    //  straight into the message while the following data are read into
+    //  the batch buffer of the decoder.
+    IN_SCATTER_THRESHOLD(1024),
+
     //  Maximal batching size for engines with sending functionality.
     //  So, if there are 10 messages that fit into the batch size, all of
     //  them may be written by a single 'send' system call, thus avoiding
     //  unnecessary network stack traversals.
     OUT_BATCH_SIZE(8192),
 
+    //  Maximal number of buffers handed to a single gathering write by
+    //  engines with sending functionality.
+    OUT_BATCH_BUFFERS(64),
+
+    //  Minimal size of a chunk of message to be handed as is to a gathering
+    //  write. Smaller chunks are copied into the batch buffer of the encoder,
+    //  as are the message headers.
+    OUT_GATHER_THRESHOLD(1024),
+
     //  Maximal delta between high and low watermark.
     MAX_WM_DELTA(1024),
 
     //  Maximum number of events the I/O thread can process in one go.
     MAX_IO_EVENTS(256),
 
+    //  Number of slots of the timing wheels, one per millisecond. Timers due
+    //  after a whole rotation share the slots of the nearer ones.
+    TIMER_WHEEL_SLOTS(4096),
+
     //  Maximal delay to process command in API thread (in CPU ticks).
     //  3,000,000 ticks equals to 1 - 2 milliseconds on current CPUs.
     //  Note that delay is only applied when there is continuous stream of
@@ -63,7 +81,19 @@ public enum Config
     // Threshold of message size for choosing if message data should
     // be allocated on heap or on direct memory.
     // This has a direct impact on transmission of large messages
-    MSG_ALLOCATION_HEAP_THRESHOLD(1024 * 1024);
+    MSG_ALLOCATION_HEAP_THRESHOLD(1024 * 1024),
+
+    // Largest message size allocated from the pool of messages,
+    // larger messages are allocated on demand.
+    MSG_POOL_MAX_SIZE(64 * 1024),
+
+    // Number of buffers of each size kept by a thread for itself
+    // in the pool of messages, before sharing them with other threads.
+    MSG_POOL_THREAD_CACHE(64),
+
+    // Number of buffers of each size shared by the threads
+    // in the pool of messages. The buffers beyond are garbage collected.
+    MSG_POOL_SHARED_CACHE(1024);
 
     private final int value;
 
@@ -20,12 +20,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
 
 import org.zeromq.ZMQException;
 
 import zmq.io.IOThread;
 import zmq.pipe.Pipe;
 import zmq.socket.Sockets;
+import zmq.util.Clock;
 import zmq.util.Errno;
 import zmq.util.MultiMap;
 import zmq.util.function.BiFunction;
@@ -140,9 +143,22 @@ public class Ctx
     // The thread factory used by the poller
     private BiFunction<Runnable, String, Thread> threadFactory;
 
+    //  Invoked by each I/O thread when it starts, with its index.
+    private IntConsumer ioThreadAffinity;
+
+    //  Gives the default affinity of the sockets, in the thread creating them.
+    private LongSupplier socketAffinity;
+
     //  Does context wait (possibly forever) on termination?
     private boolean blocky;
 
+    //  Do the I/O threads and the reaper use a timing wheel for their timers?
+    private boolean timerWheel;
+
+    //  Are new connections given to the I/O thread with the least traffic, and
+    //  the busy ones moved to it? Only the connections created while set move.
+    private volatile boolean balanceIoThreads;
+
     //  Synchronization of access to context options.
     private final Lock optSync;
 
@@ -426,6 +442,50 @@ public class Ctx
         return threadFactory;
     }
 
+    /**
+     * Used to pin the I/O threads, to a core or to a NUMA node for instance. The callback is invoked by each I/O
+     * thread when it starts, before polling, with its index. This index is the one of the bit selecting the thread
+     * in {@link ZMQ#ZMQ_AFFINITY}, from 0 to the number of I/O threads excluded.
+     *
+     * @param ioThreadAffinity the callback invoked by each I/O thread, or null to leave them as created.
+     * @throws IllegalStateException If context was already initialized by the creation of a socket
+     */
+    public void setIoThreadAffinity(IntConsumer ioThreadAffinity)
+    {
+        chechStarted();
+        this.ioThreadAffinity = ioThreadAffinity;
+    }
+
+    /**
+     * @return the callback invoked by each I/O thread when it starts
+     */
+    public IntConsumer getIoThreadAffinity()
+    {
+        return ioThreadAffinity;
+    }
+
+    /**
+     * Used to colocate the sockets with the I/O threads. The supplier is invoked in the thread creating a socket,
+     * and gives the default value of its {@link ZMQ#ZMQ_AFFINITY}, such as the bit of the I/O thread pinned
+     * to the same core or NUMA node as the calling thread with {@link #setIoThreadAffinity(IntConsumer)}.
+     *
+     * @param socketAffinity the supplier of the affinity of the new sockets, or null to leave it to its default.
+     * @throws IllegalStateException If context was already initialized by the creation of a socket
+     */
+    public void setSocketAffinity(LongSupplier socketAffinity)
+    {
+        chechStarted();
+        this.socketAffinity = socketAffinity;
+    }
+
+    /**
+     * @return the supplier of the affinity of the new sockets
+     */
+    public LongSupplier getSocketAffinity()
+    {
+        return socketAffinity;
+    }
+
     /**
      * Set an option
      * @param option the option to set
@@ -465,6 +525,25 @@ public class Ctx
                 optSync.unlock();
             }
         }
+        else if (option == ZMQ.ZMQ_TIMER_WHEEL && optval >= 0) {
+            chechStarted();
+            optSync.lock();
+            try {
+                timerWheel = (optval != 0);
+            }
+            finally {
+                optSync.unlock();
+            }
+        }
+        else if (option == ZMQ.ZMQ_BALANCE_IO_THREADS && optval >= 0) {
+            optSync.lock();
+            try {
+                balanceIoThreads = (optval != 0);
+            }
+            finally {
+                optSync.unlock();
+            }
+        }
         else if (option == ZMQ.ZMQ_IPV6 && optval >= 0) {
             optSync.lock();
             try {
@@ -495,6 +574,12 @@ public class Ctx
         else if (option == ZMQ.ZMQ_IPV6) {
             rc = ipv6 ? 1 : 0;
         }
+        else if (option == ZMQ.ZMQ_TIMER_WHEEL) {
+            rc = timerWheel ? 1 : 0;
+        }
+        else if (option == ZMQ.ZMQ_BALANCE_IO_THREADS) {
+            rc = balanceIoThreads ? 1 : 0;
+        }
         else {
             throw new IllegalArgumentException("option = " + option);
         }
@@ -569,7 +654,7 @@ public class Ctx
 
             //  Create I/O thread objects and launch them.
             for (int i = 2; i != ios + 2; i++) {
-                IOThread ioThread = new IOThread(this, i);
+                IOThread ioThread = new IOThread(this, i, ioThreadFactory(i - 2));
                 //alloc_assert (io_thread);
                 ioThreads.add(ioThread);
                 slots[i] = ioThread.getMailbox();
@@ -671,6 +756,13 @@ public class Ctx
             return null;
         }
 
+        if (balanceIoThreads) {
+            IOThread selected = chooseBalancedIoThread(affinity);
+            if (selected != null) {
+                return selected;
+            }
+        }
+
         //  Find the I/O thread with minimum load.
         int minLoad = -1;
         IOThread selectedIoThread = null;
@@ -687,6 +779,62 @@ public class Ctx
         return selectedIoThread;
     }
 
+    //  Finds the I/O thread with the minimum expected traffic: the one it
+    //  currently handles, plus the average traffic of a handle for each of its
+    //  handles, as a new connection is yet to be measured. Returns null if
+    //  there has been no traffic yet.
+    private IOThread chooseBalancedIoThread(long affinity)
+    {
+        long now = Clock.nowMS();
+        double totalRate = 0;
+        int totalLoad = 0;
+        double[] rates = new double[ioThreads.size()];
+        for (int i = 0; i != ioThreads.size(); i++) {
+            if (affinity == 0 || (affinity & (1L << i)) > 0) {
+                rates[i] = ioThreads.get(i).getRate(now);
+                totalRate += rates[i];
+                totalLoad += ioThreads.get(i).getLoad();
+            }
+        }
+        if (totalRate == 0) {
+            return null;
+        }
+        double ratePerHandle = totalRate / Math.max(totalLoad, 1);
+
+        double minTraffic = -1;
+        IOThread selectedIoThread = null;
+        for (int i = 0; i != ioThreads.size(); i++) {
+            if (affinity == 0 || (affinity & (1L << i)) > 0) {
+                double traffic = rates[i] + ioThreads.get(i).getLoad() * ratePerHandle;
+                if (selectedIoThread == null || traffic < minTraffic) {
+                    minTraffic = traffic;
+                    selectedIoThread = ioThreads.get(i);
+                }
+            }
+        }
+        return selectedIoThread;
+    }
+
+    //  Returns the I/O thread with the least traffic at the moment.
+    //  Affinity specifies which I/O threads are eligible (0 = all).
+    //  Returns NULL if no I/O thread is available.
+    IOThread chooseLeastBusyIoThread(long affinity)
+    {
+        long now = Clock.nowMS();
+        double minRate = -1;
+        IOThread selectedIoThread = null;
+        for (int i = 0; i != ioThreads.size(); i++) {
+            if (affinity == 0 || (affinity & (1L << i)) > 0) {
+                double rate = ioThreads.get(i).getRate(now);
+                if (selectedIoThread == null || rate < minRate) {
+                    minRate = rate;
+                    selectedIoThread = ioThreads.get(i);
+                }
+            }
+        }
+        return selectedIoThread;
+    }
+
     //  Management of inproc endpoints.
     boolean registerEndpoint(String addr, Endpoint endpoint)
     {
@@ -816,7 +964,12 @@ public class Ctx
                         || pendingConnection.endpoint.options.type == ZMQ.ZMQ_PUSH
                         || pendingConnection.endpoint.options.type == ZMQ.ZMQ_PUB
                         || pendingConnection.endpoint.options.type == ZMQ.ZMQ_SUB);
-        int[] hwms = { conflate ? -1 : sndhwm, conflate ? -1 : rcvhwm };
+        //  The pipes were created before the binding socket was known, their messages
+        //  are conflated by key only as the connecting socket asked, without HWM then.
+        int[] conflateKeys = { pendingConnection.connectPipe.getConflateKey(),
+                               pendingConnection.bindPipe.getConflateKey() };
+        int[] hwms = { conflate || conflateKeys[1] >= 0 ? -1 : sndhwm,
+                       conflate || conflateKeys[0] >= 0 ? -1 : rcvhwm };
         pendingConnection.connectPipe.setHwms(hwms[1], hwms[0]);
         pendingConnection.bindPipe.setHwms(hwms[0], hwms[1]);
 
@@ -910,6 +1063,20 @@ public class Ctx
         }
     }
 
+    //  Thread factory of an I/O thread, pinning it before it polls.
+    private BiFunction<Runnable, String, Thread> ioThreadFactory(int index)
+    {
+        IntConsumer pin = ioThreadAffinity;
+        if (pin == null) {
+            return threadFactory;
+        }
+        BiFunction<Runnable, String, Thread> factory = threadFactory;
+        return (target, name) -> factory.apply(() -> {
+            pin.accept(index);
+            target.run();
+        }, name);
+    }
+
     private Thread createThread(Runnable target, String name)
     {
         Thread t = new Thread(target, name);
@@ -1,20 +1,36 @@
 package zmq;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.nio.channels.SelectableChannel;
 import java.util.Deque;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import zmq.util.Errno;
 
 public class Mailbox implements IMailbox
 {
+    //  Thread.isVirtual(), available from Java 21 on.
+    private static final MethodHandle IS_VIRTUAL = isVirtualHandle();
+
     //  The pipe to store actual commands.
     private final Deque<Command> cpipe;
 
     //  Signaler to pass signals from writer thread to reader thread.
     // kept it although a ConcurrentLinkedDeque, because the signaler channel is used in many places.
-    private final Signaler signaler;
+    //  It is created the first time the file descriptor is requested. Until then, the reader
+    //  thread parks while waiting for commands, and the writer threads unpark it.
+    private volatile Signaler signaler;
+
+    //  Thread waiting for a command without signaler, if any.
+    private volatile Thread waiter;
+
+    private final Ctx ctx;
+    private final int tid;
 
     // mailbox name, for better debugging
     private final String name;
@@ -25,27 +41,67 @@ public class Mailbox implements IMailbox
     {
         this.errno = ctx.errno();
         cpipe = new ConcurrentLinkedDeque<>();
-        signaler = new Signaler(ctx, tid, errno);
 
+        this.ctx = ctx;
+        this.tid = tid;
         this.name = name;
     }
 
     public SelectableChannel getFd()
     {
-        return signaler.getFd();
+        return signaler().getFd();
+    }
+
+    private Signaler signaler()
+    {
+        Signaler signaler = this.signaler;
+        if (signaler == null) {
+            synchronized (this) {
+                signaler = this.signaler;
+                if (signaler == null) {
+                    signaler = new Signaler(ctx, tid, errno);
+                    this.signaler = signaler;
+                    //  The commands sent so far were not signaled through the file descriptor.
+                    if (!cpipe.isEmpty()) {
+                        signaler.send();
+                    }
+                }
+            }
+        }
+        return signaler;
     }
 
     @Override
     public void send(final Command cmd)
     {
         cpipe.addLast(cmd);
-        signaler.send();
+        Signaler signaler = this.signaler;
+        if (signaler != null) {
+            signaler.send();
+        }
+        //  The reader may have started to wait before the signaler was created.
+        Thread waiter = this.waiter;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
     }
 
     @Override
     public Command recv(long timeout)
     {
         Command cmd = cpipe.pollFirst();
+        if (cmd == null) {
+            //  A virtual thread parks even with a signaler, instead of holding
+            //  its carrier thread in a select until a command arrives.
+            boolean virtual = timeout != 0 && isVirtual(Thread.currentThread());
+            if (virtual || signaler == null) {
+                cmd = park(timeout, virtual);
+                if (cmd != null || virtual || signaler == null) {
+                    return cmd;
+                }
+                //  The signaler was created meanwhile, it takes over the wait.
+            }
+        }
         while (cmd == null) {
             //  Wait for signal from the command sender.
             boolean rc = signaler.waitEvent(timeout);
@@ -68,10 +124,96 @@ public class Mailbox implements IMailbox
         return cmd;
     }
 
+    //  Returns true if a command to the given object is waiting in the mailbox.
+    //  To be called by the reader thread.
+    public boolean hasCommandTo(ZObject destination)
+    {
+        for (Command cmd : cpipe) {
+            if (cmd.destination == destination) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //  Waits for a command without signaler, until the timeout expires.
+    //  Returns null if no command is available, with errno set accordingly.
+    //  The wait ends early, without errno, if the signaler is created meanwhile,
+    //  unless the signals are left to the next non-blocking receptions.
+    private Command park(long timeout, boolean withSignaler)
+    {
+        // Transform a interrupt signal in an errno EINTR
+        if (Thread.interrupted()) {
+            errno.set(ZError.EINTR);
+            return null;
+        }
+        if (timeout == 0) {
+            errno.set(ZError.EAGAIN);
+            return null;
+        }
+        long deadline = timeout < 0 ? 0 : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+        waiter = Thread.currentThread();
+        try {
+            Command cmd = cpipe.pollFirst();
+            //  Give up waiting as soon as the signaler is created, it takes over.
+            while (cmd == null && (withSignaler || signaler == null)) {
+                if (timeout < 0) {
+                    LockSupport.park(this);
+                }
+                else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        errno.set(ZError.EAGAIN);
+                        return null;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                }
+                if (Thread.interrupted()) {
+                    errno.set(ZError.EINTR);
+                    return null;
+                }
+                cmd = cpipe.pollFirst();
+            }
+            return cmd;
+        }
+        finally {
+            waiter = null;
+        }
+    }
+
+    private static MethodHandle isVirtualHandle()
+    {
+        try {
+            return MethodHandles.publicLookup()
+                    .findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        }
+        catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static boolean isVirtual(Thread thread)
+    {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        }
+        catch (Throwable e) {
+            //  Not thrown by Thread.isVirtual().
+            return false;
+        }
+    }
+
     @Override
     public void close() throws IOException
     {
-        signaler.close();
+        Signaler signaler = this.signaler;
+        if (signaler != null) {
+            signaler.close();
+        }
     }
 
     @Override
@@ -7,6 +7,7 @@ import java.nio.channels.SocketChannel;
 import java.util.Arrays;
 
 import zmq.io.Metadata;
+import zmq.msg.MsgContent;
 import zmq.util.Utils;
 import zmq.util.Wire;
 
@@ -111,6 +112,8 @@ public class Msg
 
     private final int        size;
     private final ByteBuffer buf;
+    // reference-counted storage of the data, null if the data are not shared
+    private final MsgContent content;
     // keep track of relative write position
     private int writeIndex = 0;
     // keep track of relative read position
@@ -130,6 +133,7 @@ public class Msg
         this.flags = 0;
         this.size = capacity;
         this.buf = ByteBuffer.wrap(new byte[capacity]).order(ByteOrder.BIG_ENDIAN);
+        this.content = null;
     }
 
     public Msg(byte[] src)
@@ -141,9 +145,22 @@ public class Msg
         this.flags = 0;
         this.size = src.length;
         this.buf = ByteBuffer.wrap(src).order(ByteOrder.BIG_ENDIAN);
+        this.content = null;
     }
 
     public Msg(final ByteBuffer src)
+    {
+        this(src, null);
+    }
+
+    /**
+     * Creates a message with data stored in a reference-counted content.
+     * The message holds the reference of the content given to it.
+     *
+     * @param src the data of the message.
+     * @param content the storage of the data, released with {@link #release()}. If null, the data are not shared.
+     */
+    public Msg(final ByteBuffer src, final MsgContent content)
     {
         if (src == null) {
             throw new IllegalArgumentException("ByteBuffer cannot be null");
@@ -152,6 +169,7 @@ public class Msg
         this.flags = 0;
         this.buf = src.duplicate();
         this.size = buf.remaining();
+        this.content = content;
     }
 
     public Msg(final Msg m)
@@ -163,6 +181,10 @@ public class Msg
         this.flags = m.flags;
         this.size = m.size;
         this.buf = m.buf != null ? m.buf.duplicate() : null;
+        this.content = m.content;
+        if (content != null) {
+            content.addRefs(1);
+        }
     }
 
     private Msg(Msg src, ByteArrayOutputStream out)
@@ -172,6 +194,35 @@ public class Msg
         this.flags = src.flags;
     }
 
+    /**
+     * Adds references to the data of the message, for a message handed to several owners.
+     * Each owner shall then call {@link #release()} once done with it.
+     *
+     * @param refs the number of references to add.
+     */
+    public void addRefs(int refs)
+    {
+        if (content != null) {
+            content.addRefs(refs);
+        }
+    }
+
+    /**
+     * Releases a reference to the data of the message.
+     * <p>
+     * Messages allocated from a pool, like the ones of {@link zmq.msg.MsgAllocatorPool}, give their data back
+     * to the pool once the last reference is released. Messages sent to a socket are released by the socket,
+     * the received ones may be released by the application. Releasing is optional,
+     * the data of an unreleased message is simply garbage collected.
+     * The message shall not be used after being released.
+     *
+     * @return true if the data of the message have been freed.
+     */
+    public boolean release()
+    {
+        return content != null && content.release();
+    }
+
     public boolean isIdentity()
     {
         return (flags & IDENTITY) == IDENTITY;
@@ -37,7 +37,7 @@ public class Options
     int recoveryIvl = ZMQ.DEFAULT_RECOVERY_IVL;
 
     // Sets the time-to-live field in every multicast packet sent.
-    int multicastHops = ZMQ.DEFAULT_MULTICAST_HOPS;
+    public int multicastHops = ZMQ.DEFAULT_MULTICAST_HOPS;
 
     // SO_SNDBUF and SO_RCVBUF to be passed to underlying transport sockets.
     public int sndbuf = ZMQ.DEFAULT_SNDBUF;
@@ -69,6 +69,11 @@ public class Options
     int recvTimeout = ZMQ.DEFAULT_RECV_TIMEOUT;
     int sendTimeout = ZMQ.DEFAULT_SEND_TIMEOUT;
 
+    // Time spent spinning on the pipes before a blocking send/recv waits
+    // for a command, in microseconds. 0 disables the spinning. The spin
+    // counts against the send/recv timeout.
+    int spinWait = ZMQ.DEFAULT_SPIN_WAIT;
+
     //  If true, IPv6 is enabled (as well as IPv4)
     public boolean ipv6 = ZMQ.DEFAULT_IPV6;
 
@@ -121,6 +126,28 @@ public class Options
     //  Ignores hwm
     public boolean conflate = ZMQ.DEFAULT_CONFLATE;
 
+    //  If true, the subscriptions are stored in tries with compressed paths.
+    //  Applicable to xpub/xsub, pub/sub socket types, before any subscription.
+    public boolean compactTrie = ZMQ.DEFAULT_COMPACT_TRIE;
+
+    //  Number of threads writing a published message to the matching pipes,
+    //  including the socket one. 0 or 1 means only the socket thread.
+    //  Applicable to xpub and pub socket types.
+    public int fanoutThreads = ZMQ.DEFAULT_FANOUT_THREADS;
+
+    //  If true, a subscription is only sent upstream when no shorter one
+    //  covers it, and withdrawn from upstream once a shorter one does.
+    //  Applicable to xsub and sub socket types, before any subscription.
+    public boolean aggregateSubscriptions = ZMQ.DEFAULT_AGGREGATE_SUBSCRIPTIONS;
+
+    //  If positive or zero, pending messages are conflated by key: a message
+    //  replaces the pending one whose first frame starts with the same bytes,
+    //  as many as this size, or is the same if it is 0. -1 disables it.
+    //  Applicable to the messages received by sub/xsub and sent by pub/xpub
+    //  socket types, unless conflate is set.
+    //  Ignores hwm
+    public int conflateKey = ZMQ.DEFAULT_CONFLATE_KEY;
+
     //  If connection handshake is not done after this many milliseconds,
     //  close socket.  Default is 30 secs.  0 means no handshake timeout.
     public int handshakeIvl = ZMQ.DEFAULT_HANDSHAKE_IVL;
@@ -160,6 +187,10 @@ public class Options
     // A metadata record name where the self address will be stored if defined
     public String selfAddressPropertyName = ZMQ.DEFAULT_SELF_ADDRESS_PROPERTY_NAME;
 
+    // If true, received messages reference the read buffers of the
+    // connection instead of being copied into newly allocated messages.
+    public boolean zeroCopyRecv = ZMQ.DEFAULT_ZERO_COPY_RECV;
+
     // Last socket endpoint resolved URI
     String lastEndpoint = null;
 
@@ -283,6 +314,13 @@ public class Options
             sendTimeout = (Integer) optval;
             return true;
 
+        case ZMQ.ZMQ_SPIN_WAIT:
+            if ((Integer) optval < 0) {
+                return false;
+            }
+            spinWait = (Integer) optval;
+            return true;
+
         /*  Deprecated in favor of ZMQ_IPV6  */
         case ZMQ.ZMQ_IPV4ONLY:
             return setSocketOpt(ZMQ.ZMQ_IPV6, !parseBoolean(option, optval));
@@ -394,6 +432,28 @@ public class Options
             conflate = parseBoolean(option, optval);
             return true;
 
+        case ZMQ.ZMQ_COMPACT_TRIE:
+            compactTrie = parseBoolean(option, optval);
+            return true;
+
+        case ZMQ.ZMQ_FANOUT_THREADS:
+            if ((Integer) optval < 0) {
+                return false;
+            }
+            fanoutThreads = (Integer) optval;
+            return true;
+
+        case ZMQ.ZMQ_CONFLATE_KEY:
+            if ((Integer) optval < -1) {
+                return false;
+            }
+            conflateKey = (Integer) optval;
+            return true;
+
+        case ZMQ.ZMQ_AGGREGATE_SUBSCRIPTIONS:
+            aggregateSubscriptions = parseBoolean(option, optval);
+            return true;
+
         case ZMQ.ZMQ_GSSAPI_SERVER:
             asServer = parseBoolean(option, optval);
             mechanism = Mechanisms.GSSAPI;
@@ -566,6 +626,10 @@ public class Options
             this.selfAddressPropertyName = parseString(option, optval);
             return true;
 
+        case ZMQ.ZMQ_ZERO_COPY_RECV:
+            zeroCopyRecv = parseBoolean(option, optval);
+            return true;
+
         default:
             throw new IllegalArgumentException("Unknown Option " + option);
         }
@@ -713,6 +777,9 @@ public class Options
         case ZMQ.ZMQ_SNDTIMEO:
             return sendTimeout;
 
+        case ZMQ.ZMQ_SPIN_WAIT:
+            return spinWait;
+
         case ZMQ.ZMQ_IPV4ONLY:
             return !ipv6;
 
@@ -771,6 +838,18 @@ public class Options
         case ZMQ.ZMQ_CONFLATE:
             return conflate;
 
+        case ZMQ.ZMQ_COMPACT_TRIE:
+            return compactTrie;
+
+        case ZMQ.ZMQ_FANOUT_THREADS:
+            return fanoutThreads;
+
+        case ZMQ.ZMQ_CONFLATE_KEY:
+            return conflateKey;
+
+        case ZMQ.ZMQ_AGGREGATE_SUBSCRIPTIONS:
+            return aggregateSubscriptions;
+
         case ZMQ.ZMQ_GSSAPI_SERVER:
             return asServer && mechanism == Mechanisms.GSSAPI;
 
@@ -818,11 +897,32 @@ public class Options
         case ZMQ.ZMQ_SELFADDR_PROPERTY_NAME:
             return selfAddressPropertyName;
 
+        case ZMQ.ZMQ_ZERO_COPY_RECV:
+            return zeroCopyRecv;
+
         default:
             throw new IllegalArgumentException("option=" + option);
         }
     }
 
+    //  Returns the size of the key of the keyed conflation of the messages
+    //  received by the socket if inbound, or else sent, -1 if they are not
+    //  conflated by key.
+    public int conflateKey(boolean inbound)
+    {
+        if (conflate || conflateKey < 0) {
+            return -1;
+        }
+        boolean conflated;
+        if (inbound) {
+            conflated = type == ZMQ.ZMQ_SUB || type == ZMQ.ZMQ_XSUB;
+        }
+        else {
+            conflated = type == ZMQ.ZMQ_PUB || type == ZMQ.ZMQ_XPUB;
+        }
+        return conflated ? conflateKey : -1;
+    }
+
     public static boolean parseBoolean(int option, Object optval)
     {
         if (optval instanceof Boolean) {
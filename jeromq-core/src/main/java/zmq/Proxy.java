@@ -4,6 +4,7 @@ import java.nio.channels.Selector;
 import java.util.Arrays;
 
 import zmq.poll.PollItem;
+import zmq.poll.PollSet;
 
 class Proxy
 {
@@ -24,8 +25,19 @@ class Proxy
         TERMINATED
     }
 
+    //  Maximum number of messages forwarded in one direction before polling again,
+    //  so that the other direction and the control socket get their turn.
+    private static final int BATCH_SIZE = 1000;
+
+    //  Directions of the messages, indexes of the pending ones.
+    private static final int REQUEST = 0;
+    private static final int REPLY   = 1;
+
     private State state;
 
+    //  First frame of the message that the destination could not accept yet, by direction.
+    private final Msg[] pending = new Msg[2];
+
     private Proxy()
     {
         state = State.ACTIVE;
@@ -33,63 +45,53 @@ class Proxy
 
     private boolean start(SocketBase frontend, SocketBase backend, SocketBase capture, SocketBase control)
     {
-        //  The algorithm below assumes ratio of requests and replies processed
-        //  under full load to be 1:1.
+        //  The messages are forwarded in batches, as long as they can be received and
+        //  the destination accepts them. A message that cannot be sent is kept aside
+        //  until the destination is writable again, and no other message is received
+        //  from the source meanwhile, so that no message is dropped nor reordered.
 
-        //  TODO: The current implementation drops messages when
-        //  any of the pipes becomes full.
-
-        int rc;
-        int more;
-        Msg msg;
-        int count = control == null ? 2 : 3;
-
-        PollItem[] items = new PollItem[count];
+        Selector selector = frontend.getCtx().createSelector();
 
-        items[0] = new PollItem(frontend, ZMQ.ZMQ_POLLIN);
-        items[1] = new PollItem(backend, ZMQ.ZMQ_POLLIN);
+        //  The items stay registered between the polls, only their events change.
+        PollSet items = new PollSet(selector);
+        PollItem front = new PollItem(frontend, ZMQ.ZMQ_POLLIN);
+        items.add(front);
+        PollItem back = front;
+        if (frontend != backend) {
+            back = new PollItem(backend, ZMQ.ZMQ_POLLIN);
+            items.add(back);
+        }
+        PollItem ctrl = null;
         if (control != null) {
-            items[2] = new PollItem(control, ZMQ.ZMQ_POLLIN);
+            ctrl = new PollItem(control, ZMQ.ZMQ_POLLIN);
+            items.add(ctrl);
         }
-        PollItem[] itemsout = new PollItem[2];
-
-        itemsout[0] = new PollItem(frontend, ZMQ.ZMQ_POLLOUT);
-        itemsout[1] = new PollItem(backend, ZMQ.ZMQ_POLLOUT);
-
-        Selector selector = frontend.getCtx().createSelector();
 
         try {
             while (state != State.TERMINATED) {
+                if (frontend == backend) {
+                    front.interestOps(events(REQUEST, REQUEST));
+                }
+                else {
+                    front.interestOps(events(REQUEST, REPLY));
+                    back.interestOps(events(REPLY, REQUEST));
+                }
+
                 //  Wait while there are either requests or replies to process.
-                rc = ZMQ.poll(selector, items, -1);
+                int rc = items.poll(-1);
                 if (rc < 0) {
                     return false;
                 }
 
-                //  Get the pollout separately because when combining this with pollin it makes the CPU
-                //  because pollout shall most of the time return directly.
-                //  POLLOUT is only checked when frontend and backend sockets are not the same.
-                if (frontend != backend) {
-                    rc = ZMQ.poll(selector, itemsout, 0L);
-                    if (rc < 0) {
-                        return false;
-                    }
-                }
-
                 //  Process a control command if any
-                if (control != null && items[2].isReadable()) {
-                    msg = control.recv(0);
+                if (ctrl != null && ctrl.isReadable()) {
+                    Msg msg = control.recv(0);
                     if (msg == null) {
                         return false;
                     }
-                    more = control.getSocketOpt(ZMQ.ZMQ_RCVMORE);
-
-                    if (more < 0) {
-                        return false;
-                    }
 
                     //  Copy message to capture socket if any
-                    boolean success = capture(capture, msg, more);
+                    boolean success = capture(capture, msg);
                     if (!success) {
                         return false;
                     }
@@ -111,67 +113,108 @@ class Proxy
                         assert false;
                     }
                 }
-                //  Process a request.
-                if (process(items[0], itemsout[1], frontend, backend)) {
-                    if (!forward(frontend, backend, capture)) {
+                //  Process the requests.
+                if (process(REQUEST, front, back)) {
+                    if (!forward(REQUEST, frontend, backend, capture)) {
                         return false;
                     }
                 }
-                //  Process a reply.
-                if (process(items[1], itemsout[0], frontend, backend)) {
-                    if (!forward(backend, frontend, capture)) {
+                //  Process the replies.
+                if (frontend != backend && process(REPLY, back, front)) {
+                    if (!forward(REPLY, backend, frontend, capture)) {
                         return false;
                     }
                 }
             }
         }
         finally {
+            for (int idx = 0; idx < pending.length; ++idx) {
+                if (pending[idx] != null) {
+                    pending[idx].release();
+                    pending[idx] = null;
+                }
+            }
             frontend.getCtx().closeSelector(selector);
         }
 
         return true;
     }
 
-    private boolean process(PollItem read, PollItem write, SocketBase frontend, SocketBase backend)
+    //  Events to poll on a socket, the source of a direction and the destination of another one.
+    //  POLLOUT is only polled when a message waits for the destination, as it is most of the
+    //  time returned at once.
+    private int events(int source, int destination)
     {
-        return state == State.ACTIVE && read.isReadable() && (frontend == backend || write.isWritable());
+        int events = 0;
+        if (state == State.ACTIVE) {
+            if (pending[source] == null) {
+                events |= ZMQ.ZMQ_POLLIN;
+            }
+            if (pending[destination] != null) {
+                events |= ZMQ.ZMQ_POLLOUT;
+            }
+        }
+        return events;
     }
 
-    private boolean forward(SocketBase from, SocketBase to, SocketBase capture)
+    private boolean process(int direction, PollItem read, PollItem write)
     {
-        int more;
-        boolean success;
-        while (true) {
-            Msg msg = from.recv(0);
+        if (state != State.ACTIVE) {
+            return false;
+        }
+        return pending[direction] == null ? read.isReadable() : write.isWritable();
+    }
+
+    //  Forwards the messages of a direction until none is left to receive, the destination
+    //  is full, or the batch is over.
+    private boolean forward(int direction, SocketBase from, SocketBase to, SocketBase capture)
+    {
+        for (int count = 0; count < BATCH_SIZE; ++count) {
+            Msg msg = pending[direction];
+            pending[direction] = null;
             if (msg == null) {
-                return false;
-            }
-            more = from.getSocketOpt(ZMQ.ZMQ_RCVMORE);
-            if (more < 0) {
-                return false;
+                msg = from.recv(ZMQ.ZMQ_DONTWAIT);
+                if (msg == null) {
+                    return from.errno() == ZError.EAGAIN;
+                }
+                //  Copy message to capture socket if any
+                if (!capture(capture, msg)) {
+                    return false;
+                }
             }
+            boolean more = msg.hasMore();
 
-            //  Copy message to capture socket if any
-            success = capture(capture, msg, more);
-            if (!success) {
-                return false;
-            }
-            success = to.send(msg, more > 0 ? ZMQ.ZMQ_SNDMORE : 0);
-            if (!success) {
-                return false;
+            //  The destination is only asked whether it takes a new message on its first frame.
+            if (!to.send(msg, more ? ZMQ.ZMQ_SNDMORE | ZMQ.ZMQ_DONTWAIT : ZMQ.ZMQ_DONTWAIT)) {
+                if (to.errno() != ZError.EAGAIN) {
+                    return false;
+                }
+                pending[direction] = msg;
+                return true;
             }
-            if (more == 0) {
-                break;
+            while (more) {
+                msg = from.recv(0);
+                if (msg == null) {
+                    return false;
+                }
+                more = msg.hasMore();
+
+                if (!capture(capture, msg)) {
+                    return false;
+                }
+                if (!to.send(msg, more ? ZMQ.ZMQ_SNDMORE : 0)) {
+                    return false;
+                }
             }
         }
         return true;
     }
 
-    private boolean capture(SocketBase capture, Msg msg, int more)
+    private boolean capture(SocketBase capture, Msg msg)
     {
         if (capture != null) {
             Msg ctrl = new Msg(msg);
-            return capture.send(ctrl, more > 0 ? ZMQ.ZMQ_SNDMORE : 0);
+            return capture.send(ctrl, msg.hasMore() ? ZMQ.ZMQ_SNDMORE : 0);
         }
         return true;
     }
@@ -127,18 +127,21 @@ final class Signaler implements Closeable
 
     void send()
     {
-        int nbytes = 0;
+        int nbytes;
 
-        while (nbytes == 0) {
-            try {
-                wdummy.get().clear();
-                nbytes = maksInterrupt(() -> w.write(wdummy.get()));
-            }
-            catch (IOException e) {
-                throw new ZError.IOException(e);
-            }
+        try {
+            wdummy.get().clear();
+            nbytes = maksInterrupt(() -> w.write(wdummy.get()));
+        }
+        catch (IOException e) {
+            throw new ZError.IOException(e);
+        }
+        //  A full pipe is already readable, and each signal received is followed by a
+        //  look for commands, so the reader is bound to see this one. Waiting for room
+        //  would dead-lock a thread signaling its own mailbox, as the reaper does.
+        if (nbytes > 0) {
+            wcursor.incrementAndGet();
         }
-        wcursor.incrementAndGet();
     }
 
     boolean waitEvent(long timeout)
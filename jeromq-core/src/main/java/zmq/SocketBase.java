@@ -7,9 +7,11 @@ import java.nio.channels.SocketChannel;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
 
 import zmq.io.IOThread;
 import zmq.io.SessionBase;
@@ -147,6 +149,10 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
         options.socketId = sid;
         options.ipv6 = parent.get(ZMQ.ZMQ_IPV6) != 0;
         options.linger = parent.get(ZMQ.ZMQ_BLOCKY) != 0 ? -1 : 0;
+        LongSupplier affinity = parent.getSocketAffinity();
+        if (affinity != null) {
+            options.affinity = affinity.getAsLong();
+        }
 
         endpoints = new MultiMap<>();
         inprocs = new MultiMap<>();
@@ -529,9 +535,20 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
                                                     || options.type == ZMQ.ZMQ_PUSH || options.type == ZMQ.ZMQ_PUB
                                                     || options.type == ZMQ.ZMQ_SUB);
 
-            int[] hwms = {conflate ? -1 : sndhwm, conflate ? -1 : rcvhwm};
+            //  Messages are conflated by key as asked by the socket that sends or receives them.
+            int[] conflateKeys = {options.conflateKey(true), options.conflateKey(false)};
+            if (peer.socket != null) {
+                if (conflateKeys[0] < 0) {
+                    conflateKeys[0] = peer.options.conflateKey(false);
+                }
+                if (conflateKeys[1] < 0) {
+                    conflateKeys[1] = peer.options.conflateKey(true);
+                }
+            }
+
+            int[] hwms = {conflate || conflateKeys[1] >= 0 ? -1 : sndhwm, conflate || conflateKeys[0] >= 0 ? -1 : rcvhwm};
             boolean[] conflates = {conflate, conflate};
-            Pipe[] pipes = Pipe.pair(parents, hwms, conflates);
+            Pipe[] pipes = Pipe.pair(parents, hwms, conflates, conflateKeys);
 
             //  Attach local end of the pipe to this socket object.
             attachPipe(pipes[0], true);
@@ -651,9 +668,12 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
                                                     || options.type == ZMQ.ZMQ_PUSH || options.type == ZMQ.ZMQ_PUB
                                                     || options.type == ZMQ.ZMQ_SUB);
 
-            int[] hwms = {conflate ? -1 : options.sendHwm, conflate ? -1 : options.recvHwm};
+            int[] conflateKeys = {options.conflateKey(true), options.conflateKey(false)};
+
+            int[] hwms = {conflate || conflateKeys[1] >= 0 ? -1 : options.sendHwm,
+                          conflate || conflateKeys[0] >= 0 ? -1 : options.recvHwm};
             boolean[] conflates = {conflate, conflate};
-            Pipe[] pipes = Pipe.pair(parents, hwms, conflates);
+            Pipe[] pipes = Pipe.pair(parents, hwms, conflates, conflateKeys);
 
             //  Attach local end of the pipe to the socket object.
             attachPipe(pipes[0], subscribe2all, true);
@@ -836,6 +856,24 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
             int timeout = options.sendTimeout;
             long end = timeout < 0 ? 0 : (Clock.nowMS() + timeout);
 
+            //  Before blocking, spin for a while in case the pipe frees up shortly.
+            //  The time spent spinning is taken from the timeout.
+            if (options.spinWait > 0) {
+                if (spinSend(msg, timeout, canceled)) {
+                    return true;
+                }
+                if (errno.get() != ZError.EAGAIN) {
+                    return false;
+                }
+                if (timeout > 0) {
+                    timeout = (int) (end - Clock.nowMS());
+                    if (timeout <= 0) {
+                        errno.set(ZError.EAGAIN);
+                        return false;
+                    }
+                }
+            }
+
             //  Oops, we couldn't send the message. Wait for the next
             //  command, process it and try to send the message again.
             //  If timeout is reached in the meantime, return EAGAIN.
@@ -939,6 +977,26 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
             int timeout = options.recvTimeout;
             long end = timeout < 0 ? 0 : (Clock.nowMS() + timeout);
 
+            //  Before blocking, spin for a while in case a message arrives shortly.
+            //  The time spent spinning is taken from the timeout.
+            if (options.spinWait > 0) {
+                msg = spinRecv(timeout, canceled);
+                if (msg != null) {
+                    extractFlags(msg);
+                    return msg;
+                }
+                if (errno.get() != ZError.EAGAIN) {
+                    return null;
+                }
+                if (timeout > 0) {
+                    timeout = (int) (end - Clock.nowMS());
+                    if (timeout <= 0) {
+                        errno.set(ZError.EAGAIN);
+                        return null;
+                    }
+                }
+            }
+
             //  In blocking scenario, commands are processed over and over again until
             //  we are able to fetch a message.
             boolean block = (ticks != 0);
@@ -1118,6 +1176,59 @@ public abstract class SocketBase extends Own implements IPollEvents, Pipe.IPipeE
         checkDestroy();
     }
 
+    //  Tries to send the message until it succeeds or the spin-wait budget
+    //  is exhausted, processing the pending commands without ever blocking.
+    //  The budget never exceeds the timeout, when there is one.
+    private boolean spinSend(Msg msg, int timeout, AtomicBoolean canceled)
+    {
+        long end = Clock.nowNS() + spinBudget(timeout);
+        do {
+            Thread.onSpinWait();
+            if (!processCommands(0, false, canceled)) {
+                return false;
+            }
+            if (xsend(msg)) {
+                return true;
+            }
+            if (errno.get() != ZError.EAGAIN) {
+                return false;
+            }
+        } while (Clock.nowNS() - end < 0);
+        return false;
+    }
+
+    //  Tries to receive a message until one is available or the spin-wait budget
+    //  is exhausted, processing the pending commands without ever blocking.
+    private Msg spinRecv(int timeout, AtomicBoolean canceled)
+    {
+        long end = Clock.nowNS() + spinBudget(timeout);
+        do {
+            Thread.onSpinWait();
+            if (!processCommands(0, false, canceled)) {
+                return null;
+            }
+            Msg msg = xrecv();
+            if (msg != null) {
+                ticks = 0;
+                return msg;
+            }
+            if (errno.get() != ZError.EAGAIN) {
+                return null;
+            }
+        } while (Clock.nowNS() - end < 0);
+        return null;
+    }
+
+    //  Returns the spin-wait budget in nanoseconds, capped by the timeout in milliseconds.
+    private long spinBudget(int timeout)
+    {
+        long budget = TimeUnit.MICROSECONDS.toNanos(options.spinWait);
+        if (timeout > 0) {
+            budget = Math.min(budget, TimeUnit.MILLISECONDS.toNanos(timeout));
+        }
+        return budget;
+    }
+
     private boolean isInEvent()
     {
         Boolean bRes = isInEventThreadLocal.get();
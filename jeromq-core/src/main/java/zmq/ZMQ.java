@@ -147,6 +147,7 @@ public class ZMQ
     public static final int ZMQ_DISCONNECT_MSG           = 81;
     public static final int ZMQ_HICCUP_MSG               = 82;
     public static final int ZMQ_SELFADDR_PROPERTY_NAME   = 83;
+    public static final int ZMQ_ZERO_COPY_RECV           = 92;
 
     /* Custom options */
     @Deprecated
@@ -157,6 +158,16 @@ public class ZMQ
     public static final int ZMQ_MSG_ALLOCATION_HEAP_THRESHOLD = ZMQ_CUSTOM_OPTION + 4;
     public static final int ZMQ_HEARTBEAT_CONTEXT             = ZMQ_CUSTOM_OPTION + 5;
     public static final int ZMQ_SELECTOR_PROVIDERCHOOSER      = ZMQ_CUSTOM_OPTION + 6;
+    public static final int ZMQ_SPIN_WAIT                     = ZMQ_CUSTOM_OPTION + 7;
+    public static final int ZMQ_COMPACT_TRIE                  = ZMQ_CUSTOM_OPTION + 8;
+    public static final int ZMQ_FANOUT_THREADS                = ZMQ_CUSTOM_OPTION + 9;
+    public static final int ZMQ_CONFLATE_KEY                  = ZMQ_CUSTOM_OPTION + 10;
+    public static final int ZMQ_XPUB_REPLAY                   = ZMQ_CUSTOM_OPTION + 11;
+    public static final int ZMQ_AGGREGATE_SUBSCRIPTIONS       = ZMQ_CUSTOM_OPTION + 12;
+
+    /* Custom context options */
+    public static final int ZMQ_TIMER_WHEEL       = ZMQ_CUSTOM_OPTION + 100;
+    public static final int ZMQ_BALANCE_IO_THREADS = ZMQ_CUSTOM_OPTION + 101;
 
     /*  Message options                                                           */
     public static final int ZMQ_MORE = 1;
@@ -429,6 +440,30 @@ public class ZMQ
      * Default value for {@link ZMQ#ZMQ_ZAP_DOMAIN}
      */
     public static final String DEFAULT_ZAP_DOMAIN = "";
+    /**
+     * Default value for {@link ZMQ#ZMQ_ZERO_COPY_RECV}
+     */
+    public static final boolean DEFAULT_ZERO_COPY_RECV = false;
+    /**
+     * Default value for {@link ZMQ#ZMQ_SPIN_WAIT}
+     */
+    public static final int DEFAULT_SPIN_WAIT = 0;
+    /**
+     * Default value for {@link ZMQ#ZMQ_COMPACT_TRIE}
+     */
+    public static final boolean DEFAULT_COMPACT_TRIE = false;
+    /**
+     * Default value for {@link ZMQ#ZMQ_FANOUT_THREADS}
+     */
+    public static final int DEFAULT_FANOUT_THREADS = 0;
+    /**
+     * Default value for {@link ZMQ#ZMQ_CONFLATE_KEY}
+     */
+    public static final int DEFAULT_CONFLATE_KEY = -1;
+    /**
+     * Default value for {@link ZMQ#ZMQ_AGGREGATE_SUBSCRIPTIONS}
+     */
+    public static final boolean DEFAULT_AGGREGATE_SUBSCRIPTIONS = false;
 
     public static final boolean PREFER_IPV6;
 
@@ -886,6 +921,12 @@ public class ZMQ
         return new Msg(messageSize);
     }
 
+    //  Releases the message, giving its data back to their pool if any.
+    public static boolean msgClose(Msg msg)
+    {
+        return msg.release();
+    }
+
     public static int msgSize(Msg msg)
     {
         return msg.size();
@@ -966,6 +1007,9 @@ public class ZMQ
     /**
      * Polling on items with given selector
      * CAUTION: This could be affected by jdk epoll bug
+     * <p>
+     * The items are registered again on each call. Loops polling the same items over and over
+     * should use a {@link zmq.poll.PollSet} instead, which keeps them registered.
      *
      * @param selector Open and reuse this selector and do not forget to close when it is not used.
      * @param items
@@ -16,6 +16,11 @@ public abstract class ZObject
     //  Thread ID of the thread the object belongs to.
     private int tid;
 
+    //  If true, the object may move to another thread. The commands sent
+    //  to it are then routed while holding its lock, so that the move
+    //  happens either before or after each of them.
+    private boolean movable;
+
     protected ZObject(Ctx ctx, int tid)
     {
         this.ctx = ctx;
@@ -25,6 +30,7 @@ public abstract class ZObject
     protected ZObject(ZObject parent)
     {
         this(parent.ctx, parent.tid);
+        this.movable = parent.movable;
     }
 
     public final int getTid()
@@ -37,6 +43,17 @@ public abstract class ZObject
         this.tid = tid;
     }
 
+    //  To be called before the object is known to any other thread.
+    protected final void setMovable()
+    {
+        this.movable = true;
+    }
+
+    protected final boolean isMovable()
+    {
+        return movable;
+    }
+
     public final Ctx getCtx()
     {
         return ctx;
@@ -123,6 +140,10 @@ public abstract class ZObject
             processCancel();
             break;
 
+        case MOVE:
+            processMove((IOThread) cmd.arg);
+            break;
+
         case DONE:
         default:
             throw new IllegalArgumentException();
@@ -170,6 +191,12 @@ public abstract class ZObject
         return ctx.chooseIoThread(affinity);
     }
 
+    //  Chooses the I/O thread with the least traffic.
+    protected final IOThread chooseLeastBusyIoThread(long affinity)
+    {
+        return ctx.chooseLeastBusyIoThread(affinity);
+    }
+
     protected final void sendStop()
     {
         //  'stop' command goes always from administrative thread to
@@ -314,6 +341,12 @@ public abstract class ZObject
         sendCommand(cmd);
     }
 
+    protected final void sendMove(ZObject destination, IOThread ioThread)
+    {
+        Command cmd = new Command(destination, Command.Type.MOVE, ioThread);
+        sendCommand(cmd);
+    }
+
     protected void processStop()
     {
         throw new UnsupportedOperationException();
@@ -405,8 +438,22 @@ public abstract class ZObject
     {
     }
 
+    protected void processMove(IOThread ioThread)
+    {
+        throw new UnsupportedOperationException();
+    }
+
     private void sendCommand(Command cmd)
     {
-        ctx.sendCommand(cmd.destination.getTid(), cmd);
+        ZObject destination = cmd.destination;
+        if (destination.movable) {
+            //  The thread is changed while holding the lock, see SessionBase.move().
+            synchronized (destination) {
+                ctx.sendCommand(destination.tid, cmd);
+            }
+        }
+        else {
+            ctx.sendCommand(destination.tid, cmd);
+        }
     }
 }
@@ -3,16 +3,32 @@ package zmq.io;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.channels.SelectableChannel;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import zmq.Command;
 import zmq.Ctx;
 import zmq.Mailbox;
+import zmq.ZMQ;
 import zmq.ZObject;
 import zmq.poll.IPollEvents;
 import zmq.poll.Poller;
+import zmq.util.Clock;
+import zmq.util.function.BiFunction;
 
 public class IOThread extends ZObject implements IPollEvents, Closeable
 {
+    //  Minimum interval in milliseconds between two samples of the traffic rate.
+    private static final long SAMPLE_IVL = 100;
+
+    //  Interval in milliseconds between two attempts to move a busy connection
+    //  to a less busy I/O thread.
+    private static final long REBALANCE_IVL = 1000;
+
+    //  ID of the rebalance timer
+    private static final int REBALANCE_TIMER_ID = 0x01;
+
     //  I/O thread accesses incoming commands via this mailbox.
     private final Mailbox mailbox;
 
@@ -22,16 +38,46 @@ public class IOThread extends ZObject implements IPollEvents, Closeable
     //  I/O multiplexing is performed using a poller object.
     private final Poller poller;
 
+    //  Traffic of the engines plugged in the thread, only written by the thread itself.
+    private final AtomicLong bytesIn  = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong msgsIn   = new AtomicLong();
+    private final AtomicLong msgsOut  = new AtomicLong();
+
+    //  Bytes per second handled by the thread, smoothed over the samples taken
+    //  when choosing a thread for a new connection.
+    private double rate;
+    private long   sampledBytes;
+    private long   sampledAt;
+
+    //  If true, the busy connections are moved to the less busy I/O threads.
+    private final boolean rebalance;
+
+    //  Engines plugged in the thread, with the time of the last rebalancing and
+    //  whether the rebalance timer is running. Only accessed by the thread itself.
+    private final Set<StreamEngine> engines;
+    private long                    rebalancedAt;
+    private boolean                 hasRebalanceTimer;
+
     public IOThread(Ctx ctx, int tid)
+    {
+        this(ctx, tid, ctx.getThreadFactory());
+    }
+
+    public IOThread(Ctx ctx, int tid, BiFunction<Runnable, String, Thread> threadFactory)
     {
         super(ctx, tid);
         String name = "iothread-" + tid;
-        poller = new Poller(ctx, name);
+        poller = new Poller(ctx, name, threadFactory);
 
         mailbox = new Mailbox(ctx, name, tid);
         SelectableChannel fd = mailbox.getFd();
         mailboxHandle = poller.addHandle(fd, this);
         poller.setPollIn(mailboxHandle);
+        sampledAt = Clock.nowMS();
+
+        rebalance = ctx.get(ZMQ.ZMQ_BALANCE_IO_THREADS) != 0;
+        engines = new HashSet<>();
     }
 
     public void start()
@@ -61,6 +107,128 @@ public class IOThread extends ZObject implements IPollEvents, Closeable
         return poller.getLoad();
     }
 
+    //  Called by the engines with the bytes and messages they received.
+    void received(int bytes, int msgs)
+    {
+        add(bytesIn, bytes);
+        add(msgsIn, msgs);
+    }
+
+    //  Called by the engines with the bytes and messages they sent.
+    void sent(int bytes, int msgs)
+    {
+        add(bytesOut, bytes);
+        add(msgsOut, msgs);
+    }
+
+    private static void add(AtomicLong counter, int amount)
+    {
+        if (amount > 0) {
+            //  Single writer, the readers only need to see the value eventually.
+            counter.lazySet(counter.get() + amount);
+        }
+    }
+
+    public long getBytesIn()
+    {
+        return bytesIn.get();
+    }
+
+    public long getBytesOut()
+    {
+        return bytesOut.get();
+    }
+
+    public long getMsgsIn()
+    {
+        return msgsIn.get();
+    }
+
+    public long getMsgsOut()
+    {
+        return msgsOut.get();
+    }
+
+    //  Returns the bytes per second recently received and sent by the thread.
+    //  Note that this function is invoked from a different thread!
+    public synchronized double getRate(long now)
+    {
+        long elapsed = now - sampledAt;
+        if (elapsed >= SAMPLE_IVL) {
+            long bytes = bytesIn.get() + bytesOut.get();
+            rate = (rate + (bytes - sampledBytes) * 1000.0 / elapsed) / 2;
+            sampledBytes = bytes;
+            sampledAt = now;
+        }
+        return rate;
+    }
+
+    //  Called by the engines when they are plugged in the thread.
+    void register(StreamEngine engine)
+    {
+        if (rebalance) {
+            engines.add(engine);
+            if (!hasRebalanceTimer) {
+                rebalancedAt = Clock.nowMS();
+                poller.addTimer(REBALANCE_IVL, this, REBALANCE_TIMER_ID);
+                hasRebalanceTimer = true;
+            }
+        }
+    }
+
+    //  Called by the engines when they are unplugged from the thread.
+    void unregister(StreamEngine engine)
+    {
+        engines.remove(engine);
+    }
+
+    @Override
+    public void timerEvent(int id)
+    {
+        assert (id == REBALANCE_TIMER_ID);
+        rebalance();
+        if (engines.isEmpty()) {
+            hasRebalanceTimer = false;
+        }
+        else {
+            poller.addTimer(REBALANCE_IVL, this, REBALANCE_TIMER_ID);
+        }
+    }
+
+    //  Moves a connection to the least busy I/O thread, if that makes the traffic
+    //  more even: the busiest one whose traffic is less than the difference between
+    //  the traffic of this thread and of the other one. A single connection is moved
+    //  at a time, to let the rates settle before the next decision.
+    private void rebalance()
+    {
+        long now = Clock.nowMS();
+        long elapsed = Math.max(now - rebalancedAt, 1);
+        rebalancedAt = now;
+
+        double rate = getRate(now);
+        StreamEngine selected = null;
+        IOThread target = null;
+        double selectedRate = 0;
+        for (StreamEngine engine : engines) {
+            //  Every engine is sampled, for the next time to only count the traffic since now.
+            double engineRate = engine.takeTraffic() * 1000.0 / elapsed;
+            if (engineRate <= selectedRate || !engine.isQuiet()) {
+                continue;
+            }
+            IOThread ioThread = chooseLeastBusyIoThread(engine.affinity());
+            if (ioThread == null || ioThread == this || engineRate >= rate - ioThread.getRate(now)) {
+                continue;
+            }
+            selected = engine;
+            target = ioThread;
+            selectedRate = engineRate;
+        }
+        if (selected != null) {
+            //  The engine is no longer plugged here if the move succeeds.
+            selected.move(target);
+        }
+    }
+
     @Override
     public void inEvent()
     {
@@ -4,6 +4,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import zmq.Ctx;
+import zmq.Mailbox;
 import zmq.Msg;
 import zmq.Options;
 import zmq.Own;
@@ -49,7 +50,7 @@ public class SessionBase extends Own implements Pipe.IPipeEvents, IPollEvents
 
     //  I/O thread the session is living in. It will be used to plug in
     //  the engines into the same thread.
-    private final IOThread ioThread;
+    private IOThread ioThread;
 
     //  ID of the linger timer
     private static final int LINGER_TIMER_ID = 0x20;
@@ -60,7 +61,7 @@ public class SessionBase extends Own implements Pipe.IPipeEvents, IPollEvents
     //  Protocol and address to use when connecting.
     private final Address addr;
 
-    private final IOObject ioObject;
+    private IOObject ioObject;
 
     public SessionBase(IOThread ioThread, boolean connect, SocketBase socket, Options options, Address addr)
     {
@@ -79,6 +80,11 @@ public class SessionBase extends Own implements Pipe.IPipeEvents, IPollEvents
         this.addr = addr;
 
         terminatingPipes = new HashSet<>();
+
+        //  The busy sessions may be moved to a less busy I/O thread.
+        if (getCtx().get(ZMQ.ZMQ_BALANCE_IO_THREADS) != 0) {
+            setMovable();
+        }
     }
 
     @Override
@@ -349,9 +355,12 @@ public class SessionBase extends Own implements Pipe.IPipeEvents, IPollEvents
             boolean conflate = options.conflate && (options.type == ZMQ.ZMQ_DEALER || options.type == ZMQ.ZMQ_PULL
                     || options.type == ZMQ.ZMQ_PUSH || options.type == ZMQ.ZMQ_PUB || options.type == ZMQ.ZMQ_SUB);
 
-            int[] hwms = { conflate ? -1 : options.recvHwm, conflate ? -1 : options.sendHwm };
+            int[] conflateKeys = { options.conflateKey(false), options.conflateKey(true) };
+
+            int[] hwms = { conflate || conflateKeys[1] >= 0 ? -1 : options.recvHwm,
+                           conflate || conflateKeys[0] >= 0 ? -1 : options.sendHwm };
             boolean[] conflates = { conflate, conflate };
-            Pipe[] pipes = Pipe.pair(parents, hwms, conflates);
+            Pipe[] pipes = Pipe.pair(parents, hwms, conflates, conflateKeys);
 
             //  Plug the local end of the pipe.
             pipes[0].setEventSink(this);
@@ -370,6 +379,54 @@ public class SessionBase extends Own implements Pipe.IPipeEvents, IPollEvents
         this.engine.plug(ioThread, this);
     }
 
+    //  Returns true if the session can be moved to another I/O thread, with
+    //  its pipe to the socket and its engine.
+    boolean isQuiet()
+    {
+        return isMovable() && pipe != null && zapPipe == null && terminatingPipes.isEmpty() && !pending
+                && !isTerminating() && engine instanceof StreamEngine;
+    }
+
+    //  Moves the session to the given I/O thread, if it is quiet and no command
+    //  to it or to its pipe is waiting in the mailbox of the current thread.
+    //  Called from the current thread, the session is then plugged in the new
+    //  one when it processes the move command. Returns false if not moved.
+    boolean move(IOThread target)
+    {
+        assert (target != ioThread);
+        if (!isQuiet()) {
+            return false;
+        }
+        //  Holding the locks, the commands to the session and its pipe are either
+        //  routed to the current thread, where there are none, or to the new one,
+        //  after the move command.
+        synchronized (this) {
+            synchronized (pipe) {
+                Mailbox mailbox = ioThread.getMailbox();
+                if (mailbox.hasCommandTo(this) || mailbox.hasCommandTo(pipe)) {
+                    return false;
+                }
+                ((StreamEngine) engine).unplugFromThread();
+                ioObject.unplug();
+
+                setTid(target.getTid());
+                pipe.moveTo(target.getTid());
+                sendMove(this, target);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void processMove(IOThread ioThread)
+    {
+        this.ioThread = ioThread;
+        ioObject = new IOObject(ioThread, this);
+        ioObject.plug();
+
+        ((StreamEngine) engine).plugInThread(ioThread);
+    }
+
     public void engineError(boolean handshaked, ErrorReason reason)
     {
         //  Engine is dead. Let's forget about it.
@@ -516,7 +573,7 @@ public class SessionBase extends Own implements Pipe.IPipeEvents, IPollEvents
             errno.set(ZError.EPROTONOSUPPORT);
             return;
         }
-        protocol.startConnecting(options, ioThread, this, addr, wait, this::launchChild, null);
+        protocol.startConnecting(options, ioThread, this, addr, wait, this::launchChild, this::sendAttach);
     }
 
     public String getEndpoint()
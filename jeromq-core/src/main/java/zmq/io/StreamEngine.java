@@ -15,6 +15,7 @@ import zmq.ZMQ;
 import zmq.io.coder.IDecoder;
 import zmq.io.coder.IDecoder.Step;
 import zmq.io.coder.IEncoder;
+import zmq.io.coder.WriteVector;
 import zmq.io.coder.raw.RawDecoder;
 import zmq.io.coder.raw.RawEncoder;
 import zmq.io.coder.v1.V1Decoder;
@@ -80,6 +81,12 @@ public class StreamEngine implements IEngine, IPollEvents
 
     private IOObject ioObject;
 
+    //  Thread the engine is plugged in, counting its traffic.
+    private IOThread ioThread;
+
+    //  Bytes read and written since the thread last sampled the traffic.
+    private long traffic;
+
     //  Underlying socket.
     private SocketChannel fd;
 
@@ -91,6 +98,9 @@ public class StreamEngine implements IEngine, IPollEvents
 
     private final ValueReference<ByteBuffer> outpos;
     private int outsize;
+
+    //  Buffers to write when the encoder supports gathering writes.
+    private final WriteVector outvec;
     private IEncoder encoder;
 
     private Metadata metadata;
@@ -180,6 +190,7 @@ public class StreamEngine implements IEngine, IPollEvents
         processMsg = processIdentity;
 
         outpos = new ValueReference<>();
+        outvec = new WriteVector();
 
         greetingRecv = ByteBuffer.allocate(V3_GREETING_SIZE);
         greetingSend = ByteBuffer.allocate(V3_GREETING_SIZE);
@@ -248,10 +259,12 @@ public class StreamEngine implements IEngine, IPollEvents
         socket = session.getSocket();
 
         //  Connect to I/O threads poller object.
+        this.ioThread = ioThread;
         ioObject = new IOObject(ioThread, this);
         ioObject.plug();
         handle = ioObject.addFd(fd);
         ioError = false;
+        ioThread.register(this);
 
         //  Make sure batch sizes match large buffer sizes
         final int inBatchSize = Math.max(options.rcvbuf, Config.IN_BATCH_SIZE.getValue());
@@ -365,10 +378,72 @@ public class StreamEngine implements IEngine, IPollEvents
 
         //  Disconnect from I/O threads poller object.
         ioObject.unplug();
+        ioThread.unregister(this);
 
         session = null;
     }
 
+    //  Returns true if the engine can be moved to another I/O thread with its
+    //  session: the handshake is done, no data is waiting to be decoded or
+    //  written, and no heartbeat is waiting for an answer.
+    boolean isQuiet()
+    {
+        return plugged && !handshaking && !ioError && !inputStopped && insize == 0 && outsize == 0
+                && !hasTtlTimer && !hasTimeoutTimer && session.isQuiet();
+    }
+
+    boolean move(IOThread target)
+    {
+        return session.move(target);
+    }
+
+    long affinity()
+    {
+        return options.affinity;
+    }
+
+    //  Returns the bytes read and written since the last call.
+    long takeTraffic()
+    {
+        long bytes = traffic;
+        traffic = 0;
+        return bytes;
+    }
+
+    //  Disconnects the quiet engine from its I/O thread, the session plugging
+    //  it in another one with plugInThread().
+    void unplugFromThread()
+    {
+        assert (isQuiet());
+        if (hasHeartbeatTimer) {
+            ioObject.cancelTimer(HEARTBEAT_IVL_TIMER_ID);
+        }
+        ioObject.removeHandle(handle);
+        handle = null;
+        ioObject.unplug();
+        ioThread.unregister(this);
+    }
+
+    void plugInThread(IOThread ioThread)
+    {
+        this.ioThread = ioThread;
+        ioObject = new IOObject(ioThread, this);
+        ioObject.plug();
+        handle = ioObject.addFd(fd);
+        ioThread.register(this);
+        if (hasHeartbeatTimer) {
+            ioObject.addTimer(options.heartbeatInterval, HEARTBEAT_IVL_TIMER_ID);
+        }
+
+        //  Output is polled until there is nothing left to send.
+        outputStopped = false;
+        ioObject.setPollIn(handle);
+        ioObject.setPollOut(handle);
+
+        //  Catch up with the data received while moving.
+        inEvent();
+    }
+
     @Override
     public void terminate()
     {
@@ -405,8 +480,18 @@ public class StreamEngine implements IEngine, IPollEvents
             //  the underlying TCP layer has fixed buffer size and thus the
             //  number of bytes read will be always limited.
 
-            inpos = decoder.getBuffer();
-            int rc = read(inpos);
+            //  Large message bodies are read directly into their message,
+            //  followed by as much data as possible in a single system call.
+            ByteBuffer[] buffers = decoder.getBuffers();
+            int rc;
+            if (buffers == null) {
+                inpos = decoder.getBuffer();
+                rc = read(inpos);
+            }
+            else {
+                inpos = buffers[buffers.length - 1];
+                rc = read(buffers);
+            }
 
             if (rc == 0) {
                 error(ErrorReason.CONNECTION);
@@ -425,6 +510,7 @@ public class StreamEngine implements IEngine, IPollEvents
 
         boolean rc = false;
         ValueReference<Integer> processed = new ValueReference<>(0);
+        int msgs = 0;
 
         while (insize > 0) {
             //  Push the data to the decoder.
@@ -446,7 +532,9 @@ public class StreamEngine implements IEngine, IPollEvents
             if (!rc) {
                 break;
             }
+            msgs++;
         }
+        ioThread.received(0, msgs);
 
         // Tear down the connection if we have failed to decode input data
         //  or the session has rejected the message.
@@ -479,20 +567,41 @@ public class StreamEngine implements IEngine, IPollEvents
                 return;
             }
             outpos.set(null);
-            outsize = encoder.encode(outpos, 0);
 
             //  Make sure batch sizes match large buffer sizes
             final int outBatchSize = Math.max(options.sndbuf, Config.OUT_BATCH_SIZE.getValue());
 
-            while (outsize < outBatchSize) {
-                Msg msg = nextMsg.get();
-                if (msg == null) {
-                    break;
+            //  Prefer a gathering write, large message bodies are then
+            //  handed to the network without being copied.
+            int msgs = 0;
+            outsize = encoder.encode(outvec, outBatchSize);
+            if (outsize >= 0) {
+                while (outsize < outBatchSize && !outvec.isFull()) {
+                    Msg msg = nextMsg.get();
+                    if (msg == null) {
+                        break;
+                    }
+                    encoder.loadMsg(msg);
+                    msgs++;
+                    int n = encoder.encode(outvec, outBatchSize - outsize);
+                    assert (n > 0);
+                    outsize += n;
+                }
+            }
+            else {
+                outsize = encoder.encode(outpos, 0);
+
+                while (outsize < outBatchSize) {
+                    Msg msg = nextMsg.get();
+                    if (msg == null) {
+                        break;
+                    }
+                    encoder.loadMsg(msg);
+                    msgs++;
+                    int n = encoder.encode(outpos, outBatchSize - outsize);
+                    assert (n > 0);
+                    outsize += n;
                 }
-                encoder.loadMsg(msg);
-                int n = encoder.encode(outpos, outBatchSize - outsize);
-                assert (n > 0);
-                outsize += n;
             }
 
             //  If there is no data to send, stop polling for output.
@@ -506,6 +615,7 @@ public class StreamEngine implements IEngine, IPollEvents
             // slight difference with libzmq:
             // encoder is notified of the end of the loading
             encoder.encoded();
+            ioThread.sent(0, msgs);
         }
 
         //  If there are any data to write in write buffer, write as much as
@@ -513,7 +623,7 @@ public class StreamEngine implements IEngine, IPollEvents
         //  arbitrarily large. However, we assume that underlying TCP layer has
         //  limited transmission buffer and thus the actual number of bytes
         //  written should be reasonably modest.
-        int nbytes = write(outpos.get());
+        int nbytes = outvec.isEmpty() ? write(outpos.get()) : write(outvec);
 
         //  IO error has occurred. We stop waiting for output events.
         //  The engine is not terminated until we detect input error;
@@ -794,7 +904,7 @@ public class StreamEngine implements IEngine, IPollEvents
                 return false;
             }
             encoder = new V2Encoder(errno, outBatchSize);
-            decoder = new V2Decoder(errno, inBatchSize, options.maxMsgSize, options.allocator);
+            decoder = new V2Decoder(errno, inBatchSize, options.maxMsgSize, options.allocator, options.zeroCopyRecv);
 
             decodeDataAfterHandshake(V2_GREETING_SIZE);
         }
@@ -802,7 +912,7 @@ public class StreamEngine implements IEngine, IPollEvents
             zmtpVersion = Protocol.V3;
 
             encoder = new V2Encoder(errno, outBatchSize);
-            decoder = new V2Decoder(errno, inBatchSize, options.maxMsgSize, options.allocator);
+            decoder = new V2Decoder(errno, inBatchSize, options.maxMsgSize, options.allocator, options.zeroCopyRecv);
 
             greetingRecv.position(V2_GREETING_SIZE);
             if (mechanism.isMechanism(greetingRecv)) {
@@ -1256,6 +1366,28 @@ public class StreamEngine implements IEngine, IPollEvents
             if (nbytes == 0) {
                 errno.set(ZError.EAGAIN);
             }
+            ioThread.sent(nbytes, 0);
+            traffic += nbytes;
+        }
+        catch (IOException e) {
+            errno.set(ZError.ENOTCONN);
+            nbytes = -1;
+        }
+
+        return nbytes;
+    }
+
+    //  Writes the buffers of the vector to the socket, see above.
+    private int write(WriteVector outvec)
+    {
+        int nbytes;
+        try {
+            nbytes = (int) outvec.write(fd);
+            if (nbytes == 0) {
+                errno.set(ZError.EAGAIN);
+            }
+            ioThread.sent(nbytes, 0);
+            traffic += nbytes;
         }
         catch (IOException e) {
             errno.set(ZError.ENOTCONN);
@@ -1269,10 +1401,25 @@ public class StreamEngine implements IEngine, IPollEvents
     //  Returns the number of bytes actually read or -1 on error.
     //  Zero indicates the peer has closed the connection.
     private int read(ByteBuffer buf)
+    {
+        return read(buf, null);
+    }
+
+    //  Scattering flavour of the above.
+    private int read(ByteBuffer[] buffers)
+    {
+        return read(null, buffers);
+    }
+
+    private int read(ByteBuffer buf, ByteBuffer[] buffers)
     {
         int nbytes;
         try {
-            nbytes = fd.read(buf);
+            nbytes = buf == null ? (int) fd.read(buffers) : fd.read(buf);
+            ioThread.received(nbytes, 0);
+            if (nbytes > 0) {
+                traffic += nbytes;
+            }
             if (nbytes == -1) {
                 errno.set(ZError.ENOTCONN);
             }
@@ -0,0 +1,355 @@
+package zmq.io;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import zmq.Msg;
+import zmq.Options;
+import zmq.SocketBase;
+import zmq.ZError;
+import zmq.io.StreamEngine.ErrorReason;
+import zmq.io.net.udp.UdpAddress;
+import zmq.poll.IPollEvents;
+import zmq.poll.Poller;
+
+//  Engine of the UDP transport, sending the messages of a RADIO socket as
+//  datagrams, or receiving the datagrams of a DISH socket. Each datagram
+//  holds one message framed as in libzmq: the size of the group on one byte,
+//  the group, then the body.
+public class UdpEngine implements IEngine, IPollEvents
+{
+    //  Largest datagram sent or received, as in libzmq.
+    public static final int MAX_UDP_MSG = 8192;
+
+    //  Datagrams sent or received in a row before letting the other handles
+    //  of the I/O thread be served.
+    private static final int BATCH = 256;
+
+    private static final int RETRY_TIMER_ID = 0x40;
+
+    private final Options    options;
+    private final UdpAddress address;
+    private final String     endpoint;
+    private final boolean    send;
+    private final boolean    recv;
+    private boolean          delayed;
+
+    private IOThread        ioThread;
+    private IOObject        ioObject;
+    private DatagramChannel channel;
+    private Poller.Handle   handle;
+    private SessionBase     session;
+    private SocketBase      socket;
+    private boolean         plugged;
+    private boolean         hasRetryTimer;
+
+    //  Datagram being sent or received, direct so that the channel does not
+    //  copy it once more.
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_UDP_MSG);
+
+    //  True if the datagram in the buffer could not be sent yet.
+    private boolean pendingOut;
+
+    //  Opens the channel at once, or after the reconnect interval if delayed.
+    public UdpEngine(Options options, UdpAddress address, boolean send, boolean recv, boolean delayed)
+    {
+        assert (send != recv);
+        this.options = options;
+        this.address = address;
+        this.endpoint = address.toString();
+        this.send = send;
+        this.recv = recv;
+        this.delayed = delayed;
+    }
+
+    @Override
+    public void plug(IOThread ioThread, SessionBase session)
+    {
+        assert (!plugged);
+        plugged = true;
+
+        this.session = session;
+        socket = session.getSocket();
+
+        this.ioThread = ioThread;
+        ioObject = new IOObject(ioThread, this);
+        ioObject.plug();
+
+        if (delayed && options.reconnectIvl > 0) {
+            ioObject.addTimer(options.reconnectIvl, RETRY_TIMER_ID);
+            hasRetryTimer = true;
+            socket.eventConnectRetried(endpoint, options.reconnectIvl);
+        }
+        else {
+            open();
+        }
+    }
+
+    private void open()
+    {
+        try {
+            channel = openChannel();
+        }
+        catch (IOException e) {
+            if (recv) {
+                socket.eventBindFailed(endpoint, ZError.exccode(e));
+            }
+            else {
+                socket.eventConnectDelayed(endpoint, ZError.exccode(e));
+            }
+            error(ErrorReason.CONNECTION);
+            return;
+        }
+
+        handle = ioObject.addFd(channel);
+        if (recv) {
+            socket.eventListening(endpoint, channel);
+            ioObject.setPollIn(handle);
+            restartOutput();
+        }
+        else {
+            socket.eventConnected(endpoint, channel);
+            ioObject.setPollOut(handle);
+            outEvent();
+        }
+    }
+
+    private DatagramChannel openChannel() throws IOException
+    {
+        InetSocketAddress target = address.address();
+        DatagramChannel channel = DatagramChannel.open(
+                target.getAddress() instanceof Inet6Address ? StandardProtocolFamily.INET6 : StandardProtocolFamily.INET);
+        try {
+            channel.configureBlocking(false);
+            if (options.sndbuf > 0) {
+                channel.setOption(StandardSocketOptions.SO_SNDBUF, options.sndbuf);
+            }
+            if (options.rcvbuf > 0) {
+                channel.setOption(StandardSocketOptions.SO_RCVBUF, options.rcvbuf);
+            }
+            if (send) {
+                if (address.isMulticast()) {
+                    if (address.hasInterface()) {
+                        channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, address.networkInterface());
+                    }
+                    channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, options.multicastHops);
+                    channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+                }
+            }
+            else if (address.isMulticast()) {
+                //  Bind to any address, so that several dishes of the host can
+                //  join the same group, and receive it on the given interface.
+                channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                channel.bind(new InetSocketAddress(target.getPort()));
+                channel.join(target.getAddress(), address.networkInterface());
+            }
+            else {
+                channel.bind(target);
+            }
+            return channel;
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void unplug()
+    {
+        assert (plugged);
+        plugged = false;
+
+        if (hasRetryTimer) {
+            ioObject.cancelTimer(RETRY_TIMER_ID);
+            hasRetryTimer = false;
+        }
+        if (handle != null) {
+            ioObject.removeHandle(handle);
+            handle = null;
+        }
+        if (channel != null) {
+            //  Closing the channel also leaves the multicast group.
+            try {
+                channel.close();
+                socket.eventClosed(endpoint, channel);
+            }
+            catch (IOException e) {
+                socket.eventCloseFailed(endpoint, ZError.exccode(e));
+            }
+            channel = null;
+        }
+        ioObject.unplug();
+        session = null;
+    }
+
+    @Override
+    public void terminate()
+    {
+        unplug();
+    }
+
+    private void error(ErrorReason reason)
+    {
+        SessionBase session = this.session;
+        unplug();
+        session.engineError(false, reason);
+    }
+
+    @Override
+    public void timerEvent(int id)
+    {
+        assert (id == RETRY_TIMER_ID);
+        hasRetryTimer = false;
+        delayed = false;
+        open();
+    }
+
+    @Override
+    public void inEvent()
+    {
+        assert (recv);
+        int bytes = 0;
+        int msgs = 0;
+        for (int count = 0; count < BATCH; ++count) {
+            buffer.clear();
+            SocketAddress from;
+            try {
+                from = channel.receive(buffer);
+            }
+            catch (IOException e) {
+                error(ErrorReason.CONNECTION);
+                return;
+            }
+            if (from == null) {
+                break;
+            }
+            buffer.flip();
+            bytes += buffer.remaining();
+
+            //  Malformed datagrams are dropped.
+            if (!buffer.hasRemaining()) {
+                continue;
+            }
+            int groupSize = buffer.get() & 0xff;
+            if (groupSize > buffer.remaining()) {
+                continue;
+            }
+
+            byte[] group = new byte[groupSize];
+            buffer.get(group);
+            Msg msg = new Msg(group);
+            msg.setFlags(Msg.MORE);
+            if (!session.pushMsg(msg)) {
+                //  The message does not fit in the pipe: drop the datagram and
+                //  wait for the pipe to get room.
+                ioObject.resetPollIn(handle);
+                break;
+            }
+
+            byte[] body = new byte[buffer.remaining()];
+            buffer.get(body);
+            if (!session.pushMsg(new Msg(body))) {
+                session.reset();
+                ioObject.resetPollIn(handle);
+                break;
+            }
+            msgs++;
+        }
+        ioThread.received(bytes, msgs);
+        session.flush();
+    }
+
+    @Override
+    public void outEvent()
+    {
+        assert (send);
+        for (int count = 0; count < BATCH; ++count) {
+            if (!pendingOut) {
+                Msg group = session.pullMsg();
+                if (group == null) {
+                    ioObject.resetPollOut(handle);
+                    return;
+                }
+                //  If there's a group, there should also be a body.
+                Msg body = session.pullMsg();
+                assert (body != null);
+
+                int size = 1 + group.size() + body.size();
+                if (group.size() > Msg.MAX_GROUP_LENGTH || size > MAX_UDP_MSG) {
+                    //  Too large for a datagram, the message is dropped.
+                    continue;
+                }
+                buffer.clear();
+                buffer.put((byte) group.size());
+                group.transfer(buffer, 0, group.size());
+                body.transfer(buffer, 0, body.size());
+                buffer.flip();
+            }
+
+            int sent;
+            try {
+                sent = channel.send(buffer, address.address());
+            }
+            catch (IOException e) {
+                error(ErrorReason.CONNECTION);
+                return;
+            }
+            //  Retried once the socket buffer has room again.
+            pendingOut = sent == 0;
+            if (pendingOut) {
+                return;
+            }
+            ioThread.sent(sent, 1);
+        }
+    }
+
+    @Override
+    public void restartInput()
+    {
+        if (!recv || handle == null) {
+            return;
+        }
+        ioObject.setPollIn(handle);
+        inEvent();
+    }
+
+    @Override
+    public void restartOutput()
+    {
+        if (recv) {
+            //  The joins and leaves of the DISH are not sent, as the groups
+            //  are filtered by the DISH itself.
+            while (session.pullMsg() != null) {
+                //  Discarded.
+            }
+        }
+        else if (handle != null) {
+            ioObject.setPollOut(handle);
+            outEvent();
+        }
+    }
+
+    @Override
+    public void zapMsgAvailable()
+    {
+        //  No security over UDP.
+    }
+
+    @Override
+    public String getEndPoint()
+    {
+        return endpoint;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "[" + endpoint + "]";
+    }
+}
@@ -1,8 +1,11 @@
 package zmq.io.coder;
 
+import java.nio.ByteBuffer;
+
 import zmq.Msg;
 import zmq.ZError;
 import zmq.msg.MsgAllocator;
+import zmq.msg.MsgContent;
 import zmq.util.Errno;
 
 //  Helper base class for decoders that know the amount of data to read
@@ -68,12 +71,42 @@ public abstract class Decoder extends DecoderBase
 
     public Decoder(Errno errno, int bufsize, long maxmsgsize, MsgAllocator allocator)
     {
-        super(errno, bufsize);
+        this(errno, bufsize, maxmsgsize, allocator, false);
+    }
+
+    public Decoder(Errno errno, int bufsize, long maxmsgsize, MsgAllocator allocator, boolean slicing)
+    {
+        super(errno, bufsize, slicing);
         this.maxmsgsize = maxmsgsize;
         this.allocator = allocator;
     }
 
+    //  Checks the size of the message, then schedules the reading of its body.
+    //  Unlike sizeReady(size), the message is created only once its body can
+    //  be sliced from the data or must be allocated.
+    protected final Step.Result sizeReady(final long size, Step next)
+    {
+        Step.Result rc = checkSize(size);
+        if (rc != Step.Result.ERROR) {
+            inProgress = null;
+            nextBodyStep((int) size, next);
+        }
+        return rc;
+    }
+
     protected final Step.Result sizeReady(final long size)
+    {
+        Step.Result rc = checkSize(size);
+        if (rc != Step.Result.ERROR) {
+            //  inProgress is initialized at this point so in theory we should
+            //  close it before calling init_size, however, it's a 0-byte
+            //  message and thus we can treat it as uninitialized.
+            inProgress = allocate((int) size);
+        }
+        return rc;
+    }
+
+    private Step.Result checkSize(final long size)
     {
         //  Message size must not exceed the maximum allowed size.
         if (maxmsgsize >= 0) {
@@ -89,11 +122,6 @@ public abstract class Decoder extends DecoderBase
             return Step.Result.ERROR;
         }
 
-        //  inProgress is initialized at this point so in theory we should
-        //  close it before calling init_size, however, it's a 0-byte
-        //  message and thus we can treat it as uninitialized.
-        inProgress = allocate((int) size);
-
         return Step.Result.MORE_DATA;
     }
 
@@ -102,6 +130,27 @@ public abstract class Decoder extends DecoderBase
         return allocator.allocate(size);
     }
 
+    //  Creates a message referencing the given data, stored in the given content.
+    protected Msg wrap(final ByteBuffer data, MsgContent content)
+    {
+        return new Msg(data, content);
+    }
+
+    @Override
+    protected final ByteBuffer allocateBody(int size)
+    {
+        inProgress = allocate(size);
+        return inProgress.buf();
+    }
+
+    @Override
+    protected final ByteBuffer sliceBody(ByteBuffer slice, MsgContent content)
+    {
+        inProgress = wrap(slice, content);
+        slice.position(slice.limit());
+        return slice;
+    }
+
     protected Step.Result oneByteSizeReady()
     {
         throw new UnsupportedOperationException("Have you forgot to implement oneByteSizeReady ?");
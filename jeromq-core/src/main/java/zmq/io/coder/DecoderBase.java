@@ -1,8 +1,12 @@
 package zmq.io.coder;
 
 import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import zmq.Config;
 import zmq.Msg;
+import zmq.msg.MsgContent;
 import zmq.util.Errno;
 import zmq.util.ValueReference;
 
@@ -19,6 +23,37 @@ import zmq.util.ValueReference;
 
 public abstract class DecoderBase implements IDecoder
 {
+    //  Number of read buffers carved from an arena when slicing.
+    private static final int ARENA_BUFFERS = 32;
+
+    //  Memory the read buffers are carved from when slicing. The decoder holds
+    //  a reference until it moves to another arena, and each message sliced
+    //  from it holds one until released. The last release recycles the arena.
+    private static final class Arena extends MsgContent
+    {
+        private final ByteBuffer   memory;
+        private final Queue<Arena> recycled;
+
+        private Arena(int capacity, Queue<Arena> recycled)
+        {
+            this.memory = ByteBuffer.allocateDirect(capacity);
+            this.recycled = recycled;
+        }
+
+        private void reuse()
+        {
+            reset();
+            memory.clear();
+        }
+
+        @Override
+        protected void free()
+        {
+            //  Possibly from another thread, the one releasing the last message.
+            recycled.offer(this);
+        }
+    }
+
     //  Where to store the read data.
     private ByteBuffer readPos;
 
@@ -30,20 +65,54 @@ public abstract class DecoderBase implements IDecoder
     //  The buffer for data to decode.
     private final int bufsize;
 
-    private final ByteBuffer buf;
+    private ByteBuffer buf;
 
     private Step next;
 
     private final Errno errno;
 
+    //  Scattering reads are used for the bodies of at least this size.
+    private final int scatterThreshold;
+
+    //  Start of the message body read in the first buffer of a scattering read.
+    private ByteBuffer scattered;
+    private final ByteBuffer[] buffers = new ByteBuffer[2];
+
+    //  If true, the storage of the next toRead bytes is not decided yet,
+    //  they may be sliced from the data to decode.
+    private boolean pendingBody;
+
+    //  If true, bodies fully available in the data to decode are sliced
+    //  instead of copied. The data buffers are then carved from arenas, a buffer
+    //  a slice has been taken from is not reused until its arena is recycled.
+    private final boolean slicing;
+    private Arena arena;
+    private boolean sliced;
+
+    //  Arenas whose messages have all been released, ready to be reused.
+    private final Queue<Arena> recycled = new ConcurrentLinkedQueue<>();
+
     public DecoderBase(Errno errno, int bufsize)
+    {
+        this(errno, bufsize, false);
+    }
+
+    public DecoderBase(Errno errno, int bufsize, boolean slicing)
     {
         next = null;
         readPos = null;
         toRead = 0;
         this.bufsize = bufsize;
         assert (bufsize > 0);
-        buf = ByteBuffer.allocateDirect(bufsize);
+        this.slicing = slicing;
+        if (slicing) {
+            arena = new Arena(bufsize * ARENA_BUFFERS, recycled);
+            buf = nextBuffer();
+        }
+        else {
+            buf = ByteBuffer.allocateDirect(bufsize);
+        }
+        scatterThreshold = Config.IN_SCATTER_THRESHOLD.getValue();
         this.errno = errno;
     }
 
@@ -61,12 +130,74 @@ public abstract class DecoderBase implements IDecoder
         //  amounts of time.
         if (toRead >= bufsize) {
             zeroCopy = true;
+            allocatePendingBody();
             return readPos.duplicate();
         }
         else {
             zeroCopy = false;
-            buf.clear();
-            return buf;
+            return clearBuffer();
+        }
+    }
+
+    //  Returns the buffers for a scattering read: the first one is the rest of
+    //  the message body being decoded, the second one receives the data following it.
+    //  This way large bodies are read directly into their message, without
+    //  delaying the decoding of the next messages until another read.
+    //  Returns null when the next data shall be read with getBuffer().
+    @Override
+    public ByteBuffer[] getBuffers()
+    {
+        if (toRead < scatterThreshold) {
+            return null;
+        }
+        zeroCopy = false;
+        allocatePendingBody();
+        scattered = readPos.duplicate();
+        buffers[0] = scattered;
+        buffers[1] = clearBuffer();
+        return buffers;
+    }
+
+    private ByteBuffer clearBuffer()
+    {
+        //  Slices of the previous data are still in use, move to fresh memory.
+        if (sliced) {
+            sliced = false;
+            buf = nextBuffer();
+        }
+        buf.clear();
+        return buf;
+    }
+
+    private ByteBuffer nextBuffer()
+    {
+        ByteBuffer memory = arena.memory;
+        if (memory.remaining() < bufsize) {
+            //  The messages sliced from the current arena keep it until released.
+            arena.release();
+            arena = recycled.poll();
+            if (arena == null) {
+                arena = new Arena(bufsize * ARENA_BUFFERS, recycled);
+            }
+            else {
+                arena.reuse();
+            }
+            memory = arena.memory;
+        }
+        //  Bound the capacity of the buffer, it is cleared before each read.
+        int position = memory.position();
+        memory.limit(position + bufsize);
+        ByteBuffer buffer = memory.slice();
+        memory.limit(memory.capacity());
+        memory.position(position + bufsize);
+        return buffer;
+    }
+
+    private void allocatePendingBody()
+    {
+        if (pendingBody) {
+            pendingBody = false;
+            readPos = allocateBody(toRead);
         }
     }
 
@@ -79,6 +210,24 @@ public abstract class DecoderBase implements IDecoder
     {
         processed.set(0);
 
+        //  After a scattering read, account for the data that went directly
+        //  into the message body, the rest of the data is in the buffer.
+        if (scattered != null) {
+            int read = scattered.position() - readPos.position();
+            scattered = null;
+            assert (read <= size && read <= toRead);
+            readPos.position(readPos.position() + read);
+            toRead -= read;
+            processed.set(read);
+
+            while (stepDone()) {
+                Step.Result result = next.apply();
+                if (result != Step.Result.MORE_DATA) {
+                    return result;
+                }
+            }
+        }
+
         //  In case of zero-copy simply adjust the pointers, no copying
         //  is required. Also, run the state machine in case all the data
         //  were processed.
@@ -88,7 +237,7 @@ public abstract class DecoderBase implements IDecoder
             toRead -= size;
             processed.set(size);
 
-            while (readPos.remaining() == 0) {
+            while (stepDone()) {
                 Step.Result result = next.apply();
                 if (result != Step.Result.MORE_DATA) {
                     return result;
@@ -98,6 +247,30 @@ public abstract class DecoderBase implements IDecoder
         }
 
         while (processed.get() < size) {
+            if (pendingBody) {
+                pendingBody = false;
+                //  The whole body is available, reference it instead of copying it.
+                if (slicing && toRead > 0 && toRead <= size - processed.get()) {
+                    ByteBuffer slice = data.slice();
+                    slice.limit(toRead);
+                    data.position(data.position() + toRead);
+                    processed.set(processed.get() + toRead);
+                    arena.addRefs(1);
+                    readPos = sliceBody(slice, arena);
+                    toRead = 0;
+                    sliced = true;
+
+                    while (stepDone()) {
+                        Step.Result result = next.apply();
+                        if (result != Step.Result.MORE_DATA) {
+                            return result;
+                        }
+                    }
+                    continue;
+                }
+                readPos = allocateBody(toRead);
+            }
+
             //  Copy the data from buffer to the message.
             int toCopy = Math.min(toRead, size - processed.get());
             int limit = data.limit();
@@ -109,7 +282,7 @@ public abstract class DecoderBase implements IDecoder
 
             //  Try to get more space in the message to fill in.
             //  If none is available, return.
-            while (readPos.remaining() == 0) {
+            while (stepDone()) {
                 Step.Result result = next.apply();
                 if (result != Step.Result.MORE_DATA) {
                     return result;
@@ -120,6 +293,31 @@ public abstract class DecoderBase implements IDecoder
         return Step.Result.MORE_DATA;
     }
 
+    //  Schedules the reading of a message body of the given size. Its storage
+    //  is provided later by either allocateBody or sliceBody.
+    protected void nextBodyStep(int size, Step next)
+    {
+        this.toRead = size;
+        this.next = next;
+        //  Only non-empty bodies are worth slicing.
+        pendingBody = slicing && size > 0;
+        readPos = pendingBody ? null : allocateBody(size);
+    }
+
+    //  Returns the buffer where to read a message body of the given size.
+    protected ByteBuffer allocateBody(int size)
+    {
+        throw new UnsupportedOperationException("Have you forgot to implement allocateBody ?");
+    }
+
+    //  Uses the given slice of the data as message body, the message holding
+    //  a reference to the content. Returns the buffer representing the body,
+    //  positioned at its end as it is completely read.
+    protected ByteBuffer sliceBody(ByteBuffer slice, MsgContent content)
+    {
+        throw new UnsupportedOperationException("Have you forgot to implement sliceBody ?");
+    }
+
     protected void nextStep(Msg msg, Step next)
     {
         nextStep(msg.buf(), next);
@@ -128,6 +326,7 @@ public abstract class DecoderBase implements IDecoder
     @Deprecated
     protected void nextStep(byte[] buf, int toRead, Step next)
     {
+        pendingBody = false;
         readPos = ByteBuffer.wrap(buf);
         readPos.limit(toRead);
         this.toRead = toRead;
@@ -136,11 +335,18 @@ public abstract class DecoderBase implements IDecoder
 
     protected void nextStep(ByteBuffer buf, Step next)
     {
+        pendingBody = false;
         readPos = buf;
         this.toRead = buf.remaining();
         this.next = next;
     }
 
+    //  True if the data for the current step are all read.
+    private boolean stepDone()
+    {
+        return !pendingBody && readPos.remaining() == 0;
+    }
+
     protected void errno(int err)
     {
         this.errno.set(err);
@@ -2,6 +2,7 @@ package zmq.io.coder;
 
 import java.nio.ByteBuffer;
 
+import zmq.Config;
 import zmq.Msg;
 import zmq.util.Errno;
 import zmq.util.ValueReference;
@@ -26,6 +27,12 @@ public abstract class EncoderBase implements IEncoder
 
     private final int bufferSize;
 
+    //  Chunks of at least this size are not copied by the gathering encoding.
+    private final int gatherThreshold;
+
+    //  Last chunk of the buffer appended to a vector.
+    private ByteBuffer copied;
+
     private boolean error;
 
     protected Msg inProgress;
@@ -37,6 +44,7 @@ public abstract class EncoderBase implements IEncoder
         this.errno = errno;
         this.bufferSize = bufferSize;
         buffer = ByteBuffer.allocateDirect(bufferSize);
+        gatherThreshold = Config.OUT_GATHER_THRESHOLD.getValue();
         error = false;
     }
 
@@ -76,7 +84,7 @@ public abstract class EncoderBase implements IEncoder
             //  in the buffer.
             if (toWrite == 0) {
                 if (newMsgFlag) {
-                    inProgress = null;
+                    releaseInProgress();
                     break;
                 }
                 next();
@@ -118,6 +126,86 @@ public abstract class EncoderBase implements IEncoder
         return pos;
     }
 
+    @Override
+    public final int encode(WriteVector vector, int size)
+    {
+        //  A new batch starts, the whole buffer is available for copies.
+        if (vector.isEmpty()) {
+            buffer.clear();
+        }
+
+        if (inProgress == null) {
+            return 0;
+        }
+
+        int pos = 0;
+        int from = buffer.position();
+
+        while (pos < size && !vector.isFull()) {
+            if (toWrite == 0) {
+                if (newMsgFlag) {
+                    releaseInProgress();
+                    break;
+                }
+                next();
+                continue;
+            }
+
+            //  Large chunks are referenced by the vector, after the data copied so far.
+            if (toWrite >= gatherThreshold) {
+                from = appendCopied(vector, from);
+                writeBuf.limit(writeBuf.position() + toWrite);
+                vector.add(writeBuf, inProgress);
+                pos += toWrite;
+                writeBuf = null;
+                toWrite = 0;
+                continue;
+            }
+
+            //  Copy data to the buffer. If the batch is full, return.
+            int toCopy = Math.min(toWrite, Math.min(size - pos, buffer.remaining()));
+            if (toCopy == 0) {
+                break;
+            }
+            int limit = writeBuf.limit();
+            writeBuf.limit(writeBuf.position() + toCopy);
+            buffer.put(writeBuf);
+            writeBuf.limit(limit);
+            pos += toCopy;
+            toWrite -= toCopy;
+        }
+
+        appendCopied(vector, from);
+
+        return pos;
+    }
+
+    //  Appends the data copied into the buffer since the given position,
+    //  extending the previous copied chunk if it is the last one of the vector.
+    private int appendCopied(WriteVector vector, int from)
+    {
+        int to = buffer.position();
+        if (to > from) {
+            if (copied != null && vector.last() == copied && copied.limit() == from) {
+                copied.limit(to);
+            }
+            else {
+                copied = buffer.duplicate();
+                copied.position(from);
+                copied.limit(to);
+                vector.add(copied);
+            }
+        }
+        return to;
+    }
+
+    //  The message is completely encoded, the encoder is done with it.
+    private void releaseInProgress()
+    {
+        inProgress.release();
+        inProgress = null;
+    }
+
     @Override
     public void encoded()
     {
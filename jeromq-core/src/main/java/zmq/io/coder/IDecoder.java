@@ -21,6 +21,12 @@ public interface IDecoder
 
     ByteBuffer getBuffer();
 
+    //  Buffers for a scattering read, or null if getBuffer shall be used instead.
+    default ByteBuffer[] getBuffers()
+    {
+        return null;
+    }
+
     Step.Result decode(ByteBuffer buffer, int size, ValueReference<Integer> processed);
 
     Msg msg();
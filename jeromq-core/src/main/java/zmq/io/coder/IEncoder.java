@@ -15,6 +15,15 @@ public interface IEncoder
     //  points to NULL) decoder object will provide buffer of its own.
     int encode(ValueReference<ByteBuffer> data, int size);
 
+    //  Gathering flavour of encode. The data are appended to the vector,
+    //  large chunks of messages being referenced instead of copied.
+    //  Returns the number of bytes appended, up to about size bytes,
+    //  or -1 if the encoder is not able to provide its data that way.
+    default int encode(WriteVector vector, int size)
+    {
+        return -1;
+    }
+
     void destroy();
 
     // called when stream engine finished encoding all messages and is ready to
@@ -0,0 +1,104 @@
+package zmq.io.coder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+
+import zmq.Config;
+import zmq.Msg;
+
+//  Sequence of buffers written to the network in a single gathering write.
+//  The encoder appends its data, then the engine writes them and keeps track
+//  of the buffers that were not completely written.
+public final class WriteVector
+{
+    private final ByteBuffer[] buffers;
+
+    //  Messages whose data are referenced by the buffers, released once written.
+    private final Msg[] owners;
+
+    //  Index of the first buffer still holding data to write.
+    private int offset;
+
+    //  Number of buffers in the vector.
+    private int count;
+
+    public WriteVector()
+    {
+        this(Config.OUT_BATCH_BUFFERS.getValue());
+    }
+
+    public WriteVector(int capacity)
+    {
+        assert (capacity >= 2);
+        buffers = new ByteBuffer[capacity];
+        owners = new Msg[capacity];
+    }
+
+    //  True if the vector cannot accept one more chunk of message,
+    //  possibly preceded by the data copied so far.
+    public boolean isFull()
+    {
+        return count > buffers.length - 2;
+    }
+
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    ByteBuffer last()
+    {
+        return count == 0 ? null : buffers[count - 1];
+    }
+
+    void add(ByteBuffer buffer)
+    {
+        add(buffer, null);
+    }
+
+    //  Adds data of the given message, holding a reference to the message until they are written.
+    void add(ByteBuffer buffer, Msg owner)
+    {
+        assert (count < buffers.length);
+        if (owner != null) {
+            owner.addRefs(1);
+        }
+        owners[count] = owner;
+        buffers[count++] = buffer;
+    }
+
+    //  Writes as much as possible of the data to the channel,
+    //  returns the number of bytes actually written.
+    public long write(GatheringByteChannel channel) throws IOException
+    {
+        long nbytes = channel.write(buffers, offset, count - offset);
+        while (offset < count && !buffers[offset].hasRemaining()) {
+            release(offset++);
+        }
+        if (offset == count) {
+            clear();
+        }
+        return nbytes;
+    }
+
+    //  Releases the buffers, they may reference message bodies.
+    public void clear()
+    {
+        for (int idx = 0; idx < count; ++idx) {
+            release(idx);
+            buffers[idx] = null;
+        }
+        offset = 0;
+        count = 0;
+    }
+
+    private void release(int idx)
+    {
+        Msg owner = owners[idx];
+        if (owner != null) {
+            owners[idx] = null;
+            owner.release();
+        }
+    }
+}
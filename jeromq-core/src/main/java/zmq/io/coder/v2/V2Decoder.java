@@ -5,6 +5,7 @@ import java.nio.ByteBuffer;
 import zmq.Msg;
 import zmq.io.coder.Decoder;
 import zmq.msg.MsgAllocator;
+import zmq.msg.MsgContent;
 import zmq.util.Errno;
 import zmq.util.Wire;
 
@@ -15,7 +16,14 @@ public class V2Decoder extends Decoder
 
     public V2Decoder(Errno errno, int bufsize, long maxmsgsize, MsgAllocator allocator)
     {
-        super(errno, bufsize, maxmsgsize, allocator);
+        this(errno, bufsize, maxmsgsize, allocator, false);
+    }
+
+    //  With slicing, the bodies fully received in a single read are not copied,
+    //  the messages reference the (direct) read buffer.
+    public V2Decoder(Errno errno, int bufsize, long maxmsgsize, MsgAllocator allocator, boolean slicing)
+    {
+        super(errno, bufsize, maxmsgsize, allocator, slicing);
 
         tmpbuf = ByteBuffer.allocate(8);
         tmpbuf.limit(1);
@@ -32,15 +40,19 @@ public class V2Decoder extends Decoder
         return msg;
     }
 
+    @Override
+    protected Msg wrap(ByteBuffer data, MsgContent content)
+    {
+        Msg msg = super.wrap(data, content);
+        msg.setFlags(msgFlags);
+        return msg;
+    }
+
     @Override
     protected Step.Result oneByteSizeReady()
     {
         int size = tmpbuf.get(0) & 0xff;
-        Step.Result rc = sizeReady(size);
-        if (rc != Step.Result.ERROR) {
-            nextStep(inProgress, messageReady);
-        }
-        return rc;
+        return sizeReady(size, messageReady);
     }
 
     @Override
@@ -52,11 +64,7 @@ public class V2Decoder extends Decoder
         tmpbuf.limit(8);
         final long size = Wire.getUInt64(tmpbuf, 0);
 
-        Step.Result rc = sizeReady(size);
-        if (rc != Step.Result.ERROR) {
-            nextStep(inProgress, messageReady);
-        }
-        return rc;
+        return sizeReady(size, messageReady);
     }
 
     @Override
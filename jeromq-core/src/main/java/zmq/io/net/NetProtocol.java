@@ -32,7 +32,7 @@ public enum NetProtocol
             paddr.resolve(ipv6);
         }
     },
-    udp(true, true)
+    udp(true, true, Sockets.RADIO, Sockets.DISH)
     {
         @Override
         public <S extends SocketAddress> void resolve(Address<S> paddr, boolean ipv6)
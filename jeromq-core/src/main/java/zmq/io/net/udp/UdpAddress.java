@@ -0,0 +1,149 @@
+package zmq.io.net.udp;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.util.Enumeration;
+
+import org.zeromq.ZMQException;
+
+import zmq.ZError;
+import zmq.io.net.Address;
+import zmq.io.net.ProtocolFamily;
+import zmq.io.net.StandardProtocolFamily;
+import zmq.io.net.tcp.TcpAddress;
+
+//  Address of the UDP transport, with the same syntax as in libzmq:
+//  host:port, where host is a unicast or a multicast address, optionally
+//  prefixed with the interface used for multicast, as in eth0;239.0.0.1:5555.
+//  A DISH binds to the unicast address, or joins the multicast group,
+//  while a RADIO sends its datagrams to the address.
+public class UdpAddress implements Address.IZAddress<InetSocketAddress>
+{
+    private final InetSocketAddress address;
+    private final String            iface;
+
+    public UdpAddress(String addr, boolean ipv6)
+    {
+        int delimiter = addr.lastIndexOf(';');
+        if (delimiter < 0) {
+            iface = null;
+        }
+        else {
+            iface = addr.substring(0, delimiter);
+        }
+        address = resolve(addr.substring(delimiter + 1), ipv6, false);
+
+        if (iface != null && !address.getAddress().isMulticastAddress()) {
+            //  The interface is only meaningful for a multicast address.
+            throw new ZMQException(addr + " has an interface without a multicast address", ZError.EINVAL);
+        }
+    }
+
+    @Override
+    public ProtocolFamily family()
+    {
+        if (address.getAddress() instanceof Inet6Address) {
+            return StandardProtocolFamily.INET6;
+        }
+        else {
+            return StandardProtocolFamily.INET;
+        }
+    }
+
+    public boolean isMulticast()
+    {
+        return address.getAddress().isMulticastAddress();
+    }
+
+    public boolean hasInterface()
+    {
+        return iface != null && !"*".equals(iface);
+    }
+
+    //  Returns the interface for multicast, as given by its name or one of its
+    //  addresses, or the first multicast interface if none was given.
+    public NetworkInterface networkInterface() throws SocketException
+    {
+        if (!hasInterface()) {
+            NetworkInterface loopback = null;
+            Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+            while (interfaces.hasMoreElements()) {
+                NetworkInterface candidate = interfaces.nextElement();
+                if (candidate.isUp() && candidate.supportsMulticast()) {
+                    if (!candidate.isLoopback()) {
+                        return candidate;
+                    }
+                    loopback = candidate;
+                }
+            }
+            if (loopback == null) {
+                throw new SocketException("No multicast interface");
+            }
+            return loopback;
+        }
+        NetworkInterface networkInterface = NetworkInterface.getByName(iface);
+        if (networkInterface == null) {
+            try {
+                networkInterface = NetworkInterface.getByInetAddress(InetAddress.getByName(iface));
+            }
+            catch (UnknownHostException e) {
+                throw new SocketException("Unknown interface " + iface);
+            }
+        }
+        if (networkInterface == null) {
+            throw new SocketException("Unknown interface " + iface);
+        }
+        return networkInterface;
+    }
+
+    // The opposite to resolve()
+    @Override
+    public String toString()
+    {
+        return toString(address.getPort());
+    }
+
+    // The opposite to resolve()
+    @Override
+    public String toString(int port)
+    {
+        StringBuilder builder = new StringBuilder("udp://");
+        if (iface != null) {
+            builder.append(iface).append(';');
+        }
+        if (address.getAddress() instanceof Inet6Address) {
+            builder.append('[').append(address.getAddress().getHostAddress()).append(']');
+        }
+        else {
+            builder.append(address.getAddress().getHostAddress());
+        }
+        return builder.append(':').append(port).toString();
+    }
+
+    @Override
+    public InetSocketAddress resolve(String name, boolean ipv6, boolean local)
+    {
+        InetSocketAddress resolved = new TcpAddress(name, ipv6).address();
+        if (resolved.getPort() == 0) {
+            //  A datagram needs a known port on both sides.
+            throw new ZMQException(name + " has no port", ZError.EINVAL);
+        }
+        return resolved;
+    }
+
+    @Override
+    public InetSocketAddress address()
+    {
+        return address;
+    }
+
+    @Override
+    public InetSocketAddress sourceAddress()
+    {
+        return null;
+    }
+}
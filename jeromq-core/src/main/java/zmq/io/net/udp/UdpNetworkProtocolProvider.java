@@ -0,0 +1,67 @@
+package zmq.io.net.udp;
+
+import java.net.InetSocketAddress;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import zmq.Options;
+import zmq.Own;
+import zmq.SocketBase;
+import zmq.ZMQ;
+import zmq.io.IEngine;
+import zmq.io.IOThread;
+import zmq.io.SessionBase;
+import zmq.io.UdpEngine;
+import zmq.io.net.Address;
+import zmq.io.net.Address.IZAddress;
+import zmq.io.net.Listener;
+import zmq.io.net.NetProtocol;
+import zmq.io.net.NetworkProtocolProvider;
+
+public class UdpNetworkProtocolProvider implements NetworkProtocolProvider<InetSocketAddress>
+{
+    @Override
+    public boolean handleProtocol(NetProtocol protocol)
+    {
+        return protocol == NetProtocol.udp;
+    }
+
+    @Override
+    public Listener getListener(IOThread ioThread, SocketBase socket, Options options)
+    {
+        //  Not used: as with PGM and NORM, binding to UDP is connecting.
+        return null;
+    }
+
+    @Override
+    public IZAddress<InetSocketAddress> zresolve(String addr, boolean ipv6)
+    {
+        return new UdpAddress(addr, ipv6);
+    }
+
+    @Override
+    public void startConnecting(Options options, IOThread ioThread,
+                                SessionBase session, Address<InetSocketAddress> addr,
+                                boolean delayedStart, Consumer<Own> launchChild,
+                                BiConsumer<SessionBase, IEngine> sendAttach)
+    {
+        //  As with the multicast transports, there is no connection to wait
+        //  for: the engine is attached straight away. RADIO sends and DISH
+        //  receives, whether it was bound or connected.
+        boolean send = options.type == ZMQ.ZMQ_RADIO;
+        UdpEngine engine = new UdpEngine(options, (UdpAddress) addr.resolved(), send, !send, delayedStart);
+        sendAttach.accept(session, engine);
+    }
+
+    @Override
+    public boolean isValid()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean wantsIOThread()
+    {
+        return false;
+    }
+}
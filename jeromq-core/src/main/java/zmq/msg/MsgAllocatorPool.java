@@ -0,0 +1,171 @@
+package zmq.msg;
+
+import java.nio.ByteBuffer;
+
+import zmq.Config;
+import zmq.Msg;
+
+/**
+ * Allocates messages from a pool of buffers, recycled once the messages are released.
+ * <p>
+ * The buffers are sorted by size classes, the powers of two up to a maximum size.
+ * Larger messages are not pooled. Each thread keeps a cache of free buffers for itself,
+ * overflowing into free lists shared by all threads.
+ * <p>
+ * The data of a pooled message shall not be used after its release, including the array returned by
+ * {@link Msg#data()} for heap buffers of the exact size of their class.
+ */
+public class MsgAllocatorPool implements MsgAllocator
+{
+    //  Size of the smallest class of buffers, 64 bytes.
+    private static final int MIN_SHIFT = 6;
+
+    //  Buffer of a size class, back to the pool once its last message is released.
+    private static final class Buffer extends MsgContent
+    {
+        private final MsgAllocatorPool pool;
+        private final int              sizeClass;
+        private final ByteBuffer       data;
+
+        private Buffer(MsgAllocatorPool pool, int sizeClass, ByteBuffer data)
+        {
+            this.pool = pool;
+            this.sizeClass = sizeClass;
+            this.data = data;
+        }
+
+        @Override
+        protected void free()
+        {
+            pool.recycle(this);
+        }
+    }
+
+    //  Bounded stack of free buffers.
+    private static final class FreeList
+    {
+        private final Buffer[] buffers;
+        private int            count;
+
+        private FreeList(int capacity)
+        {
+            buffers = new Buffer[capacity];
+        }
+
+        private Buffer poll()
+        {
+            if (count == 0) {
+                return null;
+            }
+            Buffer buffer = buffers[--count];
+            buffers[count] = null;
+            return buffer;
+        }
+
+        private boolean offer(Buffer buffer)
+        {
+            if (count == buffers.length) {
+                return false;
+            }
+            buffers[count++] = buffer;
+            return true;
+        }
+    }
+
+    public final boolean direct;
+    public final int     maxSize;
+
+    private final int                    threadCache;
+    private final FreeList[]             shared;
+    private final ThreadLocal<FreeList[]> caches;
+
+    public MsgAllocatorPool()
+    {
+        this(true);
+    }
+
+    public MsgAllocatorPool(boolean direct)
+    {
+        this(
+             direct,
+             Config.MSG_POOL_MAX_SIZE.getValue(),
+             Config.MSG_POOL_THREAD_CACHE.getValue(),
+             Config.MSG_POOL_SHARED_CACHE.getValue());
+    }
+
+    /**
+     * @param direct true to allocate direct buffers, false for heap ones.
+     * @param maxSize the largest pooled message size, rounded up to a power of two.
+     * @param threadCache the number of free buffers of each size kept by a thread.
+     * @param sharedCache the number of free buffers of each size shared by the threads.
+     */
+    public MsgAllocatorPool(boolean direct, int maxSize, int threadCache, int sharedCache)
+    {
+        assert (maxSize > 0 && maxSize <= 1 << 30);
+        this.direct = direct;
+        this.maxSize = 1 << Math.max(MIN_SHIFT, 32 - Integer.numberOfLeadingZeros(maxSize - 1));
+        this.threadCache = threadCache;
+
+        shared = new FreeList[sizeClass(this.maxSize) + 1];
+        for (int idx = 0; idx < shared.length; ++idx) {
+            shared[idx] = new FreeList(sharedCache);
+        }
+        caches = ThreadLocal.withInitial(this::createCache);
+    }
+
+    @Override
+    public Msg allocate(int size)
+    {
+        if (size > maxSize) {
+            return direct ? new Msg(ByteBuffer.allocateDirect(size)) : new Msg(size);
+        }
+        int sizeClass = sizeClass(size);
+        Buffer buffer = caches.get()[sizeClass].poll();
+        if (buffer == null) {
+            FreeList list = shared[sizeClass];
+            synchronized (list) {
+                buffer = list.poll();
+            }
+        }
+        if (buffer == null) {
+            int capacity = 1 << (sizeClass + MIN_SHIFT);
+            buffer = new Buffer(this, sizeClass, direct ? ByteBuffer.allocateDirect(capacity)
+                    : ByteBuffer.allocate(capacity));
+        }
+        else {
+            buffer.reset();
+        }
+        ByteBuffer data = buffer.data;
+        data.clear();
+        data.limit(size);
+        return new Msg(data, buffer);
+    }
+
+    private void recycle(Buffer buffer)
+    {
+        if (!caches.get()[buffer.sizeClass].offer(buffer)) {
+            FreeList list = shared[buffer.sizeClass];
+            synchronized (list) {
+                //  If all the lists are full, the buffer is left to the garbage collector.
+                list.offer(buffer);
+            }
+        }
+    }
+
+    private FreeList[] createCache()
+    {
+        FreeList[] cache = new FreeList[shared.length];
+        for (int idx = 0; idx < cache.length; ++idx) {
+            cache[idx] = new FreeList(threadCache);
+        }
+        return cache;
+    }
+
+    private static int sizeClass(int size)
+    {
+        if (size <= 1 << MIN_SHIFT) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+    }
+}
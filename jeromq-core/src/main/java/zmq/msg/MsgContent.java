@@ -0,0 +1,59 @@
+package zmq.msg;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Reference-counted storage of the data of messages.
+ * <p>
+ * The messages sharing the same data hold a reference each. Once the last reference is released,
+ * the storage is handed to {@link #free()}, typically to be recycled by a pool.
+ * A message shall not be used after it has been released.
+ */
+public abstract class MsgContent
+{
+    private static final AtomicIntegerFieldUpdater<MsgContent> REFS = AtomicIntegerFieldUpdater
+            .newUpdater(MsgContent.class, "refs");
+
+    private volatile int refs = 1;
+
+    /**
+     * Adds references to the content.
+     *
+     * @param refs the number of references to add.
+     */
+    public final void addRefs(int refs)
+    {
+        if (refs > 0) {
+            REFS.addAndGet(this, refs);
+        }
+    }
+
+    /**
+     * Releases a reference to the content, freeing it if it was the last one.
+     *
+     * @return true if the content has been freed.
+     */
+    public final boolean release()
+    {
+        int remaining = REFS.decrementAndGet(this);
+        assert (remaining >= 0);
+        if (remaining == 0) {
+            free();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Resets the content to a single reference, before reusing it.
+     */
+    protected final void reset()
+    {
+        refs = 1;
+    }
+
+    /**
+     * Called once no message references the content anymore.
+     */
+    protected abstract void free();
+}
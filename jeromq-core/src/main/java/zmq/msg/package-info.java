@@ -3,6 +3,8 @@
  * <br>
  * This is a java-only construct, allowing to customize the creation of messages (potentially sharing buffers, for instance).
  *
+ * <p>{@link zmq.msg.MsgAllocatorPool} recycles the data of the messages released with {@link zmq.Msg#release()}.</p>
+ *
  * <p>The classes of this package shall be used with {@link zmq.ZMQ#ZMQ_MSG_ALLOCATOR} or {@link zmq.ZMQ#ZMQ_MSG_ALLOCATION_HEAP_THRESHOLD}</p>
  */
 package zmq.msg;
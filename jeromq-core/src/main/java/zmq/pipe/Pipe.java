@@ -88,14 +88,21 @@ public class Pipe extends ZObject
 
     private final boolean conflate;
 
+    //  Size of the key of the keyed conflation of the inbound messages, -1 if none.
+    private final int conflateKey;
+
     private Msg disconnectMsg;
 
     // JeroMQ only
     private final ZObject parent;
 
+    //  Position of the pipe in the inbound and outbound pipe arrays holding it, -1 if none.
+    final int[] indexes = { -1, -1 };
+
     //  Constructor is private. Pipe can only be created using
     //  pipepair function.
-    private Pipe(ZObject parent, YPipeBase<Msg> inpipe, YPipeBase<Msg> outpipe, int inhwm, int outhwm, boolean conflate)
+    private Pipe(ZObject parent, YPipeBase<Msg> inpipe, YPipeBase<Msg> outpipe, int inhwm, int outhwm, boolean conflate,
+            int conflateKey)
     {
         super(parent);
         this.inpipe = inpipe;
@@ -112,6 +119,7 @@ public class Pipe extends ZObject
         state = State.ACTIVE;
         this.delay = true;
         this.conflate = conflate;
+        this.conflateKey = conflateKey;
         disconnectMsg = null;
 
         this.parent = parent;
@@ -125,18 +133,24 @@ public class Pipe extends ZObject
     //  pipe receives all the pending messages before terminating, otherwise it
     //  terminates straight away.
     public static Pipe[] pair(ZObject[] parents, int[] hwms, boolean[] conflates)
+    {
+        return pair(parents, hwms, conflates, new int[] { -1, -1 });
+    }
+
+    //  Conflate keys are the sizes of the keys of the keyed conflation of the
+    //  messages passed to the first pipe and to the second pipe, 0 for the
+    //  whole first frame, or -1 if they are not conflated by key.
+    public static Pipe[] pair(ZObject[] parents, int[] hwms, boolean[] conflates, int[] conflateKeys)
     {
         Pipe[] pipes = new Pipe[2];
         //   Creates two pipe objects. These objects are connected by two ypipes,
         //   each to pass messages in one direction.
 
-        YPipeBase<Msg> upipe1 = conflates[0] ? new YPipeConflate<>()
-                : new YPipe<>(Config.MESSAGE_PIPE_GRANULARITY.getValue());
-        YPipeBase<Msg> upipe2 = conflates[1] ? new YPipeConflate<>()
-                : new YPipe<>(Config.MESSAGE_PIPE_GRANULARITY.getValue());
+        YPipeBase<Msg> upipe1 = ypipe(conflates[0], conflateKeys[0]);
+        YPipeBase<Msg> upipe2 = ypipe(conflates[1], conflateKeys[1]);
 
-        pipes[0] = new Pipe(parents[0], upipe1, upipe2, hwms[1], hwms[0], conflates[0]);
-        pipes[1] = new Pipe(parents[1], upipe2, upipe1, hwms[0], hwms[1], conflates[1]);
+        pipes[0] = new Pipe(parents[0], upipe1, upipe2, hwms[1], hwms[0], conflates[0], conflateKeys[0]);
+        pipes[1] = new Pipe(parents[1], upipe2, upipe1, hwms[0], hwms[1], conflates[1], conflateKeys[1]);
 
         pipes[0].setPeer(pipes[1]);
         pipes[1].setPeer(pipes[0]);
@@ -144,6 +158,17 @@ public class Pipe extends ZObject
         return pipes;
     }
 
+    private static YPipeBase<Msg> ypipe(boolean conflate, int conflateKey)
+    {
+        if (conflate) {
+            return new YPipeConflate<>();
+        }
+        if (conflateKey >= 0) {
+            return new YPipeKeyedConflate<>(conflateKey);
+        }
+        return new YPipe<>(Config.MESSAGE_PIPE_GRANULARITY.getValue());
+    }
+
     //  Pipepair uses this function to let us know about
     //  the peer pipe object.
     private void setPeer(Pipe peer)
@@ -161,6 +186,14 @@ public class Pipe extends ZObject
         this.sink = sink;
     }
 
+    //  Moves the pipe endpoint to the thread its event sink moves to. Called by
+    //  the thread the endpoint is living in, holding the lock of the pipe.
+    public void moveTo(int tid)
+    {
+        assert (isMovable());
+        setTid(tid);
+    }
+
     //  Pipe endpoint can store an opaque ID to be used by its clients.
     public void setIdentity(Blob identity)
     {
@@ -577,18 +610,19 @@ public class Pipe extends ZObject
         inpipe = null;
 
         //  Create new inpipe.
-        if (conflate) {
-            inpipe = new YPipeConflate<>();
-        }
-        else {
-            inpipe = new YPipe<>(Config.MESSAGE_PIPE_GRANULARITY.getValue());
-        }
+        inpipe = ypipe(conflate, conflateKey);
         inActive = true;
 
         //  Notify the peer about the hiccup.
         sendHiccup(peer, inpipe);
     }
 
+    //  Size of the key of the keyed conflation of the inbound messages, -1 if none.
+    public int getConflateKey()
+    {
+        return conflateKey;
+    }
+
     public void setHwms(int inhwm, int outhwm)
     {
         lwm = computeLwm(inhwm);
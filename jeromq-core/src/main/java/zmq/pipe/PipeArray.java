@@ -0,0 +1,96 @@
+package zmq.pipe;
+
+import java.util.Arrays;
+
+//  Array of pipes where each pipe knows its own position, so that finding,
+//  swapping and removing a pipe take a constant time.
+//  A pipe can be stored in at most one inbound and one outbound array at a time,
+//  as it is the case for the load-balancers and distributors of a socket.
+//  Removal does not preserve the order of the pipes, the last one takes the place
+//  of the removed one.
+//  this class is definitely not thread-safe.
+public final class PipeArray
+{
+    public static final int INBOUND  = 0;
+    public static final int OUTBOUND = 1;
+
+    //  Which of the indexes of the pipes this array uses.
+    private final int slot;
+
+    private Pipe[] pipes = new Pipe[8];
+    private int    size;
+
+    public PipeArray(int slot)
+    {
+        assert (slot == INBOUND || slot == OUTBOUND) : slot;
+        this.slot = slot;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public Pipe get(int index)
+    {
+        assert (index < size);
+        return pipes[index];
+    }
+
+    public void add(Pipe pipe)
+    {
+        assert (pipe.indexes[slot] < 0) : pipe;
+        if (size == pipes.length) {
+            pipes = Arrays.copyOf(pipes, size * 2);
+        }
+        pipes[size] = pipe;
+        pipe.indexes[slot] = size;
+        size++;
+    }
+
+    //  Returns the position of the pipe, or -1 if it is not stored in this array.
+    public int indexOf(Pipe pipe)
+    {
+        int index = pipe.indexes[slot];
+        if (index < 0 || index >= size || pipes[index] != pipe) {
+            return -1;
+        }
+        return index;
+    }
+
+    public void swap(int first, int second)
+    {
+        Pipe pipe = pipes[first];
+        pipes[first] = pipes[second];
+        pipes[second] = pipe;
+        pipes[first].indexes[slot] = first;
+        pipes[second].indexes[slot] = second;
+    }
+
+    public boolean remove(Pipe pipe)
+    {
+        int index = indexOf(pipe);
+        if (index < 0) {
+            return false;
+        }
+        size--;
+        if (index != size) {
+            pipes[index] = pipes[size];
+            pipes[index].indexes[slot] = index;
+        }
+        pipes[size] = null;
+        pipe.indexes[slot] = -1;
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString(Arrays.copyOf(pipes, size));
+    }
+}
@@ -0,0 +1,254 @@
+package zmq.pipe;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import zmq.Msg;
+
+//  Queue to plug instead of a ypipe for the sake of implementing the keyed
+//  conflation: a message replaces the pending message with the same key,
+//  which is its first frame, or the first bytes of it. The latest message of
+//  a key takes the place of the first pending one, so a reader lagging behind
+//  gets at most one message for each key, in the order keys were first seen.
+//  Messages that are not data, like the delimiter, are never conflated.
+//
+//  Unlike ypipe_conflate, the writer only wakes the reader up when it was
+//  found asleep, as ypipe does.
+public class YPipeKeyedConflate<T extends Msg> implements YPipeBase<T>
+{
+    //  First bytes of a message.
+    private static final class Key
+    {
+        private byte[] bytes;
+        private int    size;
+        private int    hash;
+
+        private Key(byte[] bytes, int size)
+        {
+            this.bytes = bytes;
+            this.size = size;
+            this.hash = hash();
+        }
+
+        private int hash()
+        {
+            int hash = 1;
+            for (int idx = 0; idx < size; ++idx) {
+                hash = 31 * hash + bytes[idx];
+            }
+            return hash;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return Arrays.equals(bytes, 0, size, key.bytes, 0, key.size);
+        }
+    }
+
+    private static final class Entry<T>
+    {
+        private final Key key;
+        private List<T>   frames;
+
+        private Entry(Key key, List<T> frames)
+        {
+            this.key = key;
+            this.frames = frames;
+        }
+    }
+
+    //  Size of the key taken from the first frame, 0 for the whole frame.
+    private final int keySize;
+
+    private final Lock sync = new ReentrantLock();
+
+    //  Messages not read yet, and the ones with a key by their key.
+    private final Deque<Entry<T>>      queue   = new ArrayDeque<>();
+    private final Map<Key, Entry<T>> pending = new HashMap<>();
+
+    private boolean readerAwake;
+
+    //  Frames of the message being written, and the key looked up, only
+    //  copied when a new key is added. Writer side only.
+    private final List<T> incomplete = new ArrayList<>();
+    private final Key     probe      = new Key(new byte[64], 0);
+
+    //  Message being read, out of the queue, and its next frame. Reader side only.
+    private Entry<T> reading;
+    private int      next;
+
+    public YPipeKeyedConflate(int keySize)
+    {
+        assert (keySize >= 0);
+        this.keySize = keySize;
+    }
+
+    @Override
+    public void write(final T value, boolean incomplete)
+    {
+        if (incomplete) {
+            this.incomplete.add(value);
+            return;
+        }
+        List<T> frames;
+        if (this.incomplete.isEmpty()) {
+            frames = Collections.singletonList(value);
+        }
+        else {
+            this.incomplete.add(value);
+            frames = new ArrayList<>(this.incomplete);
+            this.incomplete.clear();
+        }
+        boolean keyed = probe(frames.get(0));
+
+        sync.lock();
+        try {
+            Entry<T> entry = keyed ? pending.get(probe) : null;
+            if (entry != null) {
+                entry.frames = frames;
+            }
+            else if (keyed) {
+                Key key = new Key(Arrays.copyOf(probe.bytes, probe.size), probe.size);
+                entry = new Entry<>(key, frames);
+                queue.add(entry);
+                pending.put(key, entry);
+            }
+            else {
+                queue.add(new Entry<>(null, frames));
+            }
+        }
+        finally {
+            sync.unlock();
+        }
+    }
+
+    //  Sets the probe to the key of the message, if it has one.
+    private boolean probe(T msg)
+    {
+        if (msg.isDelimiter() || msg.isIdentity() || msg.isCredential() || msg.isCommand()) {
+            return false;
+        }
+        int size = keySize == 0 ? msg.size() : Math.min(keySize, msg.size());
+        if (size > probe.bytes.length) {
+            probe.bytes = new byte[size];
+        }
+        msg.getBytes(0, probe.bytes, 0, size);
+        probe.size = size;
+        probe.hash = probe.hash();
+        return true;
+    }
+
+    //  Pop an incomplete item from the pipe.
+    @Override
+    public T unwrite()
+    {
+        if (incomplete.isEmpty()) {
+            return null;
+        }
+        return incomplete.remove(incomplete.size() - 1);
+    }
+
+    //  Messages are available as soon as they are complete.
+    //  Returns false if the reader thread was found sleeping since the last
+    //  flush. In that case, caller is obliged to wake the reader up.
+    @Override
+    public boolean flush()
+    {
+        sync.lock();
+        try {
+            boolean awake = readerAwake;
+            readerAwake = true;
+            return awake;
+        }
+        finally {
+            sync.unlock();
+        }
+    }
+
+    //  Check whether item is available for reading.
+    @Override
+    public boolean checkRead()
+    {
+        if (reading != null) {
+            return true;
+        }
+        sync.lock();
+        try {
+            if (queue.isEmpty()) {
+                readerAwake = false;
+                return false;
+            }
+            return true;
+        }
+        finally {
+            sync.unlock();
+        }
+    }
+
+    //  Reads an item from the pipe. Returns null if there is no value
+    //  available.
+    @Override
+    public T read()
+    {
+        if (reading == null) {
+            sync.lock();
+            try {
+                reading = queue.poll();
+                if (reading == null) {
+                    readerAwake = false;
+                    return null;
+                }
+                //  From now on, a message with the same key is a new one.
+                if (reading.key != null) {
+                    pending.remove(reading.key);
+                }
+            }
+            finally {
+                sync.unlock();
+            }
+            next = 0;
+        }
+        T frame = reading.frames.get(next++);
+        if (next == reading.frames.size()) {
+            reading = null;
+        }
+        return frame;
+    }
+
+    //  Returns the first item in the pipe without removing it.
+    //  The pipe mustn't be empty.
+    @Override
+    public T probe()
+    {
+        if (reading != null) {
+            return reading.frames.get(next);
+        }
+        sync.lock();
+        try {
+            Entry<T> entry = queue.peek();
+            return entry == null ? null : entry.frames.get(0);
+        }
+        finally {
+            sync.unlock();
+        }
+    }
+}
@@ -10,8 +10,8 @@ public class PollItem
 {
     private final SocketBase        socket;
     private final SelectableChannel channel;
-    private final int               zinterest;
-    private final int               interest;
+    private int                     zinterest;
+    private int                     interest;
     private int                     ready;
 
     public PollItem(SocketBase socket, int ops)
@@ -104,9 +104,11 @@ public class PollItem
         return (zinterest & events) > 0;
     }
 
+    //  Changes the events polled, once registered in a poll set too.
     public int interestOps(int ops)
     {
-        init(ops);
+        zinterest = ops;
+        interest = init(ops);
         return interest;
     }
 
@@ -0,0 +1,233 @@
+package zmq.poll;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import zmq.ZError;
+import zmq.util.Clock;
+import zmq.util.Utils;
+
+//  Poll items kept registered to a selector between polls, for the loops polling
+//  the same items over and over. Unlike ZMQ.poll(), which registers the items
+//  anew on each call, a poll only updates the interest of the items that changed,
+//  and does not allocate when no key has to be registered again.
+//  This class is not thread-safe.
+public final class PollSet
+{
+    private final Selector selector;
+
+    //  Items, and their keys at the same index.
+    private PollItem[]     items = new PollItem[8];
+    private SelectionKey[] keys  = new SelectionKey[8];
+    private int            size;
+
+    //  Open and reuse this selector, and do not forget to close it when it is not used.
+    //  Its keys shall be left to the poll set.
+    public PollSet(Selector selector)
+    {
+        Utils.checkArgument(selector != null, "selector has to be supplied for polling");
+        this.selector = selector;
+    }
+
+    //  Adds an item to poll. Returns false if its channel is already polled.
+    public boolean add(PollItem item)
+    {
+        Utils.checkArgument(item != null, "item has to be supplied for polling");
+        SelectableChannel channel = item.getChannel();
+        for (int idx = 0; idx < size; ++idx) {
+            if (items[idx].getChannel() == channel) {
+                return false;
+            }
+        }
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        items[size] = item;
+        keys[size] = null;
+        size++;
+        return true;
+    }
+
+    //  Removes an item. Returns false if it was not polled.
+    public boolean remove(PollItem item)
+    {
+        for (int idx = 0; idx < size; ++idx) {
+            if (items[idx] == item) {
+                if (keys[idx] != null) {
+                    keys[idx].cancel();
+                }
+                size--;
+                System.arraycopy(items, idx + 1, items, idx, size - idx);
+                System.arraycopy(keys, idx + 1, keys, idx, size - idx);
+                items[size] = null;
+                keys[size] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public PollItem get(int index)
+    {
+        assert (index < size);
+        return items[index];
+    }
+
+    //  Polls the items, with the same semantics as ZMQ.poll().
+    //  Returns the number of items with events, or -1 if the context was closed.
+    public int poll(long timeout)
+    {
+        if (size == 0) {
+            if (timeout > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(timeout));
+            }
+            return 0;
+        }
+        try {
+            register();
+        }
+        catch (ClosedSelectorException e) {
+            // context was closed asynchronously, exit gracefully
+            return -1;
+        }
+
+        long now = 0L;
+        long end = 0L;
+        boolean firstPass = true;
+        int nevents = 0;
+
+        while (true) {
+            //  Compute the timeout for the subsequent poll.
+            long waitMillis;
+            if (firstPass) {
+                waitMillis = 0L;
+            }
+            else if (timeout < 0L) {
+                waitMillis = -1L;
+            }
+            else {
+                waitMillis = TimeUnit.NANOSECONDS.toMillis(end - now);
+                if (waitMillis == 0) {
+                    waitMillis = 1L;
+                }
+            }
+
+            //  Wait for events.
+            try {
+                int rc;
+                if (waitMillis < 0) {
+                    rc = selector.select(0);
+                }
+                else if (waitMillis == 0) {
+                    rc = selector.selectNow();
+                }
+                else {
+                    rc = selector.select(waitMillis);
+                }
+
+                for (int idx = 0; idx < size; ++idx) {
+                    int ready = items[idx].readyOps(keys[idx], rc);
+                    if (ready < 0) {
+                        return -1;
+                    }
+                    if (ready > 0) {
+                        nevents++;
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+            catch (ClosedSelectorException e) {
+                // context was closed asynchronously, exit gracefully
+                return -1;
+            }
+            catch (IOException e) {
+                throw new ZError.IOException(e);
+            }
+            //  If timeout is zero, exit immediately whether there are events or not.
+            if (timeout == 0 || nevents > 0) {
+                break;
+            }
+
+            //  At this point we are meant to wait for events but there are none.
+            //  If timeout is infinite we can just loop until we get some events.
+            if (timeout < 0) {
+                firstPass = false;
+                continue;
+            }
+
+            //  The timeout is finite and there are no events. In the first pass
+            //  we get a timestamp of when the polling have begun. (We assume that
+            //  first pass have taken negligible time). We also compute the time
+            //  when the polling should time out.
+            if (firstPass) {
+                now = Clock.nowNS();
+                end = now + TimeUnit.MILLISECONDS.toNanos(timeout);
+                if (now == end) {
+                    break;
+                }
+                firstPass = false;
+                continue;
+            }
+
+            //  Find out whether timeout have expired.
+            now = Clock.nowNS();
+            if (now >= end) {
+                break;
+            }
+        }
+        return nevents;
+    }
+
+    //  Registers the new items, the ones whose key was cancelled, and updates
+    //  the interest of the others if it changed.
+    private void register()
+    {
+        boolean flushed = false;
+        for (int idx = 0; idx < size; ++idx) {
+            PollItem item = items[idx];
+            SelectionKey key = keys[idx];
+            if (key != null && key.isValid()) {
+                if (key.interestOps() != item.interestOps()) {
+                    key.interestOps(item.interestOps());
+                }
+                continue;
+            }
+            SelectableChannel channel = item.getChannel();
+            if (key == null) {
+                //  The channel may have been removed from the poll set, then added again.
+                key = channel.keyFor(selector);
+            }
+            if (key != null && !key.isValid() && !flushed) {
+                //  The channel cannot be registered again before the selector
+                //  dropped its cancelled key.
+                try {
+                    selector.selectNow();
+                    selector.selectedKeys().clear();
+                }
+                catch (IOException e) {
+                    throw new ZError.IOException(e);
+                }
+                flushed = true;
+            }
+            try {
+                keys[idx] = channel.register(selector, item.interestOps(), item);
+            }
+            catch (ClosedChannelException e) {
+                throw new ZError.IOException(e);
+            }
+        }
+    }
+}
@@ -8,14 +8,19 @@ import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import zmq.Ctx;
 import zmq.ZError;
+import zmq.ZMQ;
+import zmq.util.function.BiFunction;
 
 public final class Poller extends PollerBase implements Runnable
 {
@@ -29,6 +34,11 @@ public final class Poller extends PollerBase implements Runnable
         private int     ops;
         private boolean cancelled;
 
+        //  Key of the fd in the selector, once registered.
+        private SelectionKey key;
+        //  If true, the handle is waiting in the list of the handles to update.
+        private boolean      dirty;
+
         public Handle(SelectableChannel fd, IPollEvents handler)
         {
             assert (fd != null);
@@ -37,32 +47,6 @@ public final class Poller extends PollerBase implements Runnable
             this.handler = handler;
         }
 
-        @Override
-        public int hashCode()
-        {
-            final int prime = 31;
-            int result = 1;
-            result = prime * result + fd.hashCode();
-            result = prime * result + handler.hashCode();
-            return result;
-        }
-
-        @Override
-        public boolean equals(Object other)
-        {
-            if (this == other) {
-                return true;
-            }
-            if (other == null) {
-                return false;
-            }
-            if (!(other instanceof Handle)) {
-                return false;
-            }
-            Handle that = (Handle) other;
-            return this.fd.equals(that.fd) && this.handler.equals(that.handler);
-        }
-
         @Override
         public String toString()
         {
@@ -76,8 +60,8 @@ public final class Poller extends PollerBase implements Runnable
     //  stores data for registered descriptors.
     private final Set<Handle> fdTable;
 
-    //  If true, there's at least one retired event source.
-    private boolean retired = false;
+    //  Handles whose registration in the selector has to be updated.
+    private final List<Handle> retired;
 
     //  If true, thread is in the process of shutting down.
     private final AtomicBoolean  stopping = new AtomicBoolean();
@@ -88,10 +72,16 @@ public final class Poller extends PollerBase implements Runnable
 
     public Poller(Ctx ctx, String name)
     {
-        super(name, ctx.getThreadFactory());
+        this(ctx, name, ctx.getThreadFactory());
+    }
+
+    public Poller(Ctx ctx, String name, BiFunction<Runnable, String, Thread> threadFactory)
+    {
+        super(name, threadFactory, ctx.get(ZMQ.ZMQ_TIMER_WHEEL) != 0);
         this.ctx = ctx;
         exnotification = ctx.getNotificationExceptionHandler();
-        fdTable = new HashSet<>();
+        fdTable = Collections.newSetFromMap(new IdentityHashMap<>());
+        retired = new ArrayList<>();
         selector = ctx.createSelector();
     }
 
@@ -117,6 +107,7 @@ public final class Poller extends PollerBase implements Runnable
 
         Handle handle = new Handle(fd, events);
         fdTable.add(handle);
+        retire(handle);
 
         //  Increase the load metric of the thread.
         adjustLoad(1);
@@ -129,7 +120,7 @@ public final class Poller extends PollerBase implements Runnable
 
         //  Mark the fd as unused.
         handle.cancelled = true;
-        retired = true;
+        retire(handle);
 
         //  Decrease the load metric of the thread.
         adjustLoad(-1);
@@ -175,7 +166,16 @@ public final class Poller extends PollerBase implements Runnable
         else {
             handle.ops &= ~ops;
         }
-        retired = true;
+        retire(handle);
+    }
+
+    //  Schedules the update of the handle registration in the selector.
+    private void retire(Handle handle)
+    {
+        if (!handle.dirty) {
+            handle.dirty = true;
+            retired.add(handle);
+        }
     }
 
     public void start()
@@ -186,7 +186,6 @@ public final class Poller extends PollerBase implements Runnable
     public void stop()
     {
         stopping.set(true);
-        retired = false;
         selector.wakeup();
     }
 
@@ -199,34 +198,13 @@ public final class Poller extends PollerBase implements Runnable
             //  Execute any due timers.
             long timeout = executeTimers();
 
-            if (retired) {
-                retired = false;
-                Iterator<Handle> iter = fdTable.iterator();
-                while (iter.hasNext()) {
-                    Handle handle = iter.next();
-                    SelectionKey key = handle.fd.keyFor(selector);
-                    if (handle.cancelled || !handle.fd.isOpen()) {
-                        if (key != null) {
-                            key.cancel();
-                        }
-                        iter.remove();
-                        continue;
-                    }
-                    if (key == null) {
-                        if (handle.fd.isOpen()) {
-                            try {
-                                key = handle.fd.register(selector, handle.ops, handle);
-                                assert (key != null);
-                            }
-                            catch (CancelledKeyException | ClosedSelectorException | ClosedChannelException e) {
-                                exnotification.uncaughtException(worker, e);
-                            }
-                        }
-                    }
-                    else if (key.isValid()) {
-                        key.interestOps(handle.ops);
-                    }
+            //  Only the handles changed since the last iteration are updated.
+            if (!retired.isEmpty()) {
+                for (Handle handle : retired) {
+                    handle.dirty = false;
+                    update(handle);
                 }
+                retired.clear();
             }
 
             //  Wait for events.
@@ -283,6 +261,56 @@ public final class Poller extends PollerBase implements Runnable
         stopped.countDown();
     }
 
+    private void update(Handle handle)
+    {
+        SelectionKey key = handle.key;
+        if (handle.cancelled || !handle.fd.isOpen()) {
+            //  The key may have been taken over by a handle added for the same channel.
+            if (key != null && key.attachment() == handle) {
+                key.cancel();
+            }
+            fdTable.remove(handle);
+            return;
+        }
+        if (key != null && key.isValid()) {
+            try {
+                key.interestOps(handle.ops);
+                return;
+            }
+            catch (CancelledKeyException e) {
+                //  Cancelled meanwhile, by the closing of the channel.
+                if (!handle.fd.isOpen()) {
+                    fdTable.remove(handle);
+                    return;
+                }
+            }
+        }
+        handle.key = registerChannel(handle);
+    }
+
+    //  Registers the channel of the handle in the selector.
+    private SelectionKey registerChannel(Handle handle)
+    {
+        try {
+            try {
+                return handle.fd.register(selector, handle.ops, handle);
+            }
+            catch (CancelledKeyException e) {
+                //  The channel still has a cancelled key, of a removed handle or cancelled
+                //  meanwhile, only dropped by the next selection operation.
+                selector.selectNow(key -> { });
+                return handle.fd.register(selector, handle.ops, handle);
+            }
+        }
+        catch (CancelledKeyException | ClosedSelectorException | ClosedChannelException e) {
+            exnotification.uncaughtException(worker, e);
+        }
+        catch (IOException e) {
+            throw new ZError.IOException(e);
+        }
+        return null;
+    }
+
     private int maybeRebuildSelector(int returnsImmediately, long timeout, long start)
     {
         //  Guess JDK epoll bug
@@ -305,7 +333,11 @@ public final class Poller extends PollerBase implements Runnable
         Selector oldSelector = selector;
 
         selector = ctx.createSelector();
-        retired = true;
+        //  All the handles have to be registered again in the new selector.
+        for (Handle handle : fdTable) {
+            handle.key = null;
+            retire(handle);
+        }
 
         ctx.closeSelector(oldSelector);
     }
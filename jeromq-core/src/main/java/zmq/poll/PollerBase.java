@@ -1,10 +1,15 @@
 package zmq.poll;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import zmq.Config;
 import zmq.util.Clock;
 import zmq.util.MultiMap;
+import zmq.util.TimerWheel;
+import zmq.util.TimerWheel.Timeout;
 import zmq.util.function.BiFunction;
 
 abstract class PollerBase implements Runnable
@@ -62,6 +67,11 @@ abstract class PollerBase implements Runnable
 
     private final MultiMap<Long, TimerInfo> timers = new MultiMap<>();
 
+    //  Timing wheel used instead of the multimap of timers, if enabled.
+    private final TimerWheel<TimerInfo>              wheel;
+    //  Timeouts scheduled in the timing wheel, to find them back when cancelled.
+    private final Map<TimerInfo, Timeout<TimerInfo>> timeouts;
+
     // the thread where all events will be dispatched. So, the actual IO or Reaper threads.
     protected final Thread worker;
 
@@ -71,12 +81,27 @@ abstract class PollerBase implements Runnable
     protected PollerBase(String name)
     {
         worker = createWorker(name);
+        wheel = null;
+        timeouts = null;
     }
 
     protected PollerBase(String name, BiFunction<Runnable, String, Thread> threadFactory)
+    {
+        this(name, threadFactory, false);
+    }
+
+    protected PollerBase(String name, BiFunction<Runnable, String, Thread> threadFactory, boolean timerWheel)
     {
         worker = threadFactory.apply(this, name);
-   }
+        if (timerWheel) {
+            wheel = new TimerWheel<>(Config.TIMER_WHEEL_SLOTS.getValue());
+            timeouts = new HashMap<>();
+        }
+        else {
+            wheel = null;
+            timeouts = null;
+        }
+    }
 
     Thread createWorker(String name)
     {
@@ -92,6 +117,9 @@ abstract class PollerBase implements Runnable
 
     final boolean isEmpty()
     {
+        if (wheel != null) {
+            return wheel.isEmpty();
+        }
         return timers.isEmpty();
     }
 
@@ -117,6 +145,17 @@ abstract class PollerBase implements Runnable
 
         final long expiration = clock() + timeout;
         TimerInfo info = new TimerInfo(sink, id);
+        if (wheel != null) {
+            //  As with the multimap, a timer added again is rescheduled.
+            Timeout<TimerInfo> scheduled = timeouts.get(info);
+            if (scheduled == null) {
+                timeouts.put(info, wheel.add(expiration, info));
+            }
+            else {
+                wheel.reschedule(scheduled, expiration);
+            }
+            return;
+        }
         timers.insert(expiration, info);
 
         changed = true;
@@ -128,6 +167,13 @@ abstract class PollerBase implements Runnable
         assert (Thread.currentThread() == worker);
 
         TimerInfo copy = new TimerInfo(sink, id);
+        if (wheel != null) {
+            Timeout<TimerInfo> scheduled = timeouts.remove(copy);
+            if (scheduled != null) {
+                wheel.cancel(scheduled);
+            }
+            return;
+        }
         //  Complexity of this operation is O(n). We assume it is rarely used.
 
         TimerInfo timerInfo = timers.find(copy);
@@ -143,6 +189,10 @@ abstract class PollerBase implements Runnable
     {
         assert (Thread.currentThread() == worker);
 
+        if (wheel != null) {
+            return executeWheel();
+        }
+
         changed = false;
 
         //  Fast track.
@@ -193,4 +243,30 @@ abstract class PollerBase implements Runnable
         //  There are no more timers.
         return 0L;
     }
+
+    //  Executes the timers of the timing wheel that are due, in the order of their expiration.
+    private long executeWheel()
+    {
+        //  Fast track.
+        if (wheel.isEmpty()) {
+            return 0L;
+        }
+
+        long current = clock();
+
+        //  The timers added by the triggered ones are executed as well if they are due.
+        Timeout<TimerInfo> timeout = wheel.poll(current);
+        while (timeout != null) {
+            TimerInfo timerInfo = timeout.value();
+            timeouts.remove(timerInfo);
+            timerInfo.sink.timerEvent(timerInfo.id);
+            timeout = wheel.poll(current);
+        }
+
+        if (wheel.isEmpty()) {
+            //  There are no more timers.
+            return 0L;
+        }
+        return wheel.nextDeadline() - current;
+    }
 }
@@ -1,12 +1,9 @@
 package zmq.socket;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 import zmq.Msg;
 import zmq.ZError;
 import zmq.pipe.Pipe;
+import zmq.pipe.PipeArray;
 import zmq.util.Blob;
 import zmq.util.Errno;
 import zmq.util.ValueReference;
@@ -17,7 +14,7 @@ import zmq.util.ValueReference;
 public class FQ
 {
     //  Inbound pipes.
-    private final List<Pipe> pipes;
+    private final PipeArray pipes;
 
     //  Number of active pipes. All the active pipes are located at the
     //  beginning of the pipes array.
@@ -44,13 +41,13 @@ public class FQ
         current = 0;
         more = false;
 
-        pipes = new ArrayList<>();
+        pipes = new PipeArray(PipeArray.INBOUND);
     }
 
     public void attach(Pipe pipe)
     {
         pipes.add(pipe);
-        Collections.swap(pipes, active, pipes.size() - 1);
+        pipes.swap(active, pipes.size() - 1);
         active++;
     }
 
@@ -62,7 +59,7 @@ public class FQ
         //  accordingly.
         if (index < active) {
             active--;
-            Collections.swap(pipes, index, active);
+            pipes.swap(index, active);
             if (current == active) {
                 current = 0;
             }
@@ -78,7 +75,7 @@ public class FQ
     public void activated(Pipe pipe)
     {
         //  Move the pipe to the list of active pipes.
-        Collections.swap(pipes, pipes.indexOf(pipe), active);
+        pipes.swap(pipes.indexOf(pipe), active);
         active++;
     }
 
@@ -119,7 +116,7 @@ public class FQ
             assert (!more);
 
             active--;
-            Collections.swap(pipes, current, active);
+            pipes.swap(current, active);
             if (current == active) {
                 current = 0;
             }
@@ -149,7 +146,7 @@ public class FQ
 
             //  Deactivate the pipe.
             active--;
-            Collections.swap(pipes, current, active);
+            pipes.swap(current, active);
             if (current == active) {
                 current = 0;
             }
@@ -1,19 +1,16 @@
 package zmq.socket;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 import zmq.Msg;
 import zmq.ZError;
 import zmq.pipe.Pipe;
+import zmq.pipe.PipeArray;
 import zmq.util.Errno;
 import zmq.util.ValueReference;
 
 public class LB
 {
     //  List of outbound pipes.
-    private final List<Pipe> pipes;
+    private final PipeArray pipes;
 
     //  Number of active pipes. All the active pipes are located at the
     //  beginning of the pipes array.
@@ -35,7 +32,7 @@ public class LB
         more = false;
         dropping = false;
 
-        pipes = new ArrayList<>();
+        pipes = new PipeArray(PipeArray.OUTBOUND);
     }
 
     public void attach(Pipe pipe)
@@ -58,7 +55,7 @@ public class LB
         //  accordingly.
         if (index < active) {
             active--;
-            Collections.swap(pipes, index, active);
+            pipes.swap(index, active);
             if (current == active) {
                 current = 0;
             }
@@ -69,7 +66,7 @@ public class LB
     public void activated(Pipe pipe)
     {
         //  Move the pipe to the list of active pipes.
-        Collections.swap(pipes, pipes.indexOf(pipe), active);
+        pipes.swap(pipes.indexOf(pipe), active);
         active++;
     }
 
@@ -96,7 +93,7 @@ public class LB
             assert (!more);
             active--;
             if (current < active) {
-                Collections.swap(pipes, current, active);
+                pipes.swap(current, active);
             }
             else {
                 current = 0;
@@ -138,7 +135,7 @@ public class LB
 
             //  Deactivate the pipe.
             active--;
-            Collections.swap(pipes, current, active);
+            pipes.swap(current, active);
             if (current == active) {
                 current = 0;
             }
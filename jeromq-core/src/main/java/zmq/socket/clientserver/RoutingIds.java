@@ -0,0 +1,85 @@
+package zmq.socket.clientserver;
+
+import zmq.util.Utils;
+
+//  Generates the routing IDs of the peers of a SERVER socket.
+//  The low bits of an ID are the slot of the peer, reused once the peer is gone
+//  so that the IDs stay dense. The high bits are a generation number, bumped each
+//  time the slot is freed, so that a late reply to a disconnected peer is not
+//  delivered to the peer taking its slot. Freed slots are recycled in FIFO order
+//  to delay the reuse of any given slot as much as possible. A slot whose
+//  generation would wrap around is retired, so that an ID is never handed out twice.
+final class RoutingIds
+{
+    private static final int SLOT_BITS       = 20;
+    private static final int SLOT_MASK       = (1 << SLOT_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << (Integer.SIZE - SLOT_BITS)) - 1;
+
+    //  Current generation of each slot.
+    private int[] generations;
+
+    //  Circular queue of the freed slots.
+    private int[] free;
+    private int   freeHead;
+    private int   freeCount;
+
+    //  Number of slots handed out so far.
+    private int slots;
+
+    //  Generation of the newly created slots, random as the IDs of other sockets.
+    private final int seed;
+
+    RoutingIds()
+    {
+        generations = new int[16];
+        free = new int[16];
+        seed = Utils.randomInt();
+    }
+
+    //  Returns a new ID, never zero.
+    int acquire()
+    {
+        int slot;
+        if (freeCount > 0) {
+            slot = free[freeHead];
+            freeHead = (freeHead + 1) % free.length;
+            --freeCount;
+        }
+        else {
+            //  Over a million of simultaneous or retired slots are not supported.
+            assert (slots < SLOT_MASK);
+            slot = slots++;
+            if (slot == generations.length) {
+                int[] grown = new int[generations.length << 1];
+                System.arraycopy(generations, 0, grown, 0, generations.length);
+                generations = grown;
+            }
+            generations[slot] = seed;
+        }
+        //  Slots are numbered from one, the ID zero stays unused.
+        return (generations[slot] << SLOT_BITS) | (slot + 1);
+    }
+
+    void release(int routingId)
+    {
+        int slot = (routingId & SLOT_MASK) - 1;
+        assert (slot >= 0 && slot < slots);
+        generations[slot]++;
+
+        //  All the generations of the slot have been used, its IDs could be repeated.
+        if (((generations[slot] - seed) & GENERATION_MASK) == 0) {
+            return;
+        }
+
+        if (freeCount == free.length) {
+            int[] grown = new int[free.length << 1];
+            for (int idx = 0; idx < freeCount; ++idx) {
+                grown[idx] = free[(freeHead + idx) % free.length];
+            }
+            free = grown;
+            freeHead = 0;
+        }
+        free[(freeHead + freeCount) % free.length] = slot;
+        ++freeCount;
+    }
+}
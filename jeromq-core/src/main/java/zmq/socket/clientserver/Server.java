@@ -8,13 +8,9 @@ import zmq.ZError;
 import zmq.pipe.Pipe;
 import zmq.socket.FQ;
 import zmq.util.Blob;
-import zmq.util.Utils;
+import zmq.util.IntMap;
 import zmq.util.ValueReference;
 
-import java.util.HashMap;
-import java.util.Map;
-
-//TODO: This class uses O(n) scheduling. Rewrite it to use O(1) algorithm.
 public class Server extends SocketBase
 {
     //  Fair queuing object for inbound pipes.
@@ -33,23 +29,22 @@ public class Server extends SocketBase
     }
 
     //  Outbound pipes indexed by the peer IDs.
-    private final Map<Integer, Outpipe> outpipes;
+    private final IntMap<Outpipe> outpipes;
 
-    //  Routing IDs are generated. It's a simple increment and wrap-over
-    //  algorithm. This value is the next ID to use (if not used already).
-    private int nextRid;
+    //  Routing IDs are generated, reusing the ones of the terminated pipes.
+    private final RoutingIds routingIds;
 
     public Server(Ctx parent, int tid, int sid)
     {
         super(parent, tid, sid, true);
-        nextRid = Utils.randomInt();
+        routingIds = new RoutingIds();
 
         options.type = ZMQ.ZMQ_SERVER;
         options.canSendHelloMsg = true;
         options.canReceiveDisconnectMsg = true;
 
         fq = new FQ();
-        outpipes = new HashMap<>();
+        outpipes = new IntMap<>();
     }
 
     @Override
@@ -65,10 +60,7 @@ public class Server extends SocketBase
     {
         assert (pipe != null);
 
-        int routingId = nextRid++;
-        if (routingId == 0) {
-            routingId = nextRid++; //  Never use Routing ID zero
-        }
+        int routingId = routingIds.acquire();
 
         pipe.setRoutingId(routingId);
         //  Add the record into output pipes lookup table
@@ -84,6 +76,7 @@ public class Server extends SocketBase
     {
         Outpipe old = outpipes.remove(pipe.getRoutingId());
         assert (old != null);
+        routingIds.release(pipe.getRoutingId());
 
         fq.terminated(pipe);
     }
@@ -0,0 +1,261 @@
+package zmq.socket.pubsub;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import zmq.Msg;
+import zmq.pipe.Pipe;
+import zmq.util.Utils;
+
+//  Multi-trie with compressed paths. Each subscribed pipe gets a small
+//  identifier, and each node keeps the set of identifiers of its pipes.
+//  Matching walks down the nodes without allocating.
+class CompactMtrie implements IMtrie
+{
+    private final RadixNode root = new RadixNode(new byte[0]);
+
+    //  Identifier of each pipe with at least one subscription.
+    private final Map<Pipe, Integer> ids  = new HashMap<>();
+    private final BitSet             used = new BitSet();
+
+    //  Pipes by identifier.
+    private Pipe[] pipes = new Pipe[16];
+
+    //  Number of subscriptions of the pipes, by identifier.
+    private int[] refs = new int[16];
+
+    @Override
+    public boolean addOnTop(Pipe pipe)
+    {
+        assert (pipe != null);
+        return addPipe(root, pipe);
+    }
+
+    @Override
+    public boolean add(Msg msg, Pipe pipe)
+    {
+        assert (msg != null);
+        assert (pipe != null);
+        return addPipe(root.insert(msg, 1, msg.size() - 1), pipe);
+    }
+
+    private boolean addPipe(RadixNode node, Pipe pipe)
+    {
+        boolean result = node.pipes == null;
+        if (result) {
+            node.pipes = new IdSet();
+        }
+        int id = acquire(pipe);
+        if (node.pipes.add(id)) {
+            refs[id]++;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean rm(Pipe pipe, IMtrieHandler func, XPub pub)
+    {
+        assert (pipe != null);
+        assert (func != null);
+        Integer id = ids.get(pipe);
+        if (id != null) {
+            rmHelper(root, id, new byte[256], 0, func, pub);
+            assert (refs[id] == 0);
+            release(id);
+        }
+        return true;
+    }
+
+    private byte[] rmHelper(RadixNode node, int id, byte[] buff, int buffsize, IMtrieHandler func, XPub pub)
+    {
+        //  Remove the subscription from this node.
+        if (node.pipes != null && node.pipes.remove(id)) {
+            refs[id]--;
+            if (node.pipes.isEmpty()) {
+                node.pipes = null;
+                func.invoke(null, buff, buffsize, pub);
+            }
+        }
+
+        RadixNode[] children = node.children;
+        for (int idx = children.length - 1; idx >= 0 && refs[id] > 0; --idx) {
+            RadixNode child = children[idx];
+            if (child == null) {
+                continue;
+            }
+            int size = buffsize + child.edge.length;
+            if (size > buff.length) {
+                buff = Utils.realloc(buff, size + 256);
+            }
+            System.arraycopy(child.edge, 0, buff, buffsize, child.edge.length);
+            buff = rmHelper(child, id, buff, size, func, pub);
+            node.compact(child);
+        }
+        return buff;
+    }
+
+    @Override
+    public boolean rm(Msg msg, Pipe pipe)
+    {
+        assert (msg != null);
+        assert (pipe != null);
+        Integer id = ids.get(pipe);
+        if (id == null) {
+            return false;
+        }
+        return rmHelper(root, msg, 1, msg.size(), id);
+    }
+
+    private boolean rmHelper(RadixNode node, Msg msg, int pos, int end, int id)
+    {
+        if (pos == end) {
+            if (node.pipes == null || !node.pipes.remove(id)) {
+                return false;
+            }
+            if (--refs[id] == 0) {
+                release(id);
+            }
+            if (node.pipes.isEmpty()) {
+                node.pipes = null;
+            }
+            return node.pipes == null;
+        }
+
+        RadixNode child = node.child(msg.get(pos));
+        if (child == null || !child.prefixOf(msg, pos, end)) {
+            return false;
+        }
+        boolean ret = rmHelper(child, msg, pos + child.edge.length, end, id);
+        node.compact(child);
+        return ret;
+    }
+
+    @Override
+    public void match(ByteBuffer data, int size, IMtrieHandler func, XPub pub)
+    {
+        assert (data != null);
+        assert (func != null);
+        assert (pub != null);
+        RadixNode current = root;
+        int idx = 0;
+
+        while (true) {
+            //  Signal the pipes attached to this node.
+            if (current.pipes != null) {
+                signal(current.pipes, func, pub);
+            }
+
+            //  If we are at the end of the message, there's nothing more to match.
+            if (idx == size) {
+                break;
+            }
+
+            RadixNode next = current.child(data.get(idx));
+            if (next == null || !next.prefixOf(data, idx, size)) {
+                break;
+            }
+            idx += next.edge.length;
+            current = next;
+        }
+    }
+
+    @Override
+    public void match(Msg msg, Dist dist)
+    {
+        assert (msg != null);
+        assert (dist != null);
+        RadixNode current = root;
+        int size = msg.size();
+        int idx = 0;
+
+        while (true) {
+            //  Mark the pipes attached to this node.
+            if (current.pipes != null) {
+                mark(current.pipes, dist);
+            }
+
+            //  If we are at the end of the message, there's nothing more to match.
+            if (idx == size) {
+                break;
+            }
+
+            RadixNode next = current.child(msg.get(idx));
+            if (next == null || !next.prefixOf(msg, idx, size)) {
+                break;
+            }
+            idx += next.edge.length;
+            current = next;
+        }
+    }
+
+    private void mark(IdSet set, Dist dist)
+    {
+        if (set.bits == null) {
+            for (int idx = 0; idx < set.count; ++idx) {
+                dist.match(pipes[set.ids[idx]]);
+            }
+            return;
+        }
+        long[] bits = set.bits;
+        for (int word = 0; word < bits.length; ++word) {
+            long remaining = bits[word];
+            while (remaining != 0) {
+                dist.match(pipes[(word << 6) + Long.numberOfTrailingZeros(remaining)]);
+                remaining &= remaining - 1;
+            }
+        }
+    }
+
+    private void signal(IdSet set, IMtrieHandler func, XPub pub)
+    {
+        if (set.bits == null) {
+            for (int idx = 0; idx < set.count; ++idx) {
+                func.invoke(pipes[set.ids[idx]], null, 0, pub);
+            }
+            return;
+        }
+        long[] bits = set.bits;
+        for (int word = 0; word < bits.length; ++word) {
+            long remaining = bits[word];
+            while (remaining != 0) {
+                int id = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                func.invoke(pipes[id], null, 0, pub);
+                remaining &= remaining - 1;
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return root.pipes == null && root.size == 0;
+    }
+
+    //  Returns the identifier of the pipe, giving it the smallest free one if needed.
+    private int acquire(Pipe pipe)
+    {
+        Integer id = ids.get(pipe);
+        if (id != null) {
+            return id;
+        }
+        int free = used.nextClearBit(0);
+        if (free == pipes.length) {
+            pipes = Arrays.copyOf(pipes, free * 2);
+            refs = Arrays.copyOf(refs, free * 2);
+        }
+        used.set(free);
+        pipes[free] = pipe;
+        ids.put(pipe, free);
+        return free;
+    }
+
+    private void release(int id)
+    {
+        ids.remove(pipes[id]);
+        pipes[id] = null;
+        used.clear(id);
+    }
+}
@@ -0,0 +1,142 @@
+package zmq.socket.pubsub;
+
+import java.nio.ByteBuffer;
+
+import zmq.Msg;
+import zmq.pipe.Pipe;
+import zmq.util.Utils;
+
+//  Trie with compressed paths, counting the subscriptions to each key.
+class CompactTrie implements ITrie
+{
+    private final RadixNode root = new RadixNode(new byte[0]);
+
+    @Override
+    public boolean add(Msg msg, int start, int size)
+    {
+        RadixNode node = root.insert(msg, start, size);
+        return ++node.refcnt == 1;
+    }
+
+    @Override
+    public boolean rm(Msg msg, int start, int size)
+    {
+        return rmHelper(root, msg, start, start + size);
+    }
+
+    private boolean rmHelper(RadixNode node, Msg msg, int pos, int end)
+    {
+        if (pos == end) {
+            if (node.refcnt == 0) {
+                return false;
+            }
+            return --node.refcnt == 0;
+        }
+
+        assert (msg != null);
+        RadixNode child = node.child(msg.get(pos));
+        if (child == null || !child.prefixOf(msg, pos, end)) {
+            return false;
+        }
+        boolean ret = rmHelper(child, msg, pos + child.edge.length, end);
+        node.compact(child);
+        return ret;
+    }
+
+    @Override
+    public boolean check(ByteBuffer data)
+    {
+        assert (data != null);
+        int size = data.limit();
+        RadixNode current = root;
+        int idx = 0;
+        while (true) {
+            //  We've found a corresponding subscription!
+            if (current.refcnt > 0) {
+                return true;
+            }
+
+            //  We've checked all the data and haven't found matching subscription.
+            if (idx == size) {
+                return false;
+            }
+
+            current = current.child(data.get(idx));
+            if (current == null || !current.prefixOf(data, idx, size)) {
+                return false;
+            }
+            idx += current.edge.length;
+        }
+    }
+
+    @Override
+    public void apply(ITrieHandler func, Pipe arg)
+    {
+        assert (func != null);
+        assert (arg != null);
+        applyHelper(root, new byte[256], 0, func, arg, false);
+    }
+
+    @Override
+    public void applyShortest(Msg msg, int start, int size, ITrieHandler func, Pipe arg)
+    {
+        assert (func != null);
+        //  Find the node of the key, or the first one below it if the key ends
+        //  in the middle of an edge.
+        RadixNode node = root;
+        int pos = start;
+        int end = start + size;
+        while (pos < end) {
+            RadixNode child = node.child(msg.get(pos));
+            if (child == null) {
+                return;
+            }
+            int len = Math.min(child.edge.length, end - pos);
+            for (int idx = 1; idx < len; ++idx) {
+                if (child.edge[idx] != msg.get(pos + idx)) {
+                    return;
+                }
+            }
+            pos += child.edge.length;
+            node = child;
+        }
+        int buffsize = pos - start;
+        byte[] buff = new byte[buffsize + 256];
+        if (size > 0) {
+            msg.getBytes(start, buff, 0, size);
+        }
+        System.arraycopy(node.edge, node.edge.length - (pos - end), buff, size, pos - end);
+        applyHelper(node, buff, buffsize, func, arg, true);
+    }
+
+    private byte[] applyHelper(RadixNode node, byte[] buff, int buffsize, ITrieHandler func, Pipe pipe,
+                               boolean shortest)
+    {
+        //  If this node is a subscription, apply the function.
+        if (node.refcnt > 0) {
+            func.added(buff, buffsize, pipe);
+            if (shortest) {
+                return buff;
+            }
+        }
+
+        for (RadixNode child : node.children) {
+            if (child == null) {
+                continue;
+            }
+            int size = buffsize + child.edge.length;
+            if (size > buff.length) {
+                buff = Utils.realloc(buff, size + 256);
+            }
+            System.arraycopy(child.edge, 0, buff, buffsize, child.edge.length);
+            buff = applyHelper(child, buff, size, func, pipe, shortest);
+        }
+        return buff;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return root.refcnt == 0 && root.size == 0;
+    }
+}
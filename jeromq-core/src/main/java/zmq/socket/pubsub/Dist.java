@@ -1,16 +1,13 @@
 package zmq.socket.pubsub;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 import zmq.Msg;
 import zmq.pipe.Pipe;
+import zmq.pipe.PipeArray;
 
 public class Dist
 {
     //  List of outbound pipes.
-    private final List<Pipe> pipes;
+    private final PipeArray pipes;
 
     //  Number of all the pipes to send the next message to.
     private int matching;
@@ -30,13 +27,21 @@ public class Dist
     //  True if last we are in the middle of a multipart message.
     private boolean more;
 
+    //  If not null, writes to many pipes from several threads.
+    private Fanout fanout;
+
     public Dist()
     {
         matching = 0;
         active = 0;
         eligible = 0;
         more = false;
-        pipes = new ArrayList<>();
+        pipes = new PipeArray(PipeArray.OUTBOUND);
+    }
+
+    void setFanout(Fanout fanout)
+    {
+        this.fanout = fanout;
     }
 
     //  Adds the pipe to the distributor object.
@@ -47,11 +52,11 @@ public class Dist
         //  of active pipes.
         if (more) {
             pipes.add(pipe);
-            Collections.swap(pipes, eligible, pipes.size() - 1);
+            pipes.swap(eligible, pipes.size() - 1);
         }
         else {
             pipes.add(pipe);
-            Collections.swap(pipes, active, pipes.size() - 1);
+            pipes.swap(active, pipes.size() - 1);
             active++;
         }
         eligible++;
@@ -73,7 +78,7 @@ public class Dist
         }
 
         //  Mark the pipe as matching.
-        Collections.swap(pipes, idx, matching);
+        pipes.swap(idx, matching);
         matching++;
     }
 
@@ -89,15 +94,15 @@ public class Dist
         //  Remove the pipe from the list; adjust number of matching, active and/or
         //  eligible pipes accordingly.
         if (pipes.indexOf(pipe) < matching) {
-            Collections.swap(pipes, pipes.indexOf(pipe), matching - 1);
+            pipes.swap(pipes.indexOf(pipe), matching - 1);
             matching--;
         }
         if (pipes.indexOf(pipe) < active) {
-            Collections.swap(pipes, pipes.indexOf(pipe), active - 1);
+            pipes.swap(pipes.indexOf(pipe), active - 1);
             active--;
         }
         if (pipes.indexOf(pipe) < eligible) {
-            Collections.swap(pipes, pipes.indexOf(pipe), eligible - 1);
+            pipes.swap(pipes.indexOf(pipe), eligible - 1);
             eligible--;
         }
         pipes.remove(pipe);
@@ -108,14 +113,14 @@ public class Dist
     {
         //  Move the pipe from passive to eligible state.
         if (eligible < pipes.size()) {
-            Collections.swap(pipes, pipes.indexOf(pipe), eligible);
+            pipes.swap(pipes.indexOf(pipe), eligible);
             eligible++;
         }
 
         //  If there's no message being sent at the moment, move it to
         //  the active state.
         if (!more && active < pipes.size()) {
-            Collections.swap(pipes, eligible - 1, active);
+            pipes.swap(eligible - 1, active);
             active++;
         }
     }
@@ -156,6 +161,19 @@ public class Dist
 
         // TODO isVsm
 
+        //  Each pipe holds a reference to the data of the message.
+        msg.addRefs(matching - 1);
+
+        //  Wide enough, the matching pipes are written by several threads.
+        if (fanout != null && fanout.write(pipes, matching, msg)) {
+            for (int shard = 0; shard < fanout.shards(); ++shard) {
+                for (int idx = 0; idx < fanout.failures(shard); ++idx) {
+                    deactivate(fanout.failed(shard, idx));
+                }
+            }
+            return;
+        }
+
         //  Push copy of the message to each matching pipe.
         for (int idx = 0; idx < matching; ++idx) {
             if (!write(pipes.get(idx), msg)) {
@@ -174,12 +192,7 @@ public class Dist
     private boolean write(Pipe pipe, Msg msg)
     {
         if (!pipe.write(msg)) {
-            Collections.swap(pipes, pipes.indexOf(pipe), matching - 1);
-            matching--;
-            Collections.swap(pipes, pipes.indexOf(pipe), active - 1);
-            active--;
-            Collections.swap(pipes, active, eligible - 1);
-            eligible--;
+            deactivate(pipe);
             return false;
         }
         if (!msg.hasMore()) {
@@ -188,6 +201,17 @@ public class Dist
         return true;
     }
 
+    //  Removes the pipe that reached its high watermark from the matching and active ones.
+    private void deactivate(Pipe pipe)
+    {
+        pipes.swap(pipes.indexOf(pipe), matching - 1);
+        matching--;
+        pipes.swap(pipes.indexOf(pipe), active - 1);
+        active--;
+        pipes.swap(active, eligible - 1);
+        eligible--;
+    }
+
     public boolean checkHwm()
     {
         for (int idx = 0; idx < matching; ++idx) {
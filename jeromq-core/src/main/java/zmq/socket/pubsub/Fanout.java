@@ -0,0 +1,204 @@
+package zmq.socket.pubsub;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import zmq.Msg;
+import zmq.pipe.Pipe;
+import zmq.pipe.PipeArray;
+import zmq.util.function.BiFunction;
+
+//  Writes a message to many pipes from several threads. The pipes are split
+//  in shards, the socket thread writes the first one while worker threads
+//  write the others, and the socket thread waits for all of them before
+//  going on. As the socket thread does nothing else meanwhile, each pipe
+//  still has a single writer at any time.
+//  The pipes that could not be written are collected, so that the socket
+//  thread can deactivate them once all the shards are written.
+final class Fanout
+{
+    //  Minimum number of pipes of a shard, below which handing the shard
+    //  over to a worker costs more than writing it.
+    static final int MIN_SHARD = 512;
+
+    private final class Shard implements Runnable
+    {
+        private final int index;
+
+        //  Pipes of the shard that could not be written.
+        private Pipe[] failed = new Pipe[16];
+        private int    failures;
+
+        private Shard(int index)
+        {
+            this.index = index;
+        }
+
+        @Override
+        public void run()
+        {
+            Round seen = null;
+            while (true) {
+                Round current;
+                while ((current = round) == seen || current == null) {
+                    LockSupport.park(this);
+                }
+                seen = current;
+                if (current == CLOSED) {
+                    return;
+                }
+                //  A worker may wake up late, the round tells if it takes part in it.
+                if (index < current.shards) {
+                    try {
+                        write(current);
+                    }
+                    catch (RuntimeException | Error e) {
+                        error = e;
+                    }
+                    if (pending.decrementAndGet() == 0) {
+                        LockSupport.unpark(current.caller);
+                    }
+                }
+            }
+        }
+
+        private void write(Round round)
+        {
+            int from = (int) ((long) round.count * index / round.shards);
+            int to = (int) ((long) round.count * (index + 1) / round.shards);
+            boolean flush = !round.msg.hasMore();
+            failures = 0;
+            for (int idx = from; idx < to; ++idx) {
+                Pipe pipe = round.pipes.get(idx);
+                if (!pipe.write(round.msg)) {
+                    if (failures == failed.length) {
+                        failed = Arrays.copyOf(failed, failures * 2);
+                    }
+                    failed[failures++] = pipe;
+                }
+                else if (flush) {
+                    pipe.flush();
+                }
+            }
+        }
+    }
+
+    //  What is written during a round, published at once to the workers.
+    private static final class Round
+    {
+        private final PipeArray pipes;
+        private final int       count;
+        private final Msg       msg;
+        private final int       shards;
+        private final Thread    caller;
+
+        private Round(PipeArray pipes, int count, Msg msg, int shards, Thread caller)
+        {
+            this.pipes = pipes;
+            this.count = count;
+            this.msg = msg;
+            this.shards = shards;
+            this.caller = caller;
+        }
+    }
+
+    //  Published to stop the workers.
+    private static final Round CLOSED = new Round(null, 0, null, 0, null);
+
+    private final Shard[]  workers;
+    private final Thread[] threads;
+    private final Shard    own = new Shard(0);
+
+    //  Set by the socket thread to start a round, and cleared once it is over.
+    //  The workers only read what a round holds once they see it.
+    private volatile Round round;
+
+    //  Number of shards of the last round.
+    private int shards;
+
+    //  Number of workers still writing their shard.
+    private final AtomicInteger pending = new AtomicInteger();
+
+    //  Failure of a worker, rethrown in the socket thread.
+    private volatile Throwable error;
+
+    Fanout(int threads, BiFunction<Runnable, String, Thread> factory, String name)
+    {
+        assert (threads > 1);
+        this.workers = new Shard[threads - 1];
+        this.threads = new Thread[threads - 1];
+        for (int idx = 0; idx < workers.length; ++idx) {
+            workers[idx] = new Shard(idx + 1);
+            this.threads[idx] = factory.apply(workers[idx], name + "-" + (idx + 1));
+            this.threads[idx].start();
+        }
+    }
+
+    //  Writes the message to the first pipes of the array and returns true,
+    //  or returns false without writing anything if they are too few to be
+    //  worth sharing between threads.
+    boolean write(PipeArray pipes, int count, Msg msg)
+    {
+        int shards = Math.min(workers.length + 1, count / MIN_SHARD);
+        if (shards < 2) {
+            return false;
+        }
+        Round current = new Round(pipes, count, msg, shards, Thread.currentThread());
+        this.shards = shards;
+        pending.set(shards - 1);
+        round = current;
+        for (int idx = 0; idx < shards - 1; ++idx) {
+            LockSupport.unpark(threads[idx]);
+        }
+
+        try {
+            own.write(current);
+        }
+        finally {
+            while (pending.get() != 0) {
+                LockSupport.park(this);
+            }
+            round = null;
+        }
+
+        Throwable failure = error;
+        if (failure != null) {
+            error = null;
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw (RuntimeException) failure;
+        }
+        return true;
+    }
+
+    //  Number of pipes of the shard that could not be written during the last round.
+    int failures(int shard)
+    {
+        return shard(shard).failures;
+    }
+
+    Pipe failed(int shard, int idx)
+    {
+        return shard(shard).failed[idx];
+    }
+
+    int shards()
+    {
+        return shards;
+    }
+
+    private Shard shard(int index)
+    {
+        return index == 0 ? own : workers[index - 1];
+    }
+
+    void close()
+    {
+        round = CLOSED;
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package zmq.socket.pubsub;
+
+import java.nio.ByteBuffer;
+
+import zmq.Msg;
+import zmq.pipe.Pipe;
+
+//  Subscriptions of the pipes of an XPUB socket.
+interface IMtrie
+{
+    interface IMtrieHandler
+    {
+        void invoke(Pipe pipe, byte[] data, int size, XPub arg);
+    }
+
+    //  Subscribe the pipe to all the messages.
+    boolean addOnTop(Pipe pipe);
+
+    //  Add key to the trie. Returns true if it's a new subscription
+    //  rather than a duplicate.
+    boolean add(Msg msg, Pipe pipe);
+
+    //  Remove all subscriptions for a specific peer from the trie.
+    //  If there are no subscriptions left on some topics, invoke the
+    //  supplied callback function.
+    boolean rm(Pipe pipe, IMtrieHandler func, XPub pub);
+
+    //  Remove specific subscription from the trie. Return true is it was
+    //  actually removed rather than de-duplicated.
+    boolean rm(Msg msg, Pipe pipe);
+
+    //  Signal all the matching pipes.
+    void match(ByteBuffer data, int size, IMtrieHandler func, XPub pub);
+
+    //  Mark all the matching pipes in the distributor. This is done for each
+    //  published message, so it reads the message in place and does not allocate.
+    void match(Msg msg, Dist dist);
+
+    boolean isEmpty();
+}
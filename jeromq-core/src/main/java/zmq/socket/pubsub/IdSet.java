@@ -0,0 +1,87 @@
+package zmq.socket.pubsub;
+
+import java.util.Arrays;
+
+//  Set of small non-negative integers. It is kept as a sorted array while sparse,
+//  and switched to a bitmap as soon as the bitmap is not larger than the array.
+final class IdSet
+{
+    //  Sorted members, only used while the bitmap is null.
+    int[]  ids = new int[2];
+    long[] bits;
+    int    count;
+
+    //  Returns true if the identifier was not yet in the set.
+    boolean add(int id)
+    {
+        assert (id >= 0) : id;
+        if (bits != null) {
+            int word = id >>> 6;
+            if (word >= bits.length) {
+                bits = Arrays.copyOf(bits, word + 1);
+            }
+            long mask = 1L << id;
+            if ((bits[word] & mask) != 0) {
+                return false;
+            }
+            bits[word] |= mask;
+            count++;
+            return true;
+        }
+
+        int pos = Arrays.binarySearch(ids, 0, count, id);
+        if (pos >= 0) {
+            return false;
+        }
+        pos = -pos - 1;
+        if (count == ids.length) {
+            int words = (Math.max(id, ids[count - 1]) >>> 6) + 1;
+            if (words * 2 <= count) {
+                toBits(words);
+                return add(id);
+            }
+            ids = Arrays.copyOf(ids, count * 2);
+        }
+        System.arraycopy(ids, pos, ids, pos + 1, count - pos);
+        ids[pos] = id;
+        count++;
+        return true;
+    }
+
+    //  Returns true if the identifier was in the set.
+    boolean remove(int id)
+    {
+        if (bits != null) {
+            int word = id >>> 6;
+            long mask = 1L << id;
+            if (word >= bits.length || (bits[word] & mask) == 0) {
+                return false;
+            }
+            bits[word] &= ~mask;
+            count--;
+            return true;
+        }
+
+        int pos = Arrays.binarySearch(ids, 0, count, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, count - pos - 1);
+        count--;
+        return true;
+    }
+
+    boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    private void toBits(int words)
+    {
+        bits = new long[words];
+        for (int idx = 0; idx < count; ++idx) {
+            bits[ids[idx] >>> 6] |= 1L << ids[idx];
+        }
+        ids = null;
+    }
+}
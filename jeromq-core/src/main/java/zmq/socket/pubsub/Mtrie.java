@@ -9,7 +9,7 @@ import zmq.pipe.Pipe;
 import zmq.util.Utils;
 
 //Multi-trie. Each node in the trie is a set of pointers to pipes.
-class Mtrie
+class Mtrie implements IMtrie
 {
     private Set<Pipe> pipes;
 
@@ -18,11 +18,6 @@ class Mtrie
     private int     liveNodes;
     private Mtrie[] next;
 
-    public interface IMtrieHandler
-    {
-        void invoke(Pipe pipe, byte[] data, int size, XPub arg);
-    }
-
     public Mtrie()
     {
         min = 0;
@@ -33,7 +28,8 @@ class Mtrie
         next = null;
     }
 
-    final boolean addOnTop(Pipe pipe)
+    @Override
+    public final boolean addOnTop(Pipe pipe)
     {
         assert (pipe != null);
         return addHelper(null, 0, 0, pipe);
@@ -41,6 +37,7 @@ class Mtrie
 
     //  Add key to the trie. Returns true if it's a new subscription
     //  rather than a duplicate.
+    @Override
     public boolean add(Msg msg, Pipe pipe)
     {
         assert (msg != null);
@@ -119,6 +116,7 @@ class Mtrie
     //  Remove all subscriptions for a specific peer from the trie.
     //  If there are no subscriptions left on some topics, invoke the
     //  supplied callback function.
+    @Override
     public boolean rm(Pipe pipe, IMtrieHandler func, XPub pub)
     {
         assert (pipe != null);
@@ -240,6 +238,7 @@ class Mtrie
 
     //  Remove specific subscription from the trie. Return true is it was
     //  actually removed rather than de-duplicated.
+    @Override
     public boolean rm(Msg msg, Pipe pipe)
     {
         assert (msg != null);
@@ -337,6 +336,7 @@ class Mtrie
     }
 
     //  Signal all the matching pipes.
+    @Override
     public void match(ByteBuffer data, int size, IMtrieHandler func, XPub pub)
     {
         assert (data != null);
@@ -388,6 +388,47 @@ class Mtrie
         }
     }
 
+    @Override
+    public void match(Msg msg, Dist dist)
+    {
+        assert (msg != null);
+        assert (dist != null);
+        Mtrie current = this;
+        int size = msg.size();
+        int idx = 0;
+
+        while (true) {
+            //  Mark the pipes attached to this node.
+            if (current.pipes != null) {
+                for (Pipe it : current.pipes) {
+                    dist.match(it);
+                }
+            }
+
+            //  If we are at the end of the message, or there are no subnodes
+            //  in the trie, there's nothing more to match.
+            if (idx == size || current.count == 0) {
+                break;
+            }
+
+            byte c = msg.get(idx);
+            if (c < current.min || c >= current.min + current.count) {
+                break;
+            }
+            current = current.count == 1 ? current.next[0] : current.next[c - current.min];
+            if (current == null) {
+                break;
+            }
+            idx++;
+        }
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return isRedundant();
+    }
+
     private boolean isRedundant()
     {
         return pipes == null && liveNodes == 0;
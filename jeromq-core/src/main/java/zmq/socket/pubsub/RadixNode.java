@@ -0,0 +1,253 @@
+package zmq.socket.pubsub;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import zmq.Msg;
+
+//  Node of a radix tree with compressed paths, used by the compact tries.
+//  The key of a node is the concatenation of the edges from the root down to it.
+//  Apart from the root, a node either holds a value or has at least two children.
+//  The children are looked up in a small array, replaced with a table indexed by
+//  the first byte of their edge once they are too many to be scanned.
+final class RadixNode
+{
+    private static final byte[]      NO_KEYS     = new byte[0];
+    private static final RadixNode[] NO_CHILDREN = new RadixNode[0];
+
+    //  Maximum number of children scanned before switching to a table.
+    private static final int MAX_SCANNED = 16;
+
+    //  Edges of a single byte, shared as edges are never modified in place.
+    private static final byte[][] SINGLE_BYTES = new byte[256][];
+
+    static {
+        for (int idx = 0; idx < SINGLE_BYTES.length; ++idx) {
+            SINGLE_BYTES[idx] = new byte[] { (byte) idx };
+        }
+    }
+
+    //  Bytes leading from the parent to this node. The first one selects the node in its parent.
+    byte[] edge;
+
+    //  Number of subscriptions to the key of this node, for the trie of XSUB.
+    int refcnt;
+
+    //  Identifiers of the pipes subscribed to the key of this node, for the multi-trie of XPUB.
+    IdSet pipes;
+
+    //  Number of children.
+    int size;
+
+    //  First byte of the edge of each child, or null once the children are in a table.
+    private byte[] keys = NO_KEYS;
+
+    //  Children, either in the same order as the keys or indexed by their first byte.
+    //  The removed slots are cleared, so that it can be iterated by skipping the null slots.
+    RadixNode[] children = NO_CHILDREN;
+
+    RadixNode(byte[] edge)
+    {
+        this.edge = edge;
+    }
+
+    boolean hasValue()
+    {
+        return refcnt > 0 || pipes != null;
+    }
+
+    RadixNode child(byte c)
+    {
+        if (keys == null) {
+            return children[c & 0xff];
+        }
+        for (int idx = 0; idx < size; ++idx) {
+            if (keys[idx] == c) {
+                return children[idx];
+            }
+        }
+        return null;
+    }
+
+    //  Returns the node with the given key, creating it and splitting edges if needed.
+    RadixNode insert(Msg msg, int start, int size)
+    {
+        RadixNode node = this;
+        int pos = start;
+        int end = start + size;
+        while (pos < end) {
+            byte c = msg.get(pos);
+            RadixNode child = node.child(c);
+            if (child == null) {
+                byte[] edge;
+                if (end - pos == 1) {
+                    edge = SINGLE_BYTES[c & 0xff];
+                }
+                else {
+                    edge = new byte[end - pos];
+                    msg.getBytes(pos, edge, 0, edge.length);
+                }
+                child = new RadixNode(edge);
+                node.add(child);
+                return child;
+            }
+            byte[] edge = child.edge;
+            int len = 1;
+            while (len < edge.length && pos + len < end && edge[len] == msg.get(pos + len)) {
+                ++len;
+            }
+            if (len < edge.length) {
+                //  The key leaves the edge midway, insert a node at the fork.
+                RadixNode fork = new RadixNode(slice(edge, 0, len));
+                child.edge = slice(edge, len, edge.length);
+                fork.add(child);
+                node.replace(fork);
+                child = fork;
+            }
+            pos += len;
+            node = child;
+        }
+        return node;
+    }
+
+    private static byte[] slice(byte[] edge, int from, int to)
+    {
+        if (to - from == 1) {
+            return SINGLE_BYTES[edge[from] & 0xff];
+        }
+        return Arrays.copyOfRange(edge, from, to);
+    }
+
+    //  Checks that the edge is the beginning of the given range of bytes.
+    boolean prefixOf(Msg msg, int pos, int end)
+    {
+        if (end - pos < edge.length) {
+            return false;
+        }
+        for (int idx = 1; idx < edge.length; ++idx) {
+            if (edge[idx] != msg.get(pos + idx)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //  Checks that the edge is the beginning of the given range of bytes.
+    boolean prefixOf(ByteBuffer data, int pos, int end)
+    {
+        if (end - pos < edge.length) {
+            return false;
+        }
+        for (int idx = 1; idx < edge.length; ++idx) {
+            if (edge[idx] != data.get(pos + idx)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //  Restores the shape of the tree after the value or the children of a child changed:
+    //  the child is pruned if it became useless, or merged with its only remaining child.
+    void compact(RadixNode child)
+    {
+        if (child.hasValue()) {
+            return;
+        }
+        if (child.size == 0) {
+            remove(child);
+        }
+        else if (child.size == 1) {
+            child.absorbChild();
+        }
+    }
+
+    private void absorbChild()
+    {
+        RadixNode only = null;
+        for (RadixNode child : children) {
+            if (child != null) {
+                only = child;
+                break;
+            }
+        }
+        assert (only != null);
+        byte[] merged = Arrays.copyOf(edge, edge.length + only.edge.length);
+        System.arraycopy(only.edge, 0, merged, edge.length, only.edge.length);
+        edge = merged;
+        refcnt = only.refcnt;
+        pipes = only.pipes;
+        size = only.size;
+        keys = only.keys;
+        children = only.children;
+    }
+
+    private void add(RadixNode child)
+    {
+        byte c = child.edge[0];
+        if (keys == null) {
+            assert (children[c & 0xff] == null);
+            children[c & 0xff] = child;
+            size++;
+            return;
+        }
+        if (size == keys.length) {
+            if (size == MAX_SCANNED) {
+                RadixNode[] table = new RadixNode[256];
+                for (int idx = 0; idx < size; ++idx) {
+                    table[keys[idx] & 0xff] = children[idx];
+                }
+                keys = null;
+                children = table;
+                add(child);
+                return;
+            }
+            int capacity = size == 0 ? 2 : size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            children = Arrays.copyOf(children, capacity);
+        }
+        keys[size] = c;
+        children[size] = child;
+        size++;
+    }
+
+    //  Replaces the child starting with the same byte.
+    private void replace(RadixNode child)
+    {
+        byte c = child.edge[0];
+        if (keys == null) {
+            children[c & 0xff] = child;
+            return;
+        }
+        for (int idx = 0; idx < size; ++idx) {
+            if (keys[idx] == c) {
+                children[idx] = child;
+                return;
+            }
+        }
+        assert (false) : c;
+    }
+
+    //  When scanned, the last child takes the place of the removed one. Iterating over the
+    //  children from the last one allows to remove the current child without skipping any.
+    private void remove(RadixNode child)
+    {
+        byte c = child.edge[0];
+        if (keys == null) {
+            assert (children[c & 0xff] == child);
+            children[c & 0xff] = null;
+        }
+        else {
+            int idx = 0;
+            while (keys[idx] != c) {
+                ++idx;
+            }
+            keys[idx] = keys[size - 1];
+            children[idx] = children[size - 1];
+            children[size - 1] = null;
+        }
+        if (--size == 0) {
+            keys = NO_KEYS;
+            children = NO_CHILDREN;
+        }
+    }
+}
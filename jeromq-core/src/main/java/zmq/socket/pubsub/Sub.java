@@ -23,8 +23,7 @@ public class Sub extends XSub
     public boolean xsetsockopt(int option, Object optval)
     {
         if (option != ZMQ.ZMQ_SUBSCRIBE && option != ZMQ.ZMQ_UNSUBSCRIBE) {
-            errno.set(ZError.EINVAL);
-            return false;
+            return super.xsetsockopt(option, optval);
         }
 
         if (optval == null) {
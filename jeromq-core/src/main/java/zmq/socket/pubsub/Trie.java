@@ -6,13 +6,8 @@ import zmq.Msg;
 import zmq.pipe.Pipe;
 import zmq.util.Utils;
 
-class Trie
+class Trie implements ITrie
 {
-    public interface ITrieHandler
-    {
-        void added(byte[] data, int size, Pipe arg);
-    }
-
     private int refcnt;
 
     private byte min;
@@ -33,6 +28,7 @@ class Trie
 
     //  Add key to the trie. Returns true if this is a new item in the trie
     //  rather than a duplicate.
+    @Override
     public boolean add(Msg msg, int start, int size)
     {
         //  We are at the node corresponding to the prefix. We are done.
@@ -101,6 +97,7 @@ class Trie
 
     //  Remove key from the trie. Returns true if the item is actually
     //  removed from the trie.
+    @Override
     public boolean rm(Msg msg, int start, int size)
     {
         //  TODO: Shouldn't an error be reported if the key does not exist?
@@ -214,6 +211,7 @@ class Trie
     }
 
     //  Check whether particular key is in the trie.
+    @Override
     public boolean check(ByteBuffer data)
     {
         assert (data != null);
@@ -256,18 +254,45 @@ class Trie
     }
 
     //  Apply the function supplied to each subscription in the trie.
+    @Override
     public void apply(ITrieHandler func, Pipe arg)
     {
-        applyHelper(null, 0, 0, func, arg);
+        assert (arg != null);
+        applyHelper(null, 0, 0, func, arg, false);
+    }
+
+    @Override
+    public void applyShortest(Msg msg, int start, int size, ITrieHandler func, Pipe arg)
+    {
+        //  Find the node of the key.
+        Trie current = this;
+        for (int idx = 0; idx < size; ++idx) {
+            byte c = msg.get(start + idx);
+            if (c < current.min || c >= current.min + current.count) {
+                return;
+            }
+            current = current.count == 1 ? current.next[0] : current.next[c - current.min];
+            if (current == null) {
+                return;
+            }
+        }
+        byte[] buff = new byte[size + 256];
+        if (size > 0) {
+            msg.getBytes(start, buff, 0, size);
+        }
+        current.applyHelper(buff, size, buff.length, func, arg, true);
     }
 
-    private void applyHelper(byte[] buff, int buffsize, int maxBuffsize, ITrieHandler func, Pipe pipe)
+    private void applyHelper(byte[] buff, int buffsize, int maxBuffsize, ITrieHandler func, Pipe pipe,
+                             boolean shortest)
     {
         assert (func != null);
-        assert (pipe != null);
         //  If this node is a subscription, apply the function.
         if (refcnt > 0) {
             func.added(buff, buffsize, pipe);
+            if (shortest) {
+                return;
+            }
         }
 
         //  Adjust the buffer.
@@ -287,7 +312,7 @@ class Trie
         if (count == 1) {
             buff[buffsize] = min;
             buffsize++;
-            next[0].applyHelper(buff, buffsize, maxBuffsize, func, pipe);
+            next[0].applyHelper(buff, buffsize, maxBuffsize, func, pipe, shortest);
             return;
         }
 
@@ -295,11 +320,17 @@ class Trie
         for (int c = 0; c != count; c++) {
             buff[buffsize] = (byte) (min + c);
             if (next[c] != null) {
-                next[c].applyHelper(buff, buffsize + 1, maxBuffsize, func, pipe);
+                next[c].applyHelper(buff, buffsize + 1, maxBuffsize, func, pipe, shortest);
             }
         }
     }
 
+    @Override
+    public boolean isEmpty()
+    {
+        return isRedundant();
+    }
+
     private boolean isRedundant()
     {
         return refcnt == 0 && liveNodes == 0;
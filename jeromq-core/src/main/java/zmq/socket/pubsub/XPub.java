@@ -10,7 +10,7 @@ import zmq.SocketBase;
 import zmq.ZError;
 import zmq.ZMQ;
 import zmq.pipe.Pipe;
-import zmq.socket.pubsub.Mtrie.IMtrieHandler;
+import zmq.socket.pubsub.IMtrie.IMtrieHandler;
 import zmq.util.Blob;
 
 public class XPub extends SocketBase
@@ -24,24 +24,18 @@ public class XPub extends SocketBase
         }
     }
 
-    private static final class MarkAsMatching implements IMtrieHandler
-    {
-        @Override
-        public void invoke(Pipe pipe, byte[] data, int size, XPub self)
-        {
-            self.markAsMatching(pipe);
-        }
-    }
-
     //  List of all subscriptions mapped to corresponding pipes.
-    private final Mtrie subscriptions;
+    private IMtrie subscriptions;
 
     //  List of manual subscriptions mapped to corresponding pipes.
-    private final Mtrie manualSubscriptions;
+    private IMtrie manualSubscriptions;
 
     //  Distributor of messages holding the list of outbound pipes.
     private final Dist dist;
 
+    //  Threads helping the distributor to write to many pipes, if any.
+    private Fanout fanout;
+
     // If true, send all subscription messages upstream, not just
     // unique ones
     private boolean verboseSubs;
@@ -62,6 +56,10 @@ public class XPub extends SocketBase
     //  Last pipe that sent subscription message, only used if xpub is on manual
     private Pipe lastPipe;
 
+    //  Messages are only sent to the last pipe that sent a subscription message,
+    //  whatever it subscribed to, only used if xpub is on manual
+    private boolean replay;
+
     // Pipes that sent subscriptions messages that have not yet been processed, only used if xpub is on manual
     private final Deque<Pipe> pendingPipes;
 
@@ -70,7 +68,6 @@ public class XPub extends SocketBase
     private final Deque<Blob>    pendingData;
     private final Deque<Integer> pendingFlags;
 
-    private static final IMtrieHandler markAsMatching     = new MarkAsMatching();
     private static final IMtrieHandler sendUnsubscription = new SendUnsubscription();
 
     public XPub(Ctx parent, int tid, int sid)
@@ -176,7 +173,33 @@ public class XPub extends SocketBase
     @Override
     public boolean xsetsockopt(int option, Object optval)
     {
-        if (option == ZMQ.ZMQ_XPUB_VERBOSE || option == ZMQ.ZMQ_XPUB_VERBOSER
+        if (option == ZMQ.ZMQ_COMPACT_TRIE) {
+            //  The existing subscriptions are not carried over to the new tries.
+            if (!subscriptions.isEmpty() || !manualSubscriptions.isEmpty()) {
+                errno.set(ZError.EFSM);
+                return false;
+            }
+            options.compactTrie = Options.parseBoolean(option, optval);
+            subscriptions = options.compactTrie ? new CompactMtrie() : new Mtrie();
+            manualSubscriptions = options.compactTrie ? new CompactMtrie() : new Mtrie();
+        }
+        else if (option == ZMQ.ZMQ_FANOUT_THREADS) {
+            int threads = (Integer) optval;
+            if (threads < 0) {
+                errno.set(ZError.EINVAL);
+                return false;
+            }
+            options.fanoutThreads = threads;
+            if (fanout != null) {
+                fanout.close();
+                fanout = null;
+            }
+            if (threads > 1) {
+                fanout = new Fanout(threads, getCtx().getThreadFactory(), "fanout-" + options.socketId);
+            }
+            dist.setFanout(fanout);
+        }
+        else if (option == ZMQ.ZMQ_XPUB_VERBOSE || option == ZMQ.ZMQ_XPUB_VERBOSER
                 || option == ZMQ.ZMQ_XPUB_NODROP || option == ZMQ.ZMQ_XPUB_MANUAL) {
             if (option == ZMQ.ZMQ_XPUB_VERBOSE) {
                 verboseSubs = Options.parseBoolean(option, optval);
@@ -193,16 +216,22 @@ public class XPub extends SocketBase
                 manual = Options.parseBoolean(option, optval);
             }
         }
+        else if (option == ZMQ.ZMQ_XPUB_REPLAY) {
+            //  Without manual mode, there is no last pipe to send to.
+            if (!manual) {
+                errno.set(ZError.EFSM);
+                return false;
+            }
+            replay = Options.parseBoolean(option, optval);
+        }
         else if (option == ZMQ.ZMQ_SUBSCRIBE && manual) {
             if (null != lastPipe) {
-                String val = Options.parseString(option, optval);
-                subscriptions.add(new Msg(val.getBytes()), lastPipe);
+                subscriptions.add(new Msg(Options.parseBytes(option, optval)), lastPipe);
             }
         }
         else if (option == ZMQ.ZMQ_UNSUBSCRIBE && manual) {
             if (null != lastPipe) {
-                String val = Options.parseString(option, optval);
-                subscriptions.rm(new Msg(val.getBytes()), lastPipe);
+                subscriptions.rm(new Msg(Options.parseBytes(option, optval)), lastPipe);
             }
         }
         else {
@@ -213,6 +242,15 @@ public class XPub extends SocketBase
         return true;
     }
 
+    @Override
+    protected void destroy()
+    {
+        super.destroy();
+        if (fanout != null) {
+            fanout.close();
+        }
+    }
+
     @Override
     protected void xpipeTerminated(Pipe pipe)
     {
@@ -220,6 +258,10 @@ public class XPub extends SocketBase
             manualSubscriptions.rm(pipe, sendUnsubscription, this);
 
             subscriptions.rm(pipe, (p, d, s, self)-> { }, this);
+
+            if (pipe == lastPipe) {
+                lastPipe = null;
+            }
         }
         else {
             //  Remove the pipe from the trie. If there are topics that nobody
@@ -232,11 +274,6 @@ public class XPub extends SocketBase
         dist.terminated(pipe);
     }
 
-    private void markAsMatching(Pipe pipe)
-    {
-        dist.match(pipe);
-    }
-
     @Override
     protected boolean xsend(Msg msg)
     {
@@ -244,7 +281,14 @@ public class XPub extends SocketBase
 
         //  For the first part of multi-part message, find the matching pipes.
         if (!more) {
-            subscriptions.match(msg.buf(), msg.size(), markAsMatching, this);
+            if (replay) {
+                if (lastPipe != null) {
+                    dist.match(lastPipe);
+                }
+            }
+            else {
+                subscriptions.match(msg, dist);
+            }
         }
 
         if (lossy || dist.checkHwm()) {
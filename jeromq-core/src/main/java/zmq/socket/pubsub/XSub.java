@@ -1,13 +1,18 @@
 package zmq.socket.pubsub;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 import zmq.Ctx;
 import zmq.Msg;
+import zmq.Options;
 import zmq.SocketBase;
 import zmq.ZError;
 import zmq.ZMQ;
 import zmq.pipe.Pipe;
 import zmq.socket.FQ;
-import zmq.socket.pubsub.Trie.ITrieHandler;
+import zmq.socket.pubsub.ITrie.ITrieHandler;
 import zmq.util.Blob;
 
 public class XSub extends SocketBase
@@ -28,7 +33,7 @@ public class XSub extends SocketBase
     private final Dist dist;
 
     //  The repository of subscriptions.
-    private final Trie subscriptions;
+    private ITrie subscriptions;
 
     //  If true, 'message' contains a matching message to return on the
     //  next recv call.
@@ -60,6 +65,32 @@ public class XSub extends SocketBase
         message = new Msg();
     }
 
+    @Override
+    public boolean xsetsockopt(int option, Object optval)
+    {
+        if (option == ZMQ.ZMQ_COMPACT_TRIE) {
+            //  The existing subscriptions are not carried over to the new trie.
+            if (!subscriptions.isEmpty()) {
+                errno.set(ZError.EFSM);
+                return false;
+            }
+            options.compactTrie = Options.parseBoolean(option, optval);
+            subscriptions = options.compactTrie ? new CompactTrie() : new Trie();
+            return true;
+        }
+        if (option == ZMQ.ZMQ_AGGREGATE_SUBSCRIPTIONS) {
+            //  The subscriptions already sent upstream were not aggregated.
+            if (!subscriptions.isEmpty()) {
+                errno.set(ZError.EFSM);
+                return false;
+            }
+            options.aggregateSubscriptions = Options.parseBoolean(option, optval);
+            return true;
+        }
+        errno.set(ZError.EINVAL);
+        return false;
+    }
+
     @Override
     protected void xattachPipe(Pipe pipe, boolean subscribe2all, boolean isLocallyInitiated)
     {
@@ -68,7 +99,7 @@ public class XSub extends SocketBase
         dist.attach(pipe);
 
         //  Send all the cached subscriptions to the new upstream peer.
-        subscriptions.apply(sendSubscription, pipe);
+        sendSubscriptions(pipe);
         pipe.flush();
     }
 
@@ -95,7 +126,7 @@ public class XSub extends SocketBase
     protected void xhiccuped(Pipe pipe)
     {
         //  Send all the cached subscriptions to the hiccuped pipe.
-        subscriptions.apply(sendSubscription, pipe);
+        sendSubscriptions(pipe);
         pipe.flush();
     }
 
@@ -110,12 +141,18 @@ public class XSub extends SocketBase
             //  however this is already done on the XPUB side and
             //  doing it here as well breaks ZMQ_XPUB_VERBOSE
             //  when there are forwarding devices involved.
+            if (options.aggregateSubscriptions) {
+                return aggregateSubscribe(msg, size);
+            }
             subscriptions.add(msg, 1, size - 1);
             return dist.sendToAll(msg);
         }
         else if (size > 0 && msg.get(0) == 0) {
             //  Process unsubscribe message
             if (subscriptions.rm(msg, 1, size - 1)) {
+                if (options.aggregateSubscriptions) {
+                    return aggregateUnsubscribe(msg, size);
+                }
                 return dist.sendToAll(msg);
             }
         }
@@ -229,6 +266,73 @@ public class XSub extends SocketBase
         return subscriptions.check(msg.buf());
     }
 
+    //  Sends the subscription upstream unless a shorter one already covers it.
+    //  The subscriptions it covers from now on are withdrawn afterwards, so that
+    //  the publishers never miss a message.
+    private boolean aggregateSubscribe(Msg msg, int size)
+    {
+        if (covered(msg)) {
+            subscriptions.add(msg, 1, size - 1);
+            return true;
+        }
+        List<Msg> covered = shortest(msg, size, 0);
+        subscriptions.add(msg, 1, size - 1);
+
+        boolean rc = dist.sendToAll(msg);
+        for (Msg unsub : covered) {
+            rc &= dist.sendToAll(unsub);
+        }
+        return rc;
+    }
+
+    //  Withdraws the subscription, no longer held by anyone, from upstream
+    //  unless a shorter one covers it. The subscriptions it covered are sent
+    //  upstream beforehand.
+    private boolean aggregateUnsubscribe(Msg msg, int size)
+    {
+        if (covered(msg)) {
+            return true;
+        }
+        boolean rc = true;
+        for (Msg sub : shortest(msg, size, 1)) {
+            rc &= dist.sendToAll(sub);
+        }
+        return rc & dist.sendToAll(msg);
+    }
+
+    //  Checks whether a subscription starts the topic of the (un)subscription message.
+    private boolean covered(Msg msg)
+    {
+        ByteBuffer topic = msg.buf();
+        topic.position(1);
+        return subscriptions.check(topic.slice());
+    }
+
+    //  Returns the (un)subscription messages of the shortest subscriptions
+    //  starting with the topic of the given message.
+    private List<Msg> shortest(Msg msg, int size, int command)
+    {
+        List<Msg> msgs = new ArrayList<>();
+        subscriptions.applyShortest(msg, 1, size - 1, (data, length, pipe) -> {
+            Msg sub = new Msg(length + 1);
+            sub.put((byte) command).put(data, 0, length);
+            msgs.add(sub);
+        }, null);
+        return msgs;
+    }
+
+    //  Sends the cached subscriptions to the pipe, only the shortest ones
+    //  if they are aggregated.
+    private void sendSubscriptions(Pipe pipe)
+    {
+        if (options.aggregateSubscriptions) {
+            subscriptions.applyShortest(null, 0, 0, sendSubscription, pipe);
+        }
+        else {
+            subscriptions.apply(sendSubscription, pipe);
+        }
+    }
+
     private boolean sendSubscription(byte[] data, int size, Pipe pipe)
     {
         //  Create the subscription message.
@@ -228,6 +228,9 @@ public class Dish extends SocketBase
         private State state;
         private String group;
 
+        //  Groups of the received messages, decoded once.
+        private final Groups groups = new Groups();
+
         public DishSession(IOThread ioThread, boolean connect, SocketBase socket, final Options options,
                            final Address addr)
         {
@@ -252,7 +255,7 @@ public class Dish extends SocketBase
                     return false;
                 }
 
-                group = new String(msg.data(), StandardCharsets.US_ASCII);
+                group = groups.name(msg.data(), 0, msg.size());
                 state = State.BODY;
 
                 return true;
@@ -292,7 +295,7 @@ public class Dish extends SocketBase
 
             Msg command;
 
-            byte[] groupBytes = msg.getGroup().getBytes(StandardCharsets.US_ASCII);
+            byte[] groupBytes = groups.bytes(msg.getGroup());
 
             if (msg.isJoin()) {
                 command = new Msg(groupBytes.length + 5);
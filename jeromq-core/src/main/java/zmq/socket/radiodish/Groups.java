@@ -0,0 +1,111 @@
+package zmq.socket.radiodish;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import zmq.Msg;
+
+//  Groups seen by a RADIO or DISH session, each one decoded and encoded once.
+//  Looking up a group by the bytes of a frame or by its name does not allocate,
+//  and always gives back the same name and bytes, whose hash is already known.
+//  The number of groups kept is bounded, so that a peer sending ever new groups
+//  only gets them decoded every time.
+//  this class is not thread-safe.
+final class Groups
+{
+    static final int MAX_GROUPS = 4096;
+
+    private static final class Group
+    {
+        private final byte[] bytes;
+        private final String name;
+        private final int    hash;
+
+        //  Next group in the same bucket.
+        private Group next;
+
+        private Group(byte[] bytes, String name, int hash)
+        {
+            this.bytes = bytes;
+            this.name = name;
+            this.hash = hash;
+        }
+    }
+
+    //  Groups by the hash of their bytes, chained in each bucket.
+    private Group[] buckets = new Group[64];
+
+    //  Groups by name.
+    private final Map<String, Group> names = new HashMap<>();
+
+    //  Returns the group spelled by the given bytes.
+    String name(byte[] data, int offset, int length)
+    {
+        assert (length <= Msg.MAX_GROUP_LENGTH);
+        int end = offset + length;
+        int hash = 1;
+        for (int idx = offset; idx < end; ++idx) {
+            hash = 31 * hash + data[idx];
+        }
+        for (Group group = buckets[hash & (buckets.length - 1)]; group != null; group = group.next) {
+            if (group.hash == hash && Arrays.equals(group.bytes, 0, group.bytes.length, data, offset, end)) {
+                return group.name;
+            }
+        }
+        return add(Arrays.copyOfRange(data, offset, end), hash).name;
+    }
+
+    //  Returns the bytes of the group, which must not be modified.
+    byte[] bytes(String name)
+    {
+        Group group = names.get(name);
+        if (group != null) {
+            return group.bytes;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+        return add(bytes, Arrays.hashCode(bytes)).bytes;
+    }
+
+    int size()
+    {
+        return names.size();
+    }
+
+    private Group add(byte[] bytes, int hash)
+    {
+        Group group = new Group(bytes, new String(bytes, StandardCharsets.US_ASCII), hash);
+        if (names.size() == MAX_GROUPS) {
+            return group;
+        }
+        Group previous = names.putIfAbsent(group.name, group);
+        if (previous != null) {
+            //  Different bytes for the same name, as some are not ASCII.
+            return group;
+        }
+        if (names.size() > buckets.length * 3 / 4) {
+            rehash();
+        }
+        int bucket = hash & (buckets.length - 1);
+        group.next = buckets[bucket];
+        buckets[bucket] = group;
+        return group;
+    }
+
+    private void rehash()
+    {
+        Group[] old = buckets;
+        buckets = new Group[old.length * 2];
+        for (Group head : old) {
+            Group group = head;
+            while (group != null) {
+                Group next = group.next;
+                int bucket = group.hash & (buckets.length - 1);
+                group.next = buckets[bucket];
+                buckets[bucket] = group;
+                group = next;
+            }
+        }
+    }
+}
@@ -13,16 +13,57 @@ import zmq.pipe.Pipe;
 import zmq.socket.pubsub.Dist;
 
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 public class Radio extends SocketBase
 {
-    private final Map<String, List<Pipe>> subscriptions;
+    //  Pipes that joined a group, once for each join. A pipe leaving
+    //  is replaced with the last one.
+    private static final class Members
+    {
+        private Pipe[] pipes = new Pipe[4];
+        private int    size;
+
+        private void add(Pipe pipe)
+        {
+            if (size == pipes.length) {
+                pipes = Arrays.copyOf(pipes, size * 2);
+            }
+            pipes[size++] = pipe;
+        }
+
+        private void remove(Pipe pipe)
+        {
+            for (int idx = 0; idx < size; ++idx) {
+                if (pipes[idx] == pipe) {
+                    pipes[idx] = pipes[--size];
+                    pipes[size] = null;
+                    return;
+                }
+            }
+        }
+
+        private void removeAll(Pipe pipe)
+        {
+            for (int idx = size - 1; idx >= 0; --idx) {
+                if (pipes[idx] == pipe) {
+                    pipes[idx] = pipes[--size];
+                    pipes[size] = null;
+                }
+            }
+        }
+    }
+
+    private final Map<String, Members> subscriptions;
+
+    //  Pipes that receive all the groups, as the transport does not
+    //  forward the joins of the peer.
+    private final Members udpPipes;
+
     private final Dist dist;
 
     public Radio(Ctx parent, int tid, int sid)
@@ -32,6 +73,7 @@ public class Radio extends SocketBase
         options.type = ZMQ.ZMQ_RADIO;
 
         subscriptions = new HashMap<>();
+        udpPipes = new Members();
         dist = new Dist();
     }
 
@@ -42,7 +84,13 @@ public class Radio extends SocketBase
 
         pipe.setNoDelay();
         dist.attach(pipe);
-        xreadActivated(pipe);
+
+        if (subscribe2all) {
+            udpPipes.add(pipe);
+        }
+        else {
+            xreadActivated(pipe);
+        }
     }
 
     @Override
@@ -51,17 +99,13 @@ public class Radio extends SocketBase
         Msg msg = pipe.read();
         while (msg != null) {
             if (msg.isJoin()) {
-                if (! subscriptions.containsKey(msg.getGroup())) {
-                    subscriptions.put(msg.getGroup(), new ArrayList<>());
-                }
-                List<Pipe> pipes = subscriptions.get(msg.getGroup());
-                pipes.add(pipe);
+                subscriptions.computeIfAbsent(msg.getGroup(), group -> new Members()).add(pipe);
             }
             else if (msg.isLeave()) {
-                List<Pipe> pipes = subscriptions.get(msg.getGroup());
-                if (pipes != null) {
-                    pipes.remove(pipe);
-                    if (pipes.isEmpty()) {
+                Members members = subscriptions.get(msg.getGroup());
+                if (members != null) {
+                    members.remove(pipe);
+                    if (members.size == 0) {
                         subscriptions.remove(msg.getGroup());
                     }
                 }
@@ -80,14 +124,15 @@ public class Radio extends SocketBase
     @Override
     public void xpipeTerminated(Pipe pipe)
     {
-        Iterator<Entry<String, List<Pipe>>> i = subscriptions.entrySet().iterator();
+        Iterator<Entry<String, Members>> i = subscriptions.entrySet().iterator();
         while (i.hasNext()) {
-            Entry<String, List<Pipe>> entry = i.next();
-            entry.getValue().remove(pipe);
-            if (entry.getValue().isEmpty()) {
+            Members members = i.next().getValue();
+            members.removeAll(pipe);
+            if (members.size == 0) {
                 i.remove();
             }
         }
+        udpPipes.remove(pipe);
 
         dist.terminated(pipe);
     }
@@ -103,12 +148,15 @@ public class Radio extends SocketBase
 
         dist.unmatch();
 
-        List<Pipe> range = subscriptions.get(msg.getGroup());
-        if (range != null) {
-            for (Pipe pipe : range) {
-                dist.match(pipe);
+        Members members = subscriptions.get(msg.getGroup());
+        if (members != null) {
+            for (int idx = 0; idx < members.size; ++idx) {
+                dist.match(members.pipes[idx]);
             }
         }
+        for (int idx = 0; idx < udpPipes.size; ++idx) {
+            dist.match(udpPipes.pipes[idx]);
+        }
 
         dist.sendToMatching(msg);
 
@@ -141,6 +189,9 @@ public class Radio extends SocketBase
         private State state;
         private Msg pending;
 
+        //  Groups of the sent messages and of the joins, encoded once.
+        private final Groups groups = new Groups();
+
         public RadioSession(IOThread ioThread, boolean connect, SocketBase socket, final Options options,
                             final Address addr)
         {
@@ -163,19 +214,16 @@ public class Radio extends SocketBase
 
                 String commandName = new String(data, 1, commandNameSize, StandardCharsets.US_ASCII);
 
-                int groupLength;
-                String group;
+                int groupOffset;
                 Msg joinLeaveMsg = new Msg();
 
                 // Set the msg type to either JOIN or LEAVE
                 if (commandName.equals("JOIN")) {
-                    groupLength = msg.size() - 5;
-                    group = new String(data, 5, groupLength, StandardCharsets.US_ASCII);
+                    groupOffset = 5;
                     joinLeaveMsg.initJoin();
                 }
                 else if (commandName.equals("LEAVE")) {
-                    groupLength = msg.size() - 6;
-                    group = new String(data, 6, groupLength, StandardCharsets.US_ASCII);
+                    groupOffset = 6;
                     joinLeaveMsg.initLeave();
                 }
                 // If it is not a JOIN or LEAVE just push the message
@@ -183,8 +231,15 @@ public class Radio extends SocketBase
                     return super.pushMsg(msg);
                 }
 
+                //  The group comes from the peer, reject it if too long
+                int groupLength = msg.size() - groupOffset;
+                if (groupLength > Msg.MAX_GROUP_LENGTH) {
+                    errno.set(ZError.EFAULT);
+                    return false;
+                }
+
                 //  Set the group
-                joinLeaveMsg.setGroup(group);
+                joinLeaveMsg.setGroup(groups.name(data, groupOffset, groupLength));
 
                 //  Push the join or leave command
                 msg = joinLeaveMsg;
@@ -207,7 +262,7 @@ public class Radio extends SocketBase
                     }
 
                     //  First frame is the group
-                    msg = new Msg(pending.getGroup().getBytes(StandardCharsets.US_ASCII));
+                    msg = new Msg(groups.bytes(pending.getGroup()));
                     msg.setFlags(Msg.MORE);
 
                     //  Next status is the body
@@ -1,9 +1,7 @@
 package zmq.socket.reqrep;
 
 import java.nio.ByteBuffer;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 import zmq.Ctx;
@@ -15,11 +13,11 @@ import zmq.ZMQ;
 import zmq.pipe.Pipe;
 import zmq.socket.FQ;
 import zmq.util.Blob;
+import zmq.util.BlobMap;
 import zmq.util.Utils;
 import zmq.util.ValueReference;
 import zmq.util.Wire;
 
-//TODO: This class uses O(n) scheduling. Rewrite it to use O(1) algorithm.
 public class Router extends SocketBase
 {
     //  Fair queuing object for inbound pipes.
@@ -57,7 +55,7 @@ public class Router extends SocketBase
     private final Set<Pipe> anonymousPipes;
 
     //  Outbound pipes indexed by the peer IDs.
-    private final Map<Blob, Outpipe> outpipes;
+    private final BlobMap<Outpipe> outpipes;
 
     //  The pipe we are currently writing to.
     private Pipe currentOut;
@@ -108,7 +106,7 @@ public class Router extends SocketBase
         prefetchedMsg = new Msg();
 
         anonymousPipes = new HashSet<>();
-        outpipes = new HashMap<>();
+        outpipes = new BlobMap<>();
     }
 
     @Override
@@ -203,12 +201,15 @@ public class Router extends SocketBase
     @Override
     public void xwriteActivated(Pipe pipe)
     {
-        for (Outpipe out : outpipes.values()) {
-            if (out.pipe == pipe) {
-                assert (!out.active);
-                out.active = true;
-                break;
-            }
+        //  Anonymous pipes have no identity yet, hence no outbound entry.
+        Blob identity = pipe.getIdentity();
+        if (identity == null) {
+            return;
+        }
+        Outpipe out = outpipes.get(identity);
+        if (out != null && out.pipe == pipe) {
+            assert (!out.active);
+            out.active = true;
         }
     }
 
@@ -229,8 +230,8 @@ public class Router extends SocketBase
                 //  Find the pipe associated with the identity stored in the prefix.
                 //  If there's no such pipe just silently ignore the message, unless
                 //  mandatory is set.
-                Blob identity = Blob.createBlob(msg);
-                Outpipe op = outpipes.get(identity);
+                //  The lookup is done on the raw identity, no blob is created.
+                Outpipe op = outpipes.get(msg.data());
 
                 if (op != null) {
                     currentOut = op.pipe;
@@ -0,0 +1,175 @@
+package zmq.util;
+
+import java.util.Arrays;
+
+// custom hash table indexed by blobs, tailored for the lookup of peers by their identity.
+// lookups can be performed with the raw bytes of a message, without creating a blob.
+// open addressing with linear probing, removals shift back the following entries
+// instead of leaving tombstones, so that probe sequences never degrade.
+// this class is definitely not thread-safe and does not accept null keys nor values.
+public final class BlobMap<V>
+{
+    private static final int MIN_CAPACITY = 16;
+
+    private Blob[]   keys;
+    private int[]    hashes;
+    private Object[] values;
+
+    private int size;
+    private int mask;
+
+    public BlobMap()
+    {
+        allocate(MIN_CAPACITY);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public boolean containsKey(Blob key)
+    {
+        return find(key.data()) >= 0;
+    }
+
+    public V get(Blob key)
+    {
+        return get(key.data());
+    }
+
+    public V get(byte[] key)
+    {
+        int index = find(key);
+        return index < 0 ? null : value(index);
+    }
+
+    public V put(Blob key, V value)
+    {
+        assert (key != null);
+        assert (value != null);
+
+        byte[] data = key.data();
+        int hash = hash(data);
+        int index = hash & mask;
+        while (keys[index] != null) {
+            if (hashes[index] == hash && Arrays.equals(keys[index].data(), data)) {
+                V old = value(index);
+                keys[index] = key;
+                values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        hashes[index] = hash;
+        values[index] = value;
+
+        //  Keep the load factor at or below 1/2.
+        if (++size > (mask + 1) >> 1) {
+            resize((mask + 1) << 1);
+        }
+        return null;
+    }
+
+    public V remove(Blob key)
+    {
+        int index = find(key.data());
+        if (index < 0) {
+            return null;
+        }
+        V old = value(index);
+        delete(index);
+        --size;
+        return old;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int find(byte[] key)
+    {
+        int hash = hash(key);
+        int index = hash & mask;
+        Blob candidate;
+        while ((candidate = keys[index]) != null) {
+            if (hashes[index] == hash && Arrays.equals(candidate.data(), key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    //  Empties the slot, then moves back every following entry of the cluster
+    //  that would not be reachable anymore from its home slot.
+    private void delete(int index)
+    {
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != null) {
+            int home = hashes[next] & mask;
+            //  Move the entry if its home slot is not within (hole, next], cyclically.
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                hashes[hole] = hashes[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+    }
+
+    private void resize(int capacity)
+    {
+        Blob[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        Object[] oldValues = values;
+
+        allocate(capacity);
+        for (int idx = 0; idx < oldKeys.length; ++idx) {
+            if (oldKeys[idx] != null) {
+                int index = oldHashes[idx] & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[idx];
+                hashes[index] = oldHashes[idx];
+                values[index] = oldValues[idx];
+            }
+        }
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new Blob[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int index)
+    {
+        return (V) values[index];
+    }
+
+    //  Same hash as the blob one, spread so that the low bits used for indexing
+    //  depend on every byte of the identity.
+    private static int hash(byte[] data)
+    {
+        int hash = Arrays.hashCode(data) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
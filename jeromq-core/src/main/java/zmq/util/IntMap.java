@@ -0,0 +1,154 @@
+package zmq.util;
+
+import java.util.Arrays;
+
+// custom hash table indexed by primitive ints, tailored for the lookup of peers by their routing id.
+// open addressing with linear probing, removals shift back the following entries
+// instead of leaving tombstones, so that probe sequences never degrade.
+// this class is definitely not thread-safe and does not accept null values.
+public final class IntMap<V>
+{
+    private static final int MIN_CAPACITY = 16;
+
+    private int[]    keys;
+    private Object[] values;
+
+    private int size;
+    private int mask;
+
+    public IntMap()
+    {
+        allocate(MIN_CAPACITY);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key)
+    {
+        return find(key) >= 0;
+    }
+
+    public V get(int key)
+    {
+        int index = find(key);
+        return index < 0 ? null : value(index);
+    }
+
+    public V put(int key, V value)
+    {
+        assert (value != null);
+
+        int index = hash(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                V old = value(index);
+                values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+
+        //  Keep the load factor at or below 1/2.
+        if (++size > (mask + 1) >> 1) {
+            resize((mask + 1) << 1);
+        }
+        return null;
+    }
+
+    public V remove(int key)
+    {
+        int index = find(key);
+        if (index < 0) {
+            return null;
+        }
+        V old = value(index);
+        delete(index);
+        --size;
+        return old;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int find(int key)
+    {
+        int index = hash(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    //  Empties the slot, then moves back every following entry of the cluster
+    //  that would not be reachable anymore from its home slot.
+    private void delete(int index)
+    {
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys[next]) & mask;
+            //  Move the entry if its home slot is not within (hole, next], cyclically.
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = null;
+    }
+
+    private void resize(int capacity)
+    {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        allocate(capacity);
+        for (int idx = 0; idx < oldKeys.length; ++idx) {
+            if (oldValues[idx] != null) {
+                int index = hash(oldKeys[idx]) & mask;
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[idx];
+                values[index] = oldValues[idx];
+            }
+        }
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int index)
+    {
+        return (V) values[index];
+    }
+
+    //  Fibonacci hashing, sequential keys end up spread over the whole table.
+    private static int hash(int key)
+    {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
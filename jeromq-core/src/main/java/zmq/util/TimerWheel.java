@@ -0,0 +1,212 @@
+package zmq.util;
+
+// Hashed timing wheel, with one slot per millisecond.
+// Each slot holds a doubly linked list of the timeouts whose deadline falls in it,
+// whatever the number of rotations ahead, so adding and cancelling a timeout are O(1).
+// The earliest deadline is cached, and only searched again once the timeout
+// holding it is gone, so the expiration of due timeouts is cheap as well.
+// this class is definitely not thread-safe.
+public final class TimerWheel<T>
+{
+    public static final class Timeout<T>
+    {
+        private final T value;
+        private long    deadline;
+
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private boolean    scheduled;
+
+        private Timeout(T value)
+        {
+            this.value = value;
+        }
+
+        public T value()
+        {
+            return value;
+        }
+
+        public long deadline()
+        {
+            return deadline;
+        }
+
+        public boolean isScheduled()
+        {
+            return scheduled;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Timeout [deadline=" + deadline + ", value=" + value + "]";
+        }
+    }
+
+    private final Timeout<T>[] heads;
+    private final Timeout<T>[] tails;
+    private final int          mask;
+
+    private int size;
+
+    // lower bound of the deadlines of all the scheduled timeouts
+    private long    earliest = Long.MAX_VALUE;
+    // true if the lower bound is the deadline of a scheduled timeout
+    private boolean exact    = true;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(int slots)
+    {
+        Utils.checkArgument(slots > 0 && Integer.bitCount(slots) == 1, "Number of slots has to be a power of 2");
+        heads = new Timeout[slots];
+        tails = new Timeout[slots];
+        mask = slots - 1;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public Timeout<T> add(long deadline, T value)
+    {
+        Timeout<T> timeout = new Timeout<>(value);
+        link(timeout, deadline);
+        return timeout;
+    }
+
+    public void reschedule(Timeout<T> timeout, long deadline)
+    {
+        if (timeout.scheduled) {
+            unlink(timeout);
+        }
+        link(timeout, deadline);
+    }
+
+    public boolean cancel(Timeout<T> timeout)
+    {
+        if (timeout.scheduled) {
+            unlink(timeout);
+            return true;
+        }
+        return false;
+    }
+
+    // Returns the earliest deadline of the scheduled timeouts, or Long.MAX_VALUE if there is none.
+    public long nextDeadline()
+    {
+        if (size == 0) {
+            return Long.MAX_VALUE;
+        }
+        if (!exact) {
+            earliest = findEarliest();
+            exact = true;
+        }
+        return earliest;
+    }
+
+    // Removes and returns the timeout with the earliest deadline not later than now, if any.
+    // Timeouts sharing a deadline are returned in their order of scheduling.
+    public Timeout<T> poll(long now)
+    {
+        long deadline = nextDeadline();
+        if (deadline > now) {
+            return null;
+        }
+        Timeout<T> timeout = heads[slot(deadline)];
+        while (timeout.deadline != deadline) {
+            timeout = timeout.next;
+        }
+        unlink(timeout);
+        return timeout;
+    }
+
+    private int slot(long deadline)
+    {
+        return (int) deadline & mask;
+    }
+
+    private void link(Timeout<T> timeout, long deadline)
+    {
+        timeout.deadline = deadline;
+        timeout.scheduled = true;
+
+        int slot = slot(deadline);
+        Timeout<T> tail = tails[slot];
+        timeout.prev = tail;
+        timeout.next = null;
+        if (tail == null) {
+            heads[slot] = timeout;
+        }
+        else {
+            tail.next = timeout;
+        }
+        tails[slot] = timeout;
+        ++size;
+
+        if (deadline < earliest) {
+            //  All the other timeouts are due later.
+            earliest = deadline;
+            exact = true;
+        }
+    }
+
+    private void unlink(Timeout<T> timeout)
+    {
+        int slot = slot(timeout.deadline);
+        if (timeout.prev == null) {
+            heads[slot] = timeout.next;
+        }
+        else {
+            timeout.prev.next = timeout.next;
+        }
+        if (timeout.next == null) {
+            tails[slot] = timeout.prev;
+        }
+        else {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.scheduled = false;
+        --size;
+
+        if (size == 0) {
+            earliest = Long.MAX_VALUE;
+            exact = true;
+        }
+        else if (timeout.deadline == earliest) {
+            //  Still a lower bound, searched again when needed.
+            exact = false;
+        }
+    }
+
+    // Looks for the earliest deadline, starting from the lower bound.
+    private long findEarliest()
+    {
+        //  Look at the slots of the next rotation, the first timeout due
+        //  in its own slot during this rotation is the earliest one.
+        for (int idx = 0; idx <= mask; ++idx) {
+            long tick = earliest + idx;
+            for (Timeout<T> timeout = heads[slot(tick)]; timeout != null; timeout = timeout.next) {
+                if (timeout.deadline == tick) {
+                    return tick;
+                }
+            }
+        }
+        //  All the timeouts are due after this rotation.
+        long min = Long.MAX_VALUE;
+        for (Timeout<T> head : heads) {
+            for (Timeout<T> timeout = head; timeout != null; timeout = timeout.next) {
+                min = Math.min(min, timeout.deadline);
+            }
+        }
+        return min;
+    }
+}
@@ -1,8 +1,11 @@
 package zmq.util;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
 
+import zmq.Config;
 import zmq.ZMQ;
 import zmq.util.function.Supplier;
 
@@ -25,6 +28,8 @@ public final class Timers
         private final Handler  handler;
         private final Object[] args;
 
+        private TimerWheel.Timeout<Timer> timeout;
+
         private Timer(Timers parent, long interval, Handler handler, Object... args)
         {
             assert (args != null);
@@ -70,6 +75,7 @@ public final class Timers
         {
             if (alive) {
                 alive = false;
+                parent.remove(this);
                 return true;
             }
             return false;
@@ -82,11 +88,23 @@ public final class Timers
     }
 
     private final MultiMap<Long, Timer> timers = new MultiMap<>();
+    private final TimerWheel<Timer>     wheel;
+    private final List<Timer>           due;
     private final Supplier<Long>        clock;
 
     public Timers()
     {
-        this(() -> TimeUnit.NANOSECONDS.toMillis(Clock.nowNS()));
+        this(false);
+    }
+
+    /**
+     * Builds a new timer.
+     * @param timerWheel true to store the timers in a timing wheel, where adding, resetting and canceling
+     *                   a timer take a constant time, false to keep them sorted in a map.
+     */
+    public Timers(boolean timerWheel)
+    {
+        this(() -> TimeUnit.NANOSECONDS.toMillis(Clock.nowNS()), timerWheel);
     }
 
     /**
@@ -96,8 +114,28 @@ public final class Timers
      * @param clock the supplier of the current time in milliseconds.
      */
     public Timers(Supplier<Long> clock)
+    {
+        this(clock, false);
+    }
+
+    /**
+     * Builds a new timer.
+     * <p>
+     * <strong>This constructor is for testing and is not intended to be used in production code.</strong>
+     * @param clock the supplier of the current time in milliseconds.
+     * @param timerWheel true to store the timers in a timing wheel, false to keep them sorted in a map.
+     */
+    public Timers(Supplier<Long> clock, boolean timerWheel)
     {
         this.clock = clock;
+        if (timerWheel) {
+            wheel = new TimerWheel<>(Config.TIMER_WHEEL_SLOTS.getValue());
+            due = new ArrayList<>();
+        }
+        else {
+            wheel = null;
+            due = null;
+        }
     }
 
     private long now()
@@ -107,9 +145,26 @@ public final class Timers
 
     private boolean insert(Timer timer)
     {
+        if (wheel != null) {
+            if (timer.timeout == null) {
+                timer.timeout = wheel.add(now() + timer.interval, timer);
+            }
+            else {
+                wheel.reschedule(timer.timeout, now() + timer.interval);
+            }
+            return true;
+        }
         return timers.insert(now() + timer.interval, timer);
     }
 
+    //  Removes a canceled timer from the timing wheel. The map only drops them lazily.
+    private void remove(Timer timer)
+    {
+        if (wheel != null) {
+            wheel.cancel(timer.timeout);
+        }
+    }
+
     /**
      * Add timer to the set, timer repeats forever, or until cancel is called.
      * @param interval the interval of repetition in milliseconds.
@@ -177,6 +232,13 @@ public final class Timers
     public long timeout()
     {
         final long now = now();
+        if (wheel != null) {
+            if (wheel.isEmpty()) {
+                //  Wait forever as no timers are alive
+                return -1;
+            }
+            return Math.max(wheel.nextDeadline() - now, 0);
+        }
         for (Entry<Timer, Long> entry : entries()) {
             final Timer timer = entry.getKey();
             final Long expiration = entry.getValue();
@@ -206,6 +268,26 @@ public final class Timers
     {
         int executed = 0;
         final long now = now();
+        if (wheel != null) {
+            //  Collect the due timers first, so the rescheduled ones are not executed twice.
+            TimerWheel.Timeout<Timer> timeout = wheel.poll(now);
+            while (timeout != null) {
+                due.add(timeout.value());
+                timeout = wheel.poll(now);
+            }
+            for (Timer timer : due) {
+                //  Canceled by a previous handler.
+                if (!timer.alive) {
+                    continue;
+                }
+                insert(timer);
+
+                timer.handler.time(timer.args);
+                ++executed;
+            }
+            due.clear();
+            return executed;
+        }
         for (Entry<Timer, Long> entry : entries()) {
             final Timer timer = entry.getKey();
             final Long expiration = entry.getValue();
@@ -0,0 +1,153 @@
+package org.zeromq;
+
+import java.io.IOException;
+
+import org.junit.Test;
+import org.zeromq.ZMQ.Socket;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ZLastValueCacheTest
+{
+    private static final class Provider extends ZProxy.Proxy.SimpleProxy
+    {
+        private final String frontend;
+        private final String backend;
+
+        private Provider(String frontend, String backend)
+        {
+            this.frontend = frontend;
+            this.backend = backend;
+        }
+
+        @Override
+        public Socket create(ZContext ctx, ZProxy.Plug place, Object... args)
+        {
+            if (place == ZProxy.Plug.FRONT) {
+                return ctx.createSocket(SocketType.XSUB);
+            }
+            if (place == ZProxy.Plug.BACK) {
+                Socket socket = ctx.createSocket(SocketType.XPUB);
+                socket.setXpubManual(true);
+                return socket;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean configure(Socket socket, ZProxy.Plug place, Object... args)
+        {
+            if (place == ZProxy.Plug.FRONT) {
+                return socket.bind(frontend);
+            }
+            if (place == ZProxy.Plug.BACK) {
+                return socket.bind(backend);
+            }
+            return true;
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testLateJoiner() throws IOException
+    {
+        int frontend = Utils.findOpenPort();
+        int backend = Utils.findOpenPort();
+
+        try (ZContext ctx = new ZContext()) {
+            ZProxy proxy = new ZProxy(
+                    ctx,
+                    "lvc",
+                    new Provider("tcp://127.0.0.1:" + frontend, "tcp://127.0.0.1:" + backend),
+                    new ZLastValueCache(),
+                    null);
+            proxy.start(true);
+
+            Socket pub = ctx.createSocket(SocketType.PUB);
+            pub.connect("tcp://127.0.0.1:" + frontend);
+
+            // a first subscriber makes the publications flow through the proxy
+            Socket early = ctx.createSocket(SocketType.SUB);
+            early.setReceiveTimeOut(200);
+            early.subscribe("");
+            early.connect("tcp://127.0.0.1:" + backend);
+            ZMQ.msleep(200);
+
+            pub.sendMore("AAPL");
+            pub.send("100");
+            pub.sendMore("MSFT");
+            pub.send("200");
+            pub.sendMore("AAPL");
+            pub.send("101");
+            for (int idx = 0; idx < 3; ++idx) {
+                assertThat(early.recvStr(), notNullValue());
+                assertThat(early.recvStr(), notNullValue());
+            }
+
+            // a late joiner gets the last values at once, of its topics only
+            Socket late = ctx.createSocket(SocketType.SUB);
+            late.setReceiveTimeOut(1000);
+            late.subscribe("AA");
+            late.connect("tcp://127.0.0.1:" + backend);
+            assertThat(late.recvStr(), is("AAPL"));
+            assertThat(late.recvStr(), is("101"));
+            late.setReceiveTimeOut(200);
+            assertThat(late.recvStr(), nullValue());
+
+            // and the other subscribers do not get them twice
+            assertThat(early.recvStr(), nullValue());
+
+            proxy.exit();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testTopicIsCopied() throws IOException
+    {
+        int backend = Utils.findOpenPort();
+
+        try (ZContext ctx = new ZContext()) {
+            ZProxy proxy = new ZProxy(
+                    ctx,
+                    "lvc-copy",
+                    new Provider("inproc://lvc-copy", "tcp://127.0.0.1:" + backend),
+                    new ZLastValueCache(),
+                    null);
+            proxy.start(true);
+
+            // over inproc, the frames received by the cache are backed by the arrays sent
+            Socket pub = ctx.createSocket(SocketType.PUB);
+            pub.connect("inproc://lvc-copy");
+
+            Socket early = ctx.createSocket(SocketType.SUB);
+            early.setReceiveTimeOut(1000);
+            early.subscribe("");
+            early.connect("tcp://127.0.0.1:" + backend);
+            ZMQ.msleep(200);
+
+            byte[] first = "AAPL".getBytes(ZMQ.CHARSET);
+            pub.sendMore(first);
+            pub.send("100");
+            pub.sendMore("AAPL".getBytes(ZMQ.CHARSET));
+            pub.send("101");
+            for (int idx = 0; idx < 2; ++idx) {
+                assertThat(early.recvStr(), is("AAPL"));
+                assertThat(early.recvStr(), notNullValue());
+            }
+
+            // the first message is no longer cached, its array may be reused
+            first[0] = 'X';
+
+            Socket late = ctx.createSocket(SocketType.SUB);
+            late.setReceiveTimeOut(1000);
+            late.subscribe("AA");
+            late.connect("tcp://127.0.0.1:" + backend);
+            assertThat(late.recvStr(), is("AAPL"));
+            assertThat(late.recvStr(), is("101"));
+
+            proxy.exit();
+        }
+    }
+}
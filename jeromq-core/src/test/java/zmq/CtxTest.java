@@ -4,13 +4,20 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import zmq.io.IOThread;
 import zmq.socket.Sockets;
+import zmq.util.Utils;
 
 public class CtxTest
 {
@@ -48,4 +55,145 @@ public class CtxTest
         Assert.assertThrows(IllegalStateException.class, () -> ctx.setUncaughtExceptionHandler(null));
         ZMQ.close(socket);
     }
+
+    @Test(timeout = 10000)
+    public void testBalanceIoThreads() throws IOException
+    {
+        Ctx ctx = ZMQ.init(2);
+        assertThat(ctx.set(ZMQ.ZMQ_BALANCE_IO_THREADS, 1), is(true));
+        assertThat(ctx.get(ZMQ.ZMQ_BALANCE_IO_THREADS), is(1));
+
+        //  A busy connection on the first I/O thread
+        int port = Utils.findOpenPort();
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.setSocketOption(push, ZMQ.ZMQ_AFFINITY, 1L);
+        assertThat(ZMQ.bind(push, "tcp://127.0.0.1:" + port), is(true));
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.setSocketOption(pull, ZMQ.ZMQ_AFFINITY, 1L);
+        assertThat(ZMQ.connect(pull, "tcp://127.0.0.1:" + port), is(true));
+
+        //  More idle handles on the second one
+        List<SocketBase> idles = new ArrayList<>();
+        for (int idx = 0; idx < 5; ++idx) {
+            SocketBase idle = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+            ZMQ.setSocketOption(idle, ZMQ.ZMQ_AFFINITY, 2L);
+            assertThat(ZMQ.bind(idle, "tcp://127.0.0.1:*"), is(true));
+            idles.add(idle);
+        }
+
+        byte[] data = new byte[1024];
+        for (int idx = 0; idx < 1000; ++idx) {
+            assertThat(ZMQ.send(push, data, 0), is(data.length));
+            assertThat(ZMQ.recv(pull, 0).size(), is(data.length));
+        }
+        ZMQ.msleep(200);
+
+        IOThread busy = ctx.chooseIoThread(1);
+        IOThread idle = ctx.chooseIoThread(2);
+        assertThat(busy.getBytesOut() >= 1000 * data.length, is(true));
+        assertThat(busy.getBytesIn() >= 1000 * data.length, is(true));
+        assertThat(busy.getMsgsOut() >= 1000, is(true));
+        assertThat(busy.getMsgsIn() >= 1000, is(true));
+        assertThat(idle.getMsgsIn(), is(0L));
+
+        //  The traffic outweighs the number of handles
+        assertThat(busy.getLoad() < idle.getLoad(), is(true));
+        assertThat(ctx.chooseIoThread(0), is(idle));
+
+        assertThat(ctx.set(ZMQ.ZMQ_BALANCE_IO_THREADS, 0), is(true));
+        assertThat(ctx.chooseIoThread(0), is(busy));
+
+        for (SocketBase socket : idles) {
+            ZMQ.close(socket);
+        }
+        ZMQ.close(pull);
+        ZMQ.close(push);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 20000)
+    public void testMoveBusyConnection() throws IOException
+    {
+        Ctx ctx = ZMQ.init(2);
+        assertThat(ctx.set(ZMQ.ZMQ_BALANCE_IO_THREADS, 1), is(true));
+
+        //  Idle handles on the second I/O thread, for the connection to start on the first one
+        List<SocketBase> idles = new ArrayList<>();
+        for (int idx = 0; idx < 5; ++idx) {
+            SocketBase idle = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+            ZMQ.setSocketOption(idle, ZMQ.ZMQ_AFFINITY, 2L);
+            assertThat(ZMQ.bind(idle, "tcp://127.0.0.1:*"), is(true));
+            idles.add(idle);
+        }
+
+        //  Both ends of a busy connection on the first I/O thread, only the pulling one can move
+        int port = Utils.findOpenPort();
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.setSocketOption(push, ZMQ.ZMQ_AFFINITY, 1L);
+        assertThat(ZMQ.bind(push, "tcp://127.0.0.1:" + port), is(true));
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        //  The heartbeat timer moves with the connection
+        ZMQ.setSocketOption(pull, ZMQ.ZMQ_HEARTBEAT_IVL, 100);
+        assertThat(ZMQ.connect(pull, "tcp://127.0.0.1:" + port), is(true));
+
+        IOThread busy = ctx.chooseIoThread(1);
+        IOThread idle = ctx.chooseIoThread(2);
+
+        //  The messages keep flowing in order while the pulling end moves to the idle thread
+        byte[] data = new byte[1024];
+        long end = System.currentTimeMillis() + 10000;
+        int sent = 0;
+        while (idle.getBytesIn() == 0 && System.currentTimeMillis() < end) {
+            ByteBuffer.wrap(data).putInt(sent++);
+            assertThat(ZMQ.send(push, data, 0), is(data.length));
+            Msg msg = ZMQ.recv(pull, 0);
+            assertThat(msg.buf().getInt(), is(sent - 1));
+        }
+        assertThat(idle.getBytesIn() > 0, is(true));
+        for (int idx = 0; idx < 1000; ++idx) {
+            ByteBuffer.wrap(data).putInt(sent++);
+            assertThat(ZMQ.send(push, data, 0), is(data.length));
+            Msg msg = ZMQ.recv(pull, 0);
+            assertThat(msg.buf().getInt(), is(sent - 1));
+        }
+        assertThat(busy.getBytesOut() >= sent * data.length, is(true));
+        assertThat(idle.getMsgsIn() >= 1000, is(true));
+
+        for (SocketBase socket : idles) {
+            ZMQ.close(socket);
+        }
+        ZMQ.close(pull);
+        ZMQ.close(push);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testIoThreadAffinity() throws InterruptedException
+    {
+        Ctx ctx = ZMQ.init(2);
+        Map<Integer, String> pinned = new ConcurrentHashMap<>();
+        CountDownLatch started = new CountDownLatch(2);
+        ctx.setIoThreadAffinity(index -> {
+            pinned.put(index, Thread.currentThread().getName());
+            started.countDown();
+        });
+        ctx.setSocketAffinity(() -> 2L);
+
+        SocketBase socket = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.getSocketOptionExt(socket, ZMQ.ZMQ_AFFINITY), is(2L));
+        started.await();
+        assertThat(pinned.get(0), is("iothread-2"));
+        assertThat(pinned.get(1), is("iothread-3"));
+
+        try {
+            ctx.setIoThreadAffinity(null);
+            Assert.fail("Pinning is set before the I/O threads are started");
+        }
+        catch (IllegalStateException e) {
+            assertThat(ctx.getIoThreadAffinity(), notNullValue());
+        }
+
+        ZMQ.close(socket);
+        ZMQ.term(ctx);
+    }
 }
@@ -205,10 +205,24 @@ public class HeartbeatsTest
         testHeartbeatTimeout(true);
     }
 
+    @Test
+    public void testHeartbeatTimeoutWithTimerWheel() throws IOException
+    {
+        testHeartbeatTimeout(false, true);
+    }
+
     private void testHeartbeatTimeout(boolean mockPing) throws IOException
+    {
+        testHeartbeatTimeout(mockPing, false);
+    }
+
+    private void testHeartbeatTimeout(boolean mockPing, boolean timerWheel) throws IOException
     {
         Ctx ctx = ZMQ.createContext();
         assertThat(ctx, notNullValue());
+        boolean set = ctx.set(ZMQ.ZMQ_TIMER_WHEEL, timerWheel ? 1 : 0);
+        assertThat(set, is(true));
+        assertThat(ctx.get(ZMQ.ZMQ_TIMER_WHEEL), is(timerWheel ? 1 : 0));
 
         SocketBase server = prepServerSocket(ctx, !mockPing, false);
         assertThat(server, notNullValue());
@@ -0,0 +1,199 @@
+package zmq;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MailboxTest
+{
+    private Ctx     ctx;
+    private Mailbox mailbox;
+
+    @Before
+    public void setUp()
+    {
+        ctx = ZMQ.createContext();
+        mailbox = new Mailbox(ctx, "test", 0);
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        mailbox.close();
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testRecvWithoutFd()
+    {
+        Command cmd = new Command(null, Command.Type.STOP);
+        mailbox.send(cmd);
+
+        assertThat(mailbox.recv(0), sameInstance(cmd));
+        assertThat(mailbox.recv(0), nullValue());
+        assertThat(ctx.errno().get(), is(ZError.EAGAIN));
+    }
+
+    @Test(timeout = 5000)
+    public void testRecvTimeout()
+    {
+        long start = System.currentTimeMillis();
+        assertThat(mailbox.recv(100), nullValue());
+        assertThat(ctx.errno().get(), is(ZError.EAGAIN));
+        assertThat(System.currentTimeMillis() - start >= 100, is(true));
+    }
+
+    @Test(timeout = 5000)
+    public void testRecvWokenBySend() throws InterruptedException
+    {
+        Command cmd = new Command(null, Command.Type.STOP);
+        AtomicReference<Command> received = new AtomicReference<>();
+        Thread thread = new Thread(() -> received.set(mailbox.recv(-1)));
+        thread.start();
+
+        ZMQ.msleep(100);
+        mailbox.send(cmd);
+        thread.join();
+
+        assertThat(received.get(), sameInstance(cmd));
+    }
+
+    @Test(timeout = 5000)
+    public void testRecvInterrupted() throws InterruptedException
+    {
+        Thread thread = new Thread(() -> mailbox.recv(-1));
+        thread.start();
+
+        ZMQ.msleep(100);
+        thread.interrupt();
+        thread.join();
+    }
+
+    @Test(timeout = 5000)
+    public void testFdSignalsPendingCommands() throws IOException
+    {
+        Command cmd = new Command(null, Command.Type.STOP);
+        mailbox.send(cmd);
+
+        SelectableChannel fd = mailbox.getFd();
+        assertThat(fd, notNullValue());
+        try (Selector selector = Selector.open()) {
+            fd.register(selector, SelectionKey.OP_READ);
+            assertThat(selector.select(1000), is(1));
+        }
+        assertThat(mailbox.recv(0), sameInstance(cmd));
+        assertThat(mailbox.recv(0), nullValue());
+
+        // The commands are now signaled through the file descriptor
+        mailbox.send(cmd);
+        assertThat(mailbox.recv(-1), sameInstance(cmd));
+    }
+
+    @Test(timeout = 10000)
+    public void testSendToFullFd()
+    {
+        mailbox.getFd();
+
+        // More signals than the pipe can hold, and nothing read yet
+        Command cmd = new Command(null, Command.Type.STOP);
+        int count = 100_000;
+        for (int idx = 0; idx < count; ++idx) {
+            mailbox.send(cmd);
+        }
+        for (int idx = 0; idx < count; ++idx) {
+            assertThat(mailbox.recv(0), sameInstance(cmd));
+        }
+        assertThat(mailbox.recv(0), nullValue());
+        assertThat(mailbox.recv(0), nullValue());
+        assertThat(ctx.errno().get(), is(ZError.EAGAIN));
+    }
+
+    @Test(timeout = 120000)
+    public void testVirtualThreadsBlockOnSockets() throws Exception
+    {
+        blockOnSockets(100_000, false);
+    }
+
+    @Test(timeout = 30000)
+    public void testVirtualThreadsBlockOnSocketsWithFd() throws Exception
+    {
+        // Past the 256 carrier threads a virtual thread scheduler can compensate blocked ones with
+        blockOnSockets(300, true);
+    }
+
+    // Blocks one virtual thread on each socket, and wakes them all when terminating the context
+    private void blockOnSockets(int count, boolean fd) throws Exception
+    {
+        Method factory;
+        try {
+            factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        }
+        catch (NoSuchMethodException e) {
+            factory = null;
+        }
+        // Virtual threads are available from Java 21 on
+        Assume.assumeTrue(factory != null);
+        ExecutorService executor = (ExecutorService) factory.invoke(null);
+        Ctx ctx = ZMQ.createContext();
+        assertThat(ctx.set(ZMQ.ZMQ_MAX_SOCKETS, count + 1), is(true));
+
+        CountDownLatch blocked = new CountDownLatch(count);
+        AtomicInteger terminated = new AtomicInteger();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        for (int idx = 0; idx < count; ++idx) {
+            executor.execute(() -> {
+                boolean counted = false;
+                try {
+                    SocketBase socket = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+                    assertThat(socket, notNullValue());
+                    if (fd) {
+                        assertThat(ZMQ.getSocketOptionExt(socket, ZMQ.ZMQ_FD), notNullValue());
+                    }
+                    blocked.countDown();
+                    counted = true;
+                    if (ZMQ.recv(socket, 0) == null && socket.errno() == ZError.ETERM) {
+                        terminated.incrementAndGet();
+                    }
+                    ZMQ.close(socket);
+                }
+                catch (Throwable e) {
+                    // The executor would swallow it, it is checked in the test thread
+                    error.compareAndSet(null, e);
+                }
+                finally {
+                    if (!counted) {
+                        blocked.countDown();
+                    }
+                }
+            });
+        }
+        // Each virtual thread got a carrier thread until it blocked, and there are some left
+        blocked.await();
+        assertThat(executor.submit(() -> true).get(5, TimeUnit.SECONDS), is(true));
+
+        ZMQ.term(ctx);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(60, TimeUnit.SECONDS), is(true));
+        assertThat(error.get(), nullValue());
+        assertThat(terminated.get(), is(count));
+    }
+}
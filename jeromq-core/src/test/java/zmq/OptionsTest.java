@@ -327,6 +327,11 @@ public class OptionsTest
         assertThat(options.getSocketOpt(ZMQ.ZMQ_RCVTIMEO), is(options.recvTimeout));
         assertThat(options.getSocketOpt(ZMQ.ZMQ_SNDHWM), is(options.sendHwm));
         assertThat(options.getSocketOpt(ZMQ.ZMQ_SNDTIMEO), is(options.sendTimeout));
+        assertThat(options.getSocketOpt(ZMQ.ZMQ_SPIN_WAIT), is(options.spinWait));
+        assertThat(options.getSocketOpt(ZMQ.ZMQ_COMPACT_TRIE), is(options.compactTrie));
+        assertThat(options.getSocketOpt(ZMQ.ZMQ_FANOUT_THREADS), is(options.fanoutThreads));
+        assertThat(options.getSocketOpt(ZMQ.ZMQ_CONFLATE_KEY), is(options.conflateKey));
+        assertThat(options.getSocketOpt(ZMQ.ZMQ_AGGREGATE_SUBSCRIPTIONS), is(options.aggregateSubscriptions));
         assertThat(options.getSocketOpt(ZMQ.ZMQ_SNDBUF), is(options.sndbuf));
         assertThat(options.getSocketOpt(ZMQ.ZMQ_SOCKS_PROXY), is(options.socksProxyAddress));
         //        assertThat(options.getSocketOpt(ZMQ.ZMQ_TCP_ACCEPT_FILTER), is((Object)options.tcpAcceptFilters));
@@ -1,11 +1,24 @@
 package zmq;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Test;
 
+import zmq.io.UdpEngine;
 import zmq.util.Utils;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class TestRadioDish
@@ -101,4 +114,208 @@ public class TestRadioDish
         ZMQ.close(radio);
         ZMQ.term(context);
     }
+
+    @Test(timeout = 10000)
+    public void testTcpJoinTooLong() throws Exception
+    {
+        int port = Utils.findOpenPort();
+
+        Ctx context = ZMQ.createContext();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        context.setUncaughtExceptionHandler((t, e) -> failure.set(e));
+
+        SocketBase radio = ZMQ.socket(context, ZMQ.ZMQ_RADIO);
+        assertThat(ZMQ.bind(radio, "tcp://127.0.0.1:" + port), is(true));
+
+        // A peer joining a group longer than allowed
+        try (Socket peer = new Socket("127.0.0.1", port)) {
+            OutputStream out = peer.getOutputStream();
+            byte[] greeting = new byte[64];
+            greeting[0] = (byte) 0xff;
+            greeting[9] = 0x7f;
+            greeting[10] = 3;
+            greeting[11] = 1;
+            System.arraycopy("NULL".getBytes(ZMQ.CHARSET), 0, greeting, 12, 4);
+            out.write(greeting);
+
+            ByteBuffer ready = ByteBuffer.allocate(2 + 26);
+            ready.put((byte) 0x04).put((byte) 26);
+            ready.put((byte) 5).put("READY".getBytes(ZMQ.CHARSET));
+            ready.put((byte) 11).put("Socket-Type".getBytes(ZMQ.CHARSET)).putInt(4).put("DISH".getBytes(ZMQ.CHARSET));
+            out.write(ready.array());
+
+            // Wait for the handshake to complete, with the greeting and the READY of the radio
+            DataInputStream in = new DataInputStream(peer.getInputStream());
+            in.readFully(new byte[64]);
+            assertThat(in.readByte(), is((byte) 0x04));
+            in.readFully(new byte[in.readUnsignedByte()]);
+
+            byte[] group = new byte[Msg.MAX_GROUP_LENGTH + 45];
+            Arrays.fill(group, (byte) 'A');
+            ByteBuffer join = ByteBuffer.allocate(9 + 5 + group.length);
+            join.put((byte) 0x06).putLong(5 + group.length);
+            join.put((byte) 4).put("JOIN".getBytes(ZMQ.CHARSET)).put(group);
+            out.write(join.array());
+            out.flush();
+
+            ZMQ.msleep(200);
+        }
+
+        // The I/O thread survived and still serves the other peers
+        SocketBase dish = ZMQ.socket(context, ZMQ.ZMQ_DISH);
+        assertThat(dish.join("Movies"), is(true));
+        assertThat(ZMQ.connect(dish, "tcp://127.0.0.1:" + port), is(true));
+        ZMQ.msleep(100);
+
+        Msg msg = new Msg("Godfather".getBytes());
+        msg.setGroup("Movies");
+        assertThat(radio.send(msg, 0), is(true));
+        msg = dish.recv(0);
+        assertThat(new String(msg.data()), is("Godfather"));
+        assertThat(failure.get(), nullValue());
+
+        ZMQ.close(dish);
+        ZMQ.close(radio);
+        ZMQ.term(context);
+    }
+
+    @Test
+    public void testInprocJoinLeave()
+    {
+        Ctx context = ZMQ.createContext();
+
+        SocketBase radio = ZMQ.socket(context, ZMQ.ZMQ_RADIO);
+        assertThat(ZMQ.bind(radio, "inproc://radio-dish"), is(true));
+
+        SocketBase movies = ZMQ.socket(context, ZMQ.ZMQ_DISH);
+        assertThat(movies.join("Movies"), is(true));
+        SocketBase both = ZMQ.socket(context, ZMQ.ZMQ_DISH);
+        assertThat(both.join("Movies"), is(true));
+        assertThat(both.join("TV"), is(true));
+        SocketBase tv = ZMQ.socket(context, ZMQ.ZMQ_DISH);
+        assertThat(tv.join("TV"), is(true));
+        for (SocketBase dish : new SocketBase[] { movies, both, tv }) {
+            assertThat(ZMQ.connect(dish, "inproc://radio-dish"), is(true));
+        }
+
+        ZMQ.msleep(100);
+
+        send(radio, "Movies", "Godfather");
+        assertThat(recv(movies), is("Godfather"));
+        assertThat(recv(both), is("Godfather"));
+
+        // Leaving one of the groups
+        assertThat(both.leave("Movies"), is(true));
+        ZMQ.close(movies);
+
+        ZMQ.msleep(100);
+
+        send(radio, "Movies", "Casablanca");
+        send(radio, "TV", "Friends");
+        assertThat(recv(both), is("Friends"));
+        assertThat(recv(tv), is("Friends"));
+
+        ZMQ.close(tv);
+        ZMQ.close(both);
+        ZMQ.close(radio);
+        ZMQ.term(context);
+    }
+
+    @Test
+    public void testUdp() throws IOException
+    {
+        int port = Utils.findOpenPort();
+
+        Ctx context = ZMQ.createContext();
+
+        SocketBase dish = ZMQ.socket(context, ZMQ.ZMQ_DISH);
+        assertThat(ZMQ.bind(dish, "udp://*:" + port), is(true));
+        assertThat(dish.join("Movies"), is(true));
+
+        SocketBase radio = ZMQ.socket(context, ZMQ.ZMQ_RADIO);
+        assertThat(ZMQ.connect(radio, "udp://127.0.0.1:" + port), is(true));
+        assertThat((String) ZMQ.getSocketOptionExt(radio, ZMQ.ZMQ_LAST_ENDPOINT), is("udp://127.0.0.1:" + port));
+
+        ZMQ.msleep(100);
+
+        // Groups are sent to all the dishes, then filtered by each one
+        send(radio, "TV", "Friends");
+        for (int idx = 0; idx < 100; ++idx) {
+            send(radio, "Movies", "Godfather " + idx);
+        }
+        for (int idx = 0; idx < 100; ++idx) {
+            Msg msg = dish.recv(0);
+            assertThat(msg.getGroup(), is("Movies"));
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is("Godfather " + idx));
+        }
+
+        ZMQ.close(dish);
+        ZMQ.close(radio);
+        ZMQ.term(context);
+    }
+
+    @Test
+    public void testUdpFraming() throws IOException
+    {
+        Ctx context = ZMQ.createContext();
+
+        // Datagrams are made of the size of the group, the group and the body, as in libzmq
+        try (DatagramSocket peer = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            peer.setSoTimeout(5000);
+
+            SocketBase radio = ZMQ.socket(context, ZMQ.ZMQ_RADIO);
+            assertThat(ZMQ.connect(radio, "udp://127.0.0.1:" + peer.getLocalPort()), is(true));
+            ZMQ.msleep(100);
+            send(radio, "TV", "Friends");
+
+            DatagramPacket packet = new DatagramPacket(new byte[UdpEngine.MAX_UDP_MSG], UdpEngine.MAX_UDP_MSG);
+            peer.receive(packet);
+            byte[] datagram = Arrays.copyOf(packet.getData(), packet.getLength());
+            assertThat(datagram, is("\2TVFriends".getBytes(ZMQ.CHARSET)));
+
+            int port = Utils.findOpenPort();
+            SocketBase dish = ZMQ.socket(context, ZMQ.ZMQ_DISH);
+            assertThat(ZMQ.bind(dish, "udp://127.0.0.1:" + port), is(true));
+            assertThat(dish.join("TV"), is(true));
+            ZMQ.msleep(100);
+
+            // A truncated datagram is dropped
+            byte[] truncated = "\10TV".getBytes(ZMQ.CHARSET);
+            peer.send(new DatagramPacket(truncated, truncated.length, InetAddress.getLoopbackAddress(), port));
+            peer.send(new DatagramPacket(datagram, datagram.length, InetAddress.getLoopbackAddress(), port));
+
+            Msg msg = dish.recv(0);
+            assertThat(msg.getGroup(), is("TV"));
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is("Friends"));
+
+            ZMQ.close(dish);
+            ZMQ.close(radio);
+        }
+        ZMQ.term(context);
+    }
+
+    @Test
+    public void testUdpIncompatibleSocket()
+    {
+        Ctx context = ZMQ.createContext();
+
+        SocketBase pub = ZMQ.socket(context, ZMQ.ZMQ_PUB);
+        assertThat(ZMQ.connect(pub, "udp://127.0.0.1:5555"), is(false));
+        assertThat(pub.errno(), is(ZError.ENOCOMPATPROTO));
+
+        ZMQ.close(pub);
+        ZMQ.term(context);
+    }
+
+    private static void send(SocketBase radio, String group, String data)
+    {
+        Msg msg = new Msg(data.getBytes(ZMQ.CHARSET));
+        msg.setGroup(group);
+        assertThat(radio.send(msg, 0), is(true));
+    }
+
+    private static String recv(SocketBase dish)
+    {
+        return new String(dish.recv(0).data(), ZMQ.CHARSET);
+    }
 }
@@ -0,0 +1,125 @@
+package zmq;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class TestSpinWait
+{
+    @Test(timeout = 10000)
+    public void testInprocRoundTrips() throws InterruptedException
+    {
+        Ctx ctx = ZMQ.createContext();
+        assertThat(ctx, notNullValue());
+
+        SocketBase rep = ZMQ.socket(ctx, ZMQ.ZMQ_REP);
+        assertThat(rep, notNullValue());
+        boolean rc = ZMQ.setSocketOption(rep, ZMQ.ZMQ_SPIN_WAIT, 100);
+        assertThat(rc, is(true));
+        assertThat(ZMQ.getSocketOption(rep, ZMQ.ZMQ_SPIN_WAIT), is(100));
+        rc = ZMQ.bind(rep, "inproc://spin-wait");
+        assertThat(rc, is(true));
+
+        SocketBase req = ZMQ.socket(ctx, ZMQ.ZMQ_REQ);
+        assertThat(req, notNullValue());
+        rc = ZMQ.setSocketOption(req, ZMQ.ZMQ_SPIN_WAIT, 100);
+        assertThat(rc, is(true));
+        rc = ZMQ.connect(req, "inproc://spin-wait");
+        assertThat(rc, is(true));
+
+        int count = 1000;
+        Thread replier = new Thread(() -> {
+            for (int idx = 0; idx < count; ++idx) {
+                Msg msg = ZMQ.recv(rep, 0);
+                ZMQ.send(rep, msg, 0);
+            }
+        });
+        replier.start();
+
+        for (int idx = 0; idx < count; ++idx) {
+            int sent = ZMQ.send(req, "ping", 0);
+            assertThat(sent, is(4));
+            Msg msg = ZMQ.recv(req, 0);
+            assertThat(msg, notNullValue());
+            assertThat(new String(msg.data(), ZMQ.CHARSET), is("ping"));
+        }
+        replier.join();
+
+        ZMQ.close(req);
+        ZMQ.close(rep);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testRecvTimeout()
+    {
+        Ctx ctx = ZMQ.createContext();
+        assertThat(ctx, notNullValue());
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(pull, notNullValue());
+        boolean rc = ZMQ.setSocketOption(pull, ZMQ.ZMQ_SPIN_WAIT, 1000);
+        assertThat(rc, is(true));
+        rc = ZMQ.setSocketOption(pull, ZMQ.ZMQ_RCVTIMEO, 100);
+        assertThat(rc, is(true));
+        rc = ZMQ.bind(pull, "inproc://spin-wait-timeout");
+        assertThat(rc, is(true));
+
+        // Nothing is ever sent, so the spin gives up and the socket blocks until the timeout.
+        long start = System.currentTimeMillis();
+        Msg msg = ZMQ.recv(pull, 0);
+        assertThat(msg, nullValue());
+        assertThat(ctx.errno().get(), is(ZError.EAGAIN));
+        assertThat(System.currentTimeMillis() - start >= 100, is(true));
+
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testNegativeSpinWaitRejected()
+    {
+        Ctx ctx = ZMQ.createContext();
+        assertThat(ctx, notNullValue());
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(pull, notNullValue());
+        boolean rc = ZMQ.setSocketOption(pull, ZMQ.ZMQ_SPIN_WAIT, -1);
+        assertThat(rc, is(false));
+        assertThat(ZMQ.getSocketOption(pull, ZMQ.ZMQ_SPIN_WAIT), is(ZMQ.DEFAULT_SPIN_WAIT));
+
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 10000)
+    public void testSpinCountsAgainstTimeout()
+    {
+        Ctx ctx = ZMQ.createContext();
+        assertThat(ctx, notNullValue());
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(pull, notNullValue());
+        // A spin budget of 5 seconds, far above the 100 ms timeout.
+        boolean rc = ZMQ.setSocketOption(pull, ZMQ.ZMQ_SPIN_WAIT, 5000000);
+        assertThat(rc, is(true));
+        rc = ZMQ.setSocketOption(pull, ZMQ.ZMQ_RCVTIMEO, 100);
+        assertThat(rc, is(true));
+        rc = ZMQ.bind(pull, "inproc://spin-wait-budget");
+        assertThat(rc, is(true));
+
+        long start = System.currentTimeMillis();
+        Msg msg = ZMQ.recv(pull, 0);
+        long elapsed = System.currentTimeMillis() - start;
+        assertThat(msg, nullValue());
+        assertThat(ctx.errno().get(), is(ZError.EAGAIN));
+        assertThat(elapsed >= 100, is(true));
+        assertThat(elapsed < 2000, is(true));
+
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+}
@@ -0,0 +1,73 @@
+package zmq;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TestZeroCopyRecv
+{
+    private static final int[] SIZES = { 0, 5, 300, 1500, 9000, 100000 };
+
+    @Test
+    public void testZeroCopyRecv()
+    {
+        testTransfer(true);
+    }
+
+    @Test
+    public void testCopyRecv()
+    {
+        testTransfer(false);
+    }
+
+    private void testTransfer(boolean zeroCopy)
+    {
+        Ctx ctx = ZMQ.createContext();
+        assertThat(ctx, notNullValue());
+
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(pull, notNullValue());
+        boolean rc = ZMQ.setSocketOption(pull, ZMQ.ZMQ_ZERO_COPY_RECV, zeroCopy);
+        assertThat(rc, is(true));
+        assertThat(ZMQ.getSocketOptionExt(pull, ZMQ.ZMQ_ZERO_COPY_RECV), is(zeroCopy));
+        rc = ZMQ.bind(pull, "tcp://127.0.0.1:*");
+        assertThat(rc, is(true));
+        String endpoint = (String) ZMQ.getSocketOptionExt(pull, ZMQ.ZMQ_LAST_ENDPOINT);
+
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(push, notNullValue());
+        rc = ZMQ.connect(push, endpoint);
+        assertThat(rc, is(true));
+
+        // Mixed sizes to go through the slicing, copying and scattering reads.
+        int count = 200;
+        for (int idx = 0; idx < count; ++idx) {
+            int size = SIZES[idx % SIZES.length];
+            byte[] data = new byte[size];
+            Arrays.fill(data, (byte) idx);
+            int sent = ZMQ.send(push, data, idx % 3 == 0 ? ZMQ.ZMQ_SNDMORE : 0);
+            assertThat(sent, is(size));
+        }
+
+        Msg[] received = new Msg[count];
+        for (int idx = 0; idx < count; ++idx) {
+            received[idx] = ZMQ.recv(pull, 0);
+            assertThat(received[idx], notNullValue());
+        }
+        // Check once everything is received, so the messages have survived the reads that followed them
+        for (int idx = 0; idx < count; ++idx) {
+            byte[] expected = new byte[SIZES[idx % SIZES.length]];
+            Arrays.fill(expected, (byte) idx);
+            assertThat(received[idx].data(), is(expected));
+            assertThat(received[idx].hasMore(), is(idx % 3 == 0));
+        }
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ZMQ.term(ctx);
+    }
+}
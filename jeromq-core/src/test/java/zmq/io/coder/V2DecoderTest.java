@@ -1,14 +1,24 @@
 package zmq.io.coder;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import org.junit.Before;
+import org.junit.Test;
 
+import zmq.Msg;
 import zmq.ZMQ;
+import zmq.io.coder.IDecoder.Step;
 import zmq.io.coder.v2.V2Decoder;
 import zmq.io.coder.v2.V2Protocol;
 import zmq.msg.MsgAllocatorThreshold;
 import zmq.util.Errno;
+import zmq.util.ValueReference;
 import zmq.util.Wire;
 
 public class V2DecoderTest extends AbstractDecoderTest
@@ -64,4 +74,139 @@ public class V2DecoderTest extends AbstractDecoderTest
         buf.put("01".getBytes(ZMQ.CHARSET));
         return buf.position();
     }
+
+    @Test
+    public void testScatteringRead()
+    {
+        decoder = new V2Decoder(new Errno(), 64, -1, new MsgAllocatorThreshold());
+        ByteBuffer in = decoder.getBuffer();
+        in.put((byte) V2Protocol.LARGE_FLAG);
+        Wire.putUInt64(in, 2000);
+        in.put(new byte[50]);
+        in.flip();
+
+        ValueReference<Integer> processed = new ValueReference<>(0);
+        Step.Result result = decoder.decode(in, 59, processed);
+        assertThat(result, is(Step.Result.MORE_DATA));
+        assertThat(processed.get(), is(59));
+
+        // The rest of the body goes to the message, the next message to the buffer
+        ByteBuffer[] buffers = decoder.getBuffers();
+        assertThat(buffers, notNullValue());
+        assertThat(buffers.length, is(2));
+        assertThat(buffers[0].remaining(), is(1950));
+        byte[] body = new byte[1950];
+        Arrays.fill(body, (byte) 'b');
+        buffers[0].put(body);
+        in = buffers[1];
+        int insize = 1950 + readShortMessage(in);
+        in.flip();
+
+        result = decoder.decode(in, insize, processed);
+        assertThat(result, is(Step.Result.DECODED));
+        assertThat(processed.get(), is(1950));
+        Msg msg = decoder.msg();
+        assertThat(msg.size(), is(2000));
+        assertThat(msg.get(1999), is((byte) 'b'));
+
+        result = decoder.decode(in, insize - 1950, processed);
+        assertThat(result, is(Step.Result.DECODED));
+        assertThat(processed.get(), is(7));
+        assertThat(decoder.msg().data(), is("hello".getBytes(ZMQ.CHARSET)));
+        assertThat(decoder.getBuffers(), nullValue());
+    }
+
+    @Test
+    public void testSlicing()
+    {
+        decoder = new V2Decoder(new Errno(), 64, -1, new MsgAllocatorThreshold(), true);
+        ByteBuffer in = decoder.getBuffer();
+        readShortMessage(in);
+        int insize = readShortMessage(in);
+        in.flip();
+
+        ValueReference<Integer> processed = new ValueReference<>(0);
+        Step.Result result = decoder.decode(in, insize, processed);
+        assertThat(result, is(Step.Result.DECODED));
+        Msg first = decoder.msg();
+        result = decoder.decode(in, insize - processed.get(), processed);
+        assertThat(result, is(Step.Result.DECODED));
+        Msg second = decoder.msg();
+
+        // Messages reference the read buffer
+        assertThat(first.buf().isDirect(), is(true));
+        assertThat(first.hasMore(), is(true));
+        assertThat(first.data(), is("hello".getBytes(ZMQ.CHARSET)));
+        assertThat(second.data(), is("hello".getBytes(ZMQ.CHARSET)));
+
+        // Which is not reused for the next read
+        in = decoder.getBuffer();
+        while (in.hasRemaining()) {
+            in.put((byte) 0);
+        }
+        assertThat(first.data(), is("hello".getBytes(ZMQ.CHARSET)));
+    }
+
+    @Test
+    public void testSlicingSplitMessage()
+    {
+        decoder = new V2Decoder(new Errno(), 64, -1, new MsgAllocatorThreshold(), true);
+        ByteBuffer in = decoder.getBuffer();
+        readShortMessage(in);
+        in.flip();
+
+        // Only part of the body is available, it has to be copied
+        ValueReference<Integer> processed = new ValueReference<>(0);
+        Step.Result result = decoder.decode(in, 4, processed);
+        assertThat(result, is(Step.Result.MORE_DATA));
+        result = decoder.decode(in, 3, processed);
+        assertThat(result, is(Step.Result.DECODED));
+        assertThat(decoder.msg().data(), is("hello".getBytes(ZMQ.CHARSET)));
+    }
+
+    @Test
+    public void testSlicingRecyclesArena()
+    {
+        decoder = new V2Decoder(new Errno(), 64, -1, new MsgAllocatorThreshold(), true);
+
+        // Each sliced message takes a read buffer of its own, 32 of them fill an arena
+        Msg kept = readSliced(0);
+        for (int idx = 1; idx < 32; ++idx) {
+            assertThat(readSliced(idx).release(), is(false));
+        }
+
+        // The first arena is kept by a message, the second one is new
+        Msg[] second = new Msg[32];
+        for (int idx = 0; idx < 32; ++idx) {
+            second[idx] = readSliced(32 + idx);
+        }
+        for (Msg msg : second) {
+            assertThat(msg.release(), is(false));
+        }
+        assertThat(kept.data(), is("00000".getBytes(ZMQ.CHARSET)));
+
+        // Left by the decoder with all its messages released, the second arena is reused
+        Msg third = readSliced(64);
+        assertThat(second[0].data(), is("00064".getBytes(ZMQ.CHARSET)));
+        assertThat(kept.data(), is("00000".getBytes(ZMQ.CHARSET)));
+        assertThat(third.data(), is("00064".getBytes(ZMQ.CHARSET)));
+
+        // And the first one once its last message is released
+        assertThat(kept.release(), is(true));
+    }
+
+    private Msg readSliced(int idx)
+    {
+        ByteBuffer in = decoder.getBuffer();
+        in.put((byte) 0); // flag
+        in.put((byte) 5);
+        in.put(String.format("%05d", idx).getBytes(ZMQ.CHARSET));
+        int insize = in.position();
+        in.flip();
+
+        ValueReference<Integer> processed = new ValueReference<>(0);
+        Step.Result result = decoder.decode(in, insize, processed);
+        assertThat(result, is(Step.Result.DECODED));
+        return decoder.msg();
+    }
 }
@@ -5,13 +5,19 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
 
 import org.junit.Test;
 
 import zmq.Msg;
 import zmq.ZMQ;
 import zmq.io.coder.v2.V2Encoder;
+import zmq.io.coder.v2.V2Protocol;
+import zmq.msg.MsgContent;
 import zmq.util.Errno;
 import zmq.util.ValueReference;
 
@@ -78,4 +84,150 @@ public class V2EncoderTest
         assertThat(position, is(62));
         assertThat(limit, is(200));
     }
+
+    @Test
+    public void testGatheringShortMessages() throws IOException
+    {
+        WriteVector vector = new WriteVector();
+        encoder.loadMsg(readShortMessage());
+        int outsize = encoder.encode(vector, 64);
+        assertThat(outsize, is(7));
+        encoder.loadMsg(readShortMessage());
+        outsize += encoder.encode(vector, 64 - outsize);
+        assertThat(outsize, is(14));
+
+        GatheringChannel channel = new GatheringChannel();
+        long written = vector.write(channel);
+        assertThat(written, is(14L));
+        assertThat(vector.isEmpty(), is(true));
+        // Both messages were copied in a single chunk
+        assertThat(channel.buffers, is(1));
+        assertThat(channel.out.toByteArray(), is(new byte[] { 0, 5, 'h', 'e', 'l', 'l', 'o', 0, 5, 'h', 'e', 'l', 'l', 'o' }));
+    }
+
+    @Test
+    public void testGatheringLongMessage() throws IOException
+    {
+        byte[] body = new byte[2048];
+        Arrays.fill(body, (byte) 'x');
+
+        WriteVector vector = new WriteVector();
+        encoder.loadMsg(new Msg(body));
+        int outsize = encoder.encode(vector, 4096);
+        // The body is not copied, it is appended as is
+        assertThat(outsize, is(9 + 2048));
+        encoder.loadMsg(readShortMessage());
+        outsize += encoder.encode(vector, 4096 - outsize);
+        assertThat(outsize, is(9 + 2048 + 7));
+
+        GatheringChannel channel = new GatheringChannel();
+        long written = vector.write(channel);
+        assertThat(written, is((long) outsize));
+        assertThat(channel.buffers, is(3));
+
+        ByteBuffer out = ByteBuffer.wrap(channel.out.toByteArray());
+        assertThat(out.get(), is((byte) V2Protocol.LARGE_FLAG));
+        assertThat(out.getLong(), is(2048L));
+        byte[] received = new byte[2048];
+        out.get(received);
+        assertThat(received, is(body));
+        assertThat(out.get(), is((byte) 0));
+        assertThat(out.get(), is((byte) 5));
+    }
+
+    @Test
+    public void testGatheringPartialWrite() throws IOException
+    {
+        WriteVector vector = new WriteVector();
+        encoder.loadMsg(new Msg(new byte[2048]));
+        // The body is appended as a whole, even if larger than the batch
+        assertThat(encoder.encode(vector, 64), is(9 + 2048));
+
+        GatheringChannel channel = new GatheringChannel();
+        channel.max = 100;
+        assertThat(vector.write(channel), is(100L));
+        assertThat(vector.isEmpty(), is(false));
+
+        channel.max = Integer.MAX_VALUE;
+        assertThat(vector.write(channel), is(9L + 2048 - 100));
+        assertThat(vector.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testGatheringReleasesAfterWrite() throws IOException
+    {
+        Content content = new Content();
+        WriteVector vector = new WriteVector();
+        encoder.loadMsg(new Msg(ByteBuffer.allocate(2048), content));
+        assertThat(encoder.encode(vector, 4096), is(9 + 2048));
+
+        // The encoder is done with the message, but its body is still to write
+        GatheringChannel channel = new GatheringChannel();
+        channel.max = 100;
+        vector.write(channel);
+        assertThat(content.freed, is(false));
+
+        channel.max = Integer.MAX_VALUE;
+        vector.write(channel);
+        assertThat(content.freed, is(true));
+    }
+
+    private static class Content extends MsgContent
+    {
+        private boolean freed;
+
+        @Override
+        protected void free()
+        {
+            freed = true;
+        }
+    }
+
+    private static class GatheringChannel implements GatheringByteChannel
+    {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int buffers;
+        private int max = Integer.MAX_VALUE;
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length)
+        {
+            long written = 0;
+            for (int idx = offset; idx < offset + length && written < max; ++idx) {
+                ByteBuffer src = srcs[idx];
+                int count = (int) Math.min(src.remaining(), max - written);
+                byte[] bytes = new byte[count];
+                src.get(bytes);
+                out.write(bytes, 0, count);
+                written += count;
+                if (count > 0) {
+                    buffers++;
+                }
+            }
+            return written;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs)
+        {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(ByteBuffer src)
+        {
+            return (int) write(new ByteBuffer[] { src });
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return true;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
 }
@@ -0,0 +1,149 @@
+package zmq.msg;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class MsgAllocatorPoolTest
+{
+    private final MsgAllocatorPool pool = new MsgAllocatorPool(false, 1024, 4, 16);
+
+    @Test
+    public void testSize()
+    {
+        Msg msg = pool.allocate(100);
+        assertThat(msg.size(), is(100));
+        assertThat(msg.buf().capacity(), is(128));
+        assertThat(msg.buf().isDirect(), is(false));
+
+        assertThat(new MsgAllocatorPool().allocate(10).buf().isDirect(), is(true));
+    }
+
+    @Test
+    public void testRecycle()
+    {
+        Msg msg = pool.allocate(100);
+        byte[] array = msg.buf().array();
+        assertThat(msg.release(), is(true));
+
+        // Same size class
+        Msg other = pool.allocate(120);
+        assertThat(other.size(), is(120));
+        assertThat(other.buf().array(), sameInstance(array));
+
+        // Other size class
+        assertThat(pool.allocate(60).buf().array(), not(sameInstance(array)));
+    }
+
+    @Test
+    public void testNotRecycledWhileReferenced()
+    {
+        Msg msg = pool.allocate(100);
+        byte[] array = msg.buf().array();
+        Msg copy = new Msg(msg);
+        msg.addRefs(1);
+
+        assertThat(msg.release(), is(false));
+        assertThat(copy.release(), is(false));
+        assertThat(pool.allocate(100).buf().array(), not(sameInstance(array)));
+
+        assertThat(msg.release(), is(true));
+        assertThat(pool.allocate(100).buf().array(), sameInstance(array));
+    }
+
+    @Test
+    public void testLargeNotPooled()
+    {
+        Msg msg = pool.allocate(2048);
+        assertThat(msg.size(), is(2048));
+        assertThat(msg.release(), is(false));
+    }
+
+    @Test
+    public void testReleaseFromOtherThread() throws InterruptedException
+    {
+        Msg[] msgs = new Msg[8];
+        for (int idx = 0; idx < msgs.length; ++idx) {
+            msgs[idx] = pool.allocate(100);
+        }
+        byte[] last = msgs[msgs.length - 1].buf().array();
+
+        // The other thread keeps 4 buffers in its cache and shares the others
+        Thread thread = new Thread(() -> {
+            for (Msg msg : msgs) {
+                msg.release();
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertThat(pool.allocate(100).buf().array(), sameInstance(last));
+    }
+
+    @Test
+    public void testAllocateFromOtherThread() throws InterruptedException
+    {
+        Msg msg = pool.allocate(100);
+        ByteBuffer buf = msg.buf();
+        msg.release();
+
+        // The buffer stays in the cache of this thread
+        AtomicReference<Msg> allocated = new AtomicReference<>();
+        Thread thread = new Thread(() -> allocated.set(pool.allocate(100)));
+        thread.start();
+        thread.join();
+
+        assertThat(allocated.get().buf().array(), not(sameInstance(buf.array())));
+    }
+
+    @Test
+    public void testForward()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase front = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.setSocketOption(front, ZMQ.ZMQ_MSG_ALLOCATOR, new MsgAllocatorPool()), is(true));
+        assertThat(ZMQ.bind(front, "tcp://127.0.0.1:*"), is(true));
+        SocketBase back = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.bind(back, "tcp://127.0.0.1:*"), is(true));
+
+        SocketBase sender = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.connect(sender, (String) ZMQ.getSocketOptionExt(front, ZMQ.ZMQ_LAST_ENDPOINT)), is(true));
+        SocketBase receiver = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.connect(receiver, (String) ZMQ.getSocketOptionExt(back, ZMQ.ZMQ_LAST_ENDPOINT)), is(true));
+
+        // The received messages are released once forwarded, their buffers are reused for the next ones
+        int count = 1000;
+        for (int idx = 0; idx < count; ++idx) {
+            byte[] data = new byte[idx % 3000];
+            Arrays.fill(data, (byte) idx);
+            assertThat(ZMQ.send(sender, data, 0), is(data.length));
+
+            Msg msg = ZMQ.recv(front, 0);
+            assertThat(ZMQ.sendMsg(back, msg, 0), is(data.length));
+        }
+        for (int idx = 0; idx < count; ++idx) {
+            byte[] expected = new byte[idx % 3000];
+            Arrays.fill(expected, (byte) idx);
+            Msg msg = ZMQ.recv(receiver, 0);
+            assertThat(msg.data(), is(expected));
+        }
+
+        ZMQ.close(sender);
+        ZMQ.close(receiver);
+        ZMQ.close(front);
+        ZMQ.close(back);
+        ZMQ.term(ctx);
+    }
+}
@@ -49,4 +49,84 @@ public class ConflateTest
 
         ZMQ.term(ctx);
     }
+
+    @Test
+    public void testKeyed() throws InterruptedException
+    {
+        Ctx ctx = ZMQ.init(1);
+        assert (ctx != null);
+
+        // The publisher keeps the latest updates its peers did not get yet
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_PUB);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_CONFLATE_KEY, 4);
+        boolean rc = ZMQ.bind(pub, "tcp://localhost:*");
+        assert (rc);
+
+        // Keeps the latest update of each instrument, keyed by the first 4 bytes
+        SocketBase sub = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_CONFLATE_KEY, 4);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_SUBSCRIBE, "");
+        rc = ZMQ.connect(sub, (String) ZMQ.getSocketOptionExt(pub, ZMQ.ZMQ_LAST_ENDPOINT));
+        assert (rc);
+        Thread.sleep(200);
+
+        int messageCount = 2000;
+        for (int j = 0; j < messageCount; ++j) {
+            for (String instrument : new String[] { "AAPL", "MSFT", "IBM " }) {
+                int count = Helper.send(pub, instrument + j);
+                assert (count > 0);
+            }
+        }
+        Thread.sleep(200);
+
+        Assert.assertEquals("AAPL1999", Helper.recv(sub));
+        Assert.assertEquals("MSFT1999", Helper.recv(sub));
+        Assert.assertEquals("IBM 1999", Helper.recv(sub));
+        Assert.assertNull(ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT));
+
+        ZMQ.close(sub);
+        ZMQ.close(pub);
+
+        ZMQ.term(ctx);
+    }
+
+    @Test
+    public void testKeyedConnectBeforeBind() throws InterruptedException
+    {
+        Ctx ctx = ZMQ.init(1);
+        assert (ctx != null);
+
+        // The pipes are created by the subscriber, before the publisher is known
+        SocketBase sub = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_CONFLATE_KEY, 4);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_RCVHWM, 10);
+        boolean rc = ZMQ.connect(sub, "inproc://conflate-key");
+        assert (rc);
+        ZMQ.setSocketOption(sub, ZMQ.ZMQ_SUBSCRIBE, "");
+
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_PUB);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_SNDHWM, 10);
+        rc = ZMQ.bind(pub, "inproc://conflate-key");
+        assert (rc);
+        Thread.sleep(200);
+
+        // Far more updates than the HWM, which does not apply to conflated messages
+        int messageCount = 200;
+        for (int j = 0; j < messageCount; ++j) {
+            for (String instrument : new String[] { "AAPL", "MSFT", "IBM " }) {
+                int count = Helper.send(pub, instrument + j);
+                assert (count > 0);
+            }
+        }
+
+        Assert.assertEquals("AAPL199", Helper.recv(sub));
+        Assert.assertEquals("MSFT199", Helper.recv(sub));
+        Assert.assertEquals("IBM 199", Helper.recv(sub));
+        Assert.assertNull(ZMQ.recv(sub, ZMQ.ZMQ_DONTWAIT));
+
+        ZMQ.close(sub);
+        ZMQ.close(pub);
+
+        ZMQ.term(ctx);
+    }
 }
@@ -0,0 +1,98 @@
+package zmq.pipe;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import zmq.ZObject;
+
+public class PipeArrayTest
+{
+    private static final class Parent extends ZObject
+    {
+        Parent()
+        {
+            super(null, 0);
+        }
+    }
+
+    private Pipe first;
+    private Pipe second;
+    private Pipe third;
+
+    @Before
+    public void setup()
+    {
+        Pipe[] pipes = Pipe.pair(new ZObject[] { new Parent(), new Parent() }, new int[2], new boolean[2]);
+        first = pipes[0];
+        second = pipes[1];
+        third = Pipe.pair(new ZObject[] { new Parent(), new Parent() }, new int[2], new boolean[2])[0];
+    }
+
+    @Test
+    public void testAddSwapRemove()
+    {
+        PipeArray array = new PipeArray(PipeArray.OUTBOUND);
+        array.add(first);
+        array.add(second);
+        array.add(third);
+        assertThat(array.size(), is(3));
+        assertThat(array.indexOf(first), is(0));
+        assertThat(array.indexOf(third), is(2));
+
+        array.swap(0, 2);
+        assertThat(array.get(0), sameInstance(third));
+        assertThat(array.get(2), sameInstance(first));
+        assertThat(array.indexOf(first), is(2));
+        assertThat(array.indexOf(third), is(0));
+
+        // the last pipe takes the place of the removed one
+        assertThat(array.remove(third), is(true));
+        assertThat(array.size(), is(2));
+        assertThat(array.get(0), sameInstance(first));
+        assertThat(array.indexOf(first), is(0));
+        assertThat(array.indexOf(second), is(1));
+        assertThat(array.indexOf(third), is(-1));
+
+        assertThat(array.remove(third), is(false));
+        assertThat(array.remove(second), is(true));
+        assertThat(array.remove(first), is(true));
+        assertThat(array.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testInboundAndOutbound()
+    {
+        PipeArray inbound = new PipeArray(PipeArray.INBOUND);
+        PipeArray outbound = new PipeArray(PipeArray.OUTBOUND);
+
+        // a pipe can be both read from and written to by the same socket
+        inbound.add(first);
+        outbound.add(second);
+        outbound.add(first);
+        assertThat(inbound.indexOf(first), is(0));
+        assertThat(outbound.indexOf(first), is(1));
+
+        outbound.remove(second);
+        assertThat(inbound.indexOf(first), is(0));
+        assertThat(outbound.indexOf(first), is(0));
+        assertThat(inbound.indexOf(second), is(-1));
+    }
+
+    @Test
+    public void testGrow()
+    {
+        PipeArray array = new PipeArray(PipeArray.INBOUND);
+        Pipe[] pipes = new Pipe[100];
+        for (int idx = 0; idx < pipes.length; ++idx) {
+            pipes[idx] = Pipe.pair(new ZObject[] { new Parent(), new Parent() }, new int[2], new boolean[2])[0];
+            array.add(pipes[idx]);
+        }
+        for (int idx = 0; idx < pipes.length; ++idx) {
+            assertThat(array.indexOf(pipes[idx]), is(idx));
+        }
+    }
+}
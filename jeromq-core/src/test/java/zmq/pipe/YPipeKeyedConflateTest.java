@@ -0,0 +1,132 @@
+package zmq.pipe;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import zmq.Msg;
+import zmq.ZMQ;
+
+public class YPipeKeyedConflateTest
+{
+    @Test
+    public void testLatestByKey()
+    {
+        YPipeKeyedConflate<Msg> pipe = new YPipeKeyedConflate<>(4);
+
+        write(pipe, "AAPL 1");
+        write(pipe, "MSFT 1");
+        write(pipe, "AAPL 2");
+        write(pipe, "MSFT 2");
+        write(pipe, "AAPL 3");
+        write(pipe, "IBM  1");
+
+        // latest message of each key, in the order keys were first seen
+        assertThat(read(pipe), is("AAPL 3"));
+        assertThat(read(pipe), is("MSFT 2"));
+        assertThat(read(pipe), is("IBM  1"));
+        assertThat(pipe.checkRead(), is(false));
+        assertThat(pipe.read(), nullValue());
+    }
+
+    @Test
+    public void testMultipartByFirstFrame()
+    {
+        YPipeKeyedConflate<Msg> pipe = new YPipeKeyedConflate<>(0);
+
+        pipe.write(msg("AAPL", Msg.MORE), true);
+        pipe.write(msg("1", 0), false);
+        pipe.write(msg("AAPLE", Msg.MORE), true);
+        pipe.write(msg("1", 0), false);
+        pipe.write(msg("AAPL", Msg.MORE), true);
+        pipe.write(msg("2", 0), false);
+
+        // an incomplete message is not visible, and can be rolled back
+        pipe.write(msg("AAPL", Msg.MORE), true);
+        assertThat(str(pipe.unwrite()), is("AAPL"));
+        assertThat(pipe.unwrite(), nullValue());
+
+        assertThat(read(pipe), is("AAPL"));
+        assertThat(str(pipe.probe()), is("2"));
+        assertThat(read(pipe), is("2"));
+        assertThat(read(pipe), is("AAPLE"));
+        assertThat(read(pipe), is("1"));
+        assertThat(pipe.read(), nullValue());
+    }
+
+    @Test
+    public void testMessageBeingReadIsNotReplaced()
+    {
+        YPipeKeyedConflate<Msg> pipe = new YPipeKeyedConflate<>(0);
+
+        pipe.write(msg("AAPL", Msg.MORE), true);
+        pipe.write(msg("1", 0), false);
+        assertThat(read(pipe), is("AAPL"));
+
+        pipe.write(msg("AAPL", Msg.MORE), true);
+        pipe.write(msg("2", 0), false);
+
+        assertThat(read(pipe), is("1"));
+        assertThat(read(pipe), is("AAPL"));
+        assertThat(read(pipe), is("2"));
+    }
+
+    @Test
+    public void testDelimiterNotConflated()
+    {
+        YPipeKeyedConflate<Msg> pipe = new YPipeKeyedConflate<>(0);
+
+        Msg delimiter = new Msg();
+        delimiter.initDelimiter();
+        write(pipe, "AAPL");
+        pipe.write(delimiter, false);
+        pipe.write(delimiter, false);
+
+        assertThat(read(pipe), is("AAPL"));
+        assertThat(pipe.read().isDelimiter(), is(true));
+        assertThat(pipe.read().isDelimiter(), is(true));
+    }
+
+    @Test
+    public void testReaderWokenUpOnlyWhenAsleep()
+    {
+        YPipeKeyedConflate<Msg> pipe = new YPipeKeyedConflate<>(0);
+
+        // reader asleep until told otherwise
+        write(pipe, "AAPL");
+        assertThat(pipe.flush(), is(false));
+        write(pipe, "MSFT");
+        assertThat(pipe.flush(), is(true));
+
+        assertThat(read(pipe), is("AAPL"));
+        assertThat(read(pipe), is("MSFT"));
+        assertThat(pipe.checkRead(), is(false));
+
+        write(pipe, "IBM");
+        assertThat(pipe.flush(), is(false));
+    }
+
+    private static void write(YPipeKeyedConflate<Msg> pipe, String data)
+    {
+        pipe.write(msg(data, 0), false);
+    }
+
+    private static String read(YPipeKeyedConflate<Msg> pipe)
+    {
+        return str(pipe.read());
+    }
+
+    private static Msg msg(String data, int flags)
+    {
+        Msg msg = new Msg(data.getBytes(ZMQ.CHARSET));
+        msg.setFlags(flags);
+        return msg;
+    }
+
+    private static String str(Msg msg)
+    {
+        return new String(msg.data(), ZMQ.CHARSET);
+    }
+}
@@ -0,0 +1,125 @@
+package zmq.poll;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.Selector;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class PollSetTest
+{
+    @Test(timeout = 5000)
+    public void testPollSockets() throws IOException
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.bind(pull, "inproc://poll-set"), is(true));
+        SocketBase push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.connect(push, "inproc://poll-set"), is(true));
+
+        Selector selector = ctx.createSelector();
+        PollSet set = new PollSet(selector);
+        PollItem item = new PollItem(pull, ZMQ.ZMQ_POLLIN);
+        assertThat(set.add(item), is(true));
+        assertThat(set.add(new PollItem(pull, ZMQ.ZMQ_POLLIN)), is(false));
+        assertThat(set.size(), is(1));
+
+        assertThat(set.poll(0), is(0));
+        assertThat(ZMQ.send(push, "hello", 0), is(5));
+        assertThat(set.poll(1000), is(1));
+        assertThat(item.isReadable(), is(true));
+        assertThat(ZMQ.recv(pull, 0).size(), is(5));
+        assertThat(set.poll(10), is(0));
+        assertThat(item.isReadable(), is(false));
+
+        //  Polled again once added back
+        assertThat(set.remove(item), is(true));
+        assertThat(set.remove(item), is(false));
+        assertThat(set.poll(0), is(0));
+        assertThat(ZMQ.send(push, "hello", 0), is(5));
+        assertThat(set.add(item), is(true));
+        assertThat(set.poll(1000), is(1));
+        assertThat(set.get(0).isReadable(), is(true));
+
+        ZMQ.close(push);
+        ZMQ.close(pull);
+        ctx.closeSelector(selector);
+        ZMQ.term(ctx);
+    }
+
+    @Test(timeout = 5000)
+    public void testPollChannel() throws IOException
+    {
+        Pipe pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+        try (Selector selector = Selector.open()) {
+            PollSet set = new PollSet(selector);
+            PollItem item = new PollItem(pipe.source(), ZMQ.ZMQ_POLLIN);
+            set.add(item);
+
+            assertThat(set.poll(0), is(0));
+            pipe.sink().write(ByteBuffer.wrap(new byte[] { 42 }));
+            assertThat(set.poll(-1), is(1));
+            assertThat(item.isReadable(), is(true));
+
+            pipe.source().read(ByteBuffer.allocate(1));
+            assertThat(set.poll(10), is(0));
+        }
+        finally {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testPollWithoutAllocation() throws IOException
+    {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            //  The allocations cannot be measured on this JVM.
+            return;
+        }
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) threads;
+        if (!mx.isThreadAllocatedMemorySupported() || !mx.isThreadAllocatedMemoryEnabled()) {
+            return;
+        }
+
+        Ctx ctx = ZMQ.createContext();
+        Selector selector = ctx.createSelector();
+        PollSet set = new PollSet(selector);
+        SocketBase[] sockets = new SocketBase[5];
+        for (int idx = 0; idx < sockets.length; ++idx) {
+            sockets[idx] = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+            assertThat(ZMQ.bind(sockets[idx], "inproc://poll-set-" + idx), is(true));
+            set.add(new PollItem(sockets[idx], ZMQ.ZMQ_POLLIN));
+        }
+
+        int polls = 100_000;
+        for (int idx = 0; idx < polls; ++idx) {
+            set.poll(0);
+        }
+        long tid = Thread.currentThread().getId();
+        long before = mx.getThreadAllocatedBytes(tid);
+        for (int idx = 0; idx < polls; ++idx) {
+            set.poll(0);
+        }
+        long allocated = mx.getThreadAllocatedBytes(tid) - before;
+        assertThat("allocated " + allocated + " bytes", allocated < polls, is(true));
+
+        for (SocketBase socket : sockets) {
+            ZMQ.close(socket);
+        }
+        ctx.closeSelector(selector);
+        ZMQ.term(ctx);
+    }
+}
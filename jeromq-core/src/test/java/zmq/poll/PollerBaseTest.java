@@ -153,4 +153,47 @@ public class PollerBaseTest
         assertThat(timeout, is(0L));
         assertThat(poller.isEmpty(), is(true));
     }
+
+    @Test
+    public void testTimerWheel()
+    {
+        final PollerBaseTested poller = new PollerBaseTested(true);
+
+        final AtomicInteger counter = new AtomicInteger();
+        PollEvents sink = new PollEvents()
+        {
+            @Override
+            public void timerEvent(int id)
+            {
+                counter.addAndGet(id);
+                if (id == 1) {
+                    poller.addTimer(100, this, id);
+                }
+            }
+        };
+
+        poller.addTimer(1000, sink, 1);
+        poller.addTimer(5000, sink, 10);
+        poller.addTimer(2000, sink, 100);
+        // added again, the timer is rescheduled
+        poller.addTimer(500, sink, 10);
+        long timeout = poller.executeTimers();
+        assertThat(timeout, is(500L));
+
+        poller.cancelTimer(sink, 10);
+        timeout = poller.executeTimers();
+        assertThat(timeout, is(1000L));
+
+        poller.clock(1000);
+        timeout = poller.executeTimers();
+        assertThat(counter.get(), is(1));
+        assertThat(timeout, is(100L));
+
+        poller.cancelTimer(sink, 1);
+        poller.clock(2000);
+        timeout = poller.executeTimers();
+        assertThat(counter.get(), is(101));
+        assertThat(timeout, is(0L));
+        assertThat(poller.isEmpty(), is(true));
+    }
 }
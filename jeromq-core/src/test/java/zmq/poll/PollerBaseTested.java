@@ -6,7 +6,12 @@ class PollerBaseTested extends PollerBase
 
     PollerBaseTested()
     {
-        super("test", (s, r) -> Thread.currentThread());
+        this(false);
+    }
+
+    PollerBaseTested(boolean timerWheel)
+    {
+        super("test", (s, r) -> Thread.currentThread(), timerWheel);
     }
 
     void clock(long clock)
@@ -1,6 +1,11 @@
 package zmq.poll;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.Pipe;
@@ -84,4 +89,169 @@ public class PollerTest
         new Poller(ctx, "test");
         catched.await();
     }
+
+    @Test(timeout = 5000)
+    public void removeAndAddHandleInSameIteration() throws IOException, InterruptedException
+    {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Ctx ctx = new Ctx();
+        ctx.setNotificationExceptionHandler((t, e) -> failure.set(e));
+        Poller poller = new Poller(ctx, "test");
+        Pipe signaler = Pipe.open();
+        try (Pipe.SourceChannel source = signaler.source();
+            Pipe.SinkChannel sink = signaler.sink()
+        ) {
+            source.configureBlocking(false);
+            CountDownLatch replaced = new CountDownLatch(1);
+            CountDownLatch received = new CountDownLatch(1);
+            AtomicReference<Poller.Handle> first = new AtomicReference<>();
+            first.set(poller.addHandle(source, new IPollEvents()
+            {
+                @Override
+                public void inEvent()
+                {
+                    drain(source);
+                    //  The channel is registered again while its key is cancelled but not dropped yet
+                    poller.removeHandle(first.get());
+                    Poller.Handle second = poller.addHandle(source, new IPollEvents()
+                    {
+                        @Override
+                        public void inEvent()
+                        {
+                            drain(source);
+                            received.countDown();
+                        }
+                    });
+                    poller.setPollIn(second);
+                    replaced.countDown();
+                }
+            }));
+            poller.setPollIn(first.get());
+            poller.start();
+            sink.write(ByteBuffer.allocate(1));
+            replaced.await();
+            sink.write(ByteBuffer.allocate(1));
+            received.await();
+            assertThat(failure.get(), nullValue());
+            poller.destroy();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void changeInterestOnCancelledKey() throws IOException, InterruptedException
+    {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicReference<Selector> selectorRef = new AtomicReference<>();
+        Ctx ctx = new Ctx()
+        {
+            @Override
+            public Selector createSelector()
+            {
+                selectorRef.set(super.createSelector());
+                return selectorRef.get();
+            }
+        };
+        ctx.setNotificationExceptionHandler((t, e) -> failure.set(e));
+        Poller poller = new Poller(ctx, "test");
+        Pipe signaler = Pipe.open();
+        try (Pipe.SourceChannel source = signaler.source();
+            Pipe.SinkChannel sink = signaler.sink()
+        ) {
+            source.configureBlocking(false);
+            CountDownLatch cancelled = new CountDownLatch(1);
+            CountDownLatch received = new CountDownLatch(1);
+            AtomicReference<Poller.Handle> handle = new AtomicReference<>();
+            handle.set(poller.addHandle(source, new IPollEvents()
+            {
+                @Override
+                public void inEvent()
+                {
+                    drain(source);
+                    if (cancelled.getCount() == 0) {
+                        received.countDown();
+                        return;
+                    }
+                    //  The channel is still open, the handle keeps its events
+                    source.keyFor(selectorRef.get()).cancel();
+                    poller.resetPollIn(handle.get());
+                    poller.setPollIn(handle.get());
+                    cancelled.countDown();
+                }
+            }));
+            poller.setPollIn(handle.get());
+            poller.start();
+            sink.write(ByteBuffer.allocate(1));
+            cancelled.await();
+            sink.write(ByteBuffer.allocate(1));
+            received.await();
+            assertThat(failure.get(), nullValue());
+            poller.destroy();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void closeChannelWithoutUpdate() throws IOException, InterruptedException
+    {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Ctx ctx = new Ctx();
+        ctx.setNotificationExceptionHandler((t, e) -> failure.set(e));
+        Poller poller = new Poller(ctx, "test");
+        Pipe closing = Pipe.open();
+        Pipe signaler = Pipe.open();
+        try (Pipe.SourceChannel closed = closing.source();
+            Pipe.SinkChannel unused = closing.sink();
+            Pipe.SourceChannel source = signaler.source();
+            Pipe.SinkChannel sink = signaler.sink()
+        ) {
+            closed.configureBlocking(false);
+            source.configureBlocking(false);
+            Poller.Handle handle = poller.addHandle(closed, new IPollEvents()
+            {
+                @Override
+                public void inEvent()
+                {
+                    failure.set(new AssertionError("Event on a closed channel"));
+                }
+            });
+            poller.setPollIn(handle);
+            CountDownLatch updated = new CountDownLatch(1);
+            CountDownLatch received = new CountDownLatch(1);
+            poller.setPollIn(poller.addHandle(source, new IPollEvents()
+            {
+                @Override
+                public void inEvent()
+                {
+                    drain(source);
+                    if (updated.getCount() == 0) {
+                        received.countDown();
+                        return;
+                    }
+                    //  The handle of the closed channel is still there, and can be updated or removed
+                    poller.resetPollIn(handle);
+                    poller.removeHandle(handle);
+                    updated.countDown();
+                }
+            }));
+            poller.start();
+            //  The key of the channel is cancelled behind the back of the poller
+            closed.close();
+            sink.write(ByteBuffer.allocate(1));
+            updated.await();
+            sink.write(ByteBuffer.allocate(1));
+            received.await();
+            assertThat(failure.get(), nullValue());
+            assertThat(poller.getLoad(), is(1));
+            poller.destroy();
+        }
+    }
+
+    private static void drain(Pipe.SourceChannel source)
+    {
+        try {
+            source.read(ByteBuffer.allocate(16));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
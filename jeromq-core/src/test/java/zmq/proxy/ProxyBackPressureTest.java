@@ -0,0 +1,88 @@
+package zmq.proxy;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+public class ProxyBackPressureTest
+{
+    private static final int MESSAGES = 10_000;
+
+    @Test(timeout = 20000)
+    public void testProxyKeepsMessagesWhenFull() throws InterruptedException, ExecutionException
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase frontend = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.bind(frontend, "inproc://frontend"), is(true));
+        SocketBase backend = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.setSocketOption(backend, ZMQ.ZMQ_SNDHWM, 10), is(true));
+        assertThat(ZMQ.bind(backend, "inproc://backend"), is(true));
+        SocketBase control = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        assertThat(ZMQ.bind(control, "inproc://control"), is(true));
+        SocketBase steer = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        assertThat(ZMQ.connect(steer, "inproc://control"), is(true));
+
+        CompletableFuture<Boolean> proxy = new CompletableFuture<>();
+        Thread thread = new Thread(() -> proxy.complete(ZMQ.proxy(frontend, backend, null, control)));
+        thread.setUncaughtExceptionHandler((t, e) -> proxy.completeExceptionally(e));
+        thread.start();
+
+        // More messages than the pipes can hold while nobody consumes them
+        SocketBase producer = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        assertThat(ZMQ.connect(producer, "inproc://frontend"), is(true));
+        Thread sender = new Thread(() -> {
+            for (int idx = 0; idx < MESSAGES; ++idx) {
+                ZMQ.send(producer, "key", ZMQ.ZMQ_SNDMORE);
+                ZMQ.send(producer, Integer.toString(idx), 0);
+            }
+        });
+        sender.start();
+        ZMQ.msleep(200);
+
+        // None is dropped nor reordered once a consumer drains them
+        SocketBase consumer = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        assertThat(ZMQ.setSocketOption(consumer, ZMQ.ZMQ_RCVHWM, 10), is(true));
+        assertThat(ZMQ.connect(consumer, "inproc://backend"), is(true));
+        for (int idx = 0; idx < MESSAGES; ++idx) {
+            Msg key = ZMQ.recv(consumer, 0);
+            assertThat(key, notNullValue());
+            assertThat(key.hasMore(), is(true));
+            Msg value = ZMQ.recv(consumer, 0);
+            assertThat(new String(value.data(), ZMQ.CHARSET), is(Integer.toString(idx)));
+            assertThat(value.hasMore(), is(false));
+        }
+        sender.join();
+
+        // Nothing is forwarded while paused
+        assertThat(ZMQ.send(steer, ZMQ.PROXY_PAUSE, 0), is(5));
+        ZMQ.msleep(100);
+        assertThat(ZMQ.send(producer, "paused", 0), is(6));
+        assertThat(ZMQ.setSocketOption(consumer, ZMQ.ZMQ_RCVTIMEO, 200), is(true));
+        assertThat(ZMQ.recv(consumer, 0), nullValue());
+        assertThat(ZMQ.send(steer, ZMQ.PROXY_RESUME, 0), is(6));
+        assertThat(new String(ZMQ.recv(consumer, 0).data(), ZMQ.CHARSET), is("paused"));
+
+        assertThat(ZMQ.send(steer, ZMQ.PROXY_TERMINATE, 0), is(9));
+        assertThat(proxy.get(), is(true));
+
+        ZMQ.close(producer);
+        ZMQ.close(consumer);
+        ZMQ.close(steer);
+        ZMQ.close(control);
+        ZMQ.close(frontend);
+        ZMQ.close(backend);
+        ZMQ.term(ctx);
+    }
+}
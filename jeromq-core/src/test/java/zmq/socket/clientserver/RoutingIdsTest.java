@@ -0,0 +1,89 @@
+package zmq.socket.clientserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class RoutingIdsTest
+{
+    private static final int SLOT_MASK = 0xfffff;
+
+    @Test
+    public void testUnique()
+    {
+        RoutingIds ids = new RoutingIds();
+        Set<Integer> acquired = new HashSet<>();
+        for (int idx = 0; idx < 100000; ++idx) {
+            int id = ids.acquire();
+            assertThat(id, is(not(0)));
+            assertThat(acquired.add(id), is(true));
+        }
+    }
+
+    @Test
+    public void testDense()
+    {
+        RoutingIds ids = new RoutingIds();
+        int first = ids.acquire();
+        int second = ids.acquire();
+
+        assertThat(first & SLOT_MASK, is(1));
+        assertThat(second & SLOT_MASK, is(2));
+    }
+
+    @Test
+    public void testReuseFreedSlot()
+    {
+        RoutingIds ids = new RoutingIds();
+        int first = ids.acquire();
+        ids.acquire();
+        ids.release(first);
+
+        int reused = ids.acquire();
+        assertThat(reused & SLOT_MASK, is(first & SLOT_MASK));
+        assertThat(reused, is(not(first)));
+    }
+
+    @Test
+    public void testReuseInReleaseOrder()
+    {
+        RoutingIds ids = new RoutingIds();
+        int[] acquired = new int[100];
+        for (int idx = 0; idx < acquired.length; ++idx) {
+            acquired[idx] = ids.acquire();
+        }
+        for (int idx = acquired.length - 1; idx >= 0; --idx) {
+            ids.release(acquired[idx]);
+        }
+        for (int idx = acquired.length - 1; idx >= 0; --idx) {
+            assertThat(ids.acquire() & SLOT_MASK, is(acquired[idx] & SLOT_MASK));
+        }
+        assertThat(ids.acquire() & SLOT_MASK, is(acquired.length + 1));
+    }
+
+    @Test
+    public void testRetireWrappedSlot()
+    {
+        RoutingIds ids = new RoutingIds();
+        Set<Integer> acquired = new HashSet<>();
+
+        // Churns a single slot through all its generations
+        int generations = 1 << (Integer.SIZE - Integer.bitCount(SLOT_MASK));
+        for (int idx = 0; idx < generations; ++idx) {
+            int id = ids.acquire();
+            assertThat(id & SLOT_MASK, is(1));
+            assertThat(acquired.add(id), is(true));
+            ids.release(id);
+        }
+
+        // Past the wrap, the slot is not reused
+        int id = ids.acquire();
+        assertThat(id & SLOT_MASK, is(2));
+        assertThat(acquired.add(id), is(true));
+    }
+}
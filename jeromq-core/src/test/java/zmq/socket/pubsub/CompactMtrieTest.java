@@ -0,0 +1,283 @@
+package zmq.socket.pubsub;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZError;
+import zmq.ZMQ;
+import zmq.ZObject;
+import zmq.pipe.Pipe;
+import zmq.socket.pubsub.IMtrie.IMtrieHandler;
+
+public class CompactMtrieTest
+{
+    private static final class Collector implements IMtrieHandler
+    {
+        private final Set<Object> collected = new HashSet<>();
+
+        @Override
+        public void invoke(Pipe pipe, byte[] data, int size, XPub pub)
+        {
+            collected.add(pipe == null ? new String(data, 0, size, ZMQ.CHARSET) : pipe);
+        }
+    }
+
+    private static final Msg prefix = new Msg(new byte[] { 1, 2, 3, 4, 5 });
+
+    private Ctx  ctx;
+    private XPub pub;
+    private Pipe pipe;
+
+    @Before
+    public void setUp()
+    {
+        ctx = ZMQ.createContext();
+        pub = new XPub(ctx, 0, 0);
+        pipe = createPipe();
+    }
+
+    @After
+    public void tearDown()
+    {
+        ZMQ.term(ctx);
+    }
+
+    private Pipe createPipe()
+    {
+        ZObject object = new ZObject(null, 0)
+        {
+        };
+        Pipe[] pair = Pipe.pair(new ZObject[] { object, object }, new int[2], new boolean[2]);
+        return pair[0];
+    }
+
+    @Test
+    public void testAddRemoveNodeOnTop()
+    {
+        CompactMtrie mtrie = new CompactMtrie();
+
+        assertThat(mtrie.addOnTop(pipe), is(true));
+        assertThat(mtrie.rm(new Msg(1), pipe), is(true));
+        assertThat(mtrie.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testAddRemoveMultiNodesSameLevel()
+    {
+        CompactMtrie mtrie = new CompactMtrie();
+        Pipe other = createPipe();
+
+        assertThat(mtrie.add(prefix, pipe), is(true));
+        assertThat(mtrie.add(prefix, other), is(false));
+
+        assertThat(mtrie.rm(prefix, pipe), is(false));
+        assertThat(mtrie.rm(prefix, other), is(true));
+        assertThat(mtrie.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testSplitAndMergeEdges()
+    {
+        CompactMtrie mtrie = new CompactMtrie();
+        Pipe other = createPipe();
+
+        assertThat(mtrie.add(msg("topic/a"), pipe), is(true));
+        assertThat(mtrie.add(msg("topic/b"), other), is(true));
+        assertThat(mtrie.add(msg("top"), other), is(true));
+        assertThat(match(mtrie, "topic/abc"), is(set(pipe, other)));
+        assertThat(match(mtrie, "topic/b"), is(set(other)));
+        assertThat(match(mtrie, "topi"), is(set(other)));
+        assertThat(match(mtrie, "to"), is(set()));
+
+        assertThat(mtrie.rm(msg("topic/b"), pipe), is(false));
+        assertThat(mtrie.rm(msg("topic/b"), other), is(true));
+        assertThat(mtrie.rm(msg("top"), other), is(true));
+        assertThat(match(mtrie, "topic/abc"), is(set(pipe)));
+        assertThat(match(mtrie, "topic/b"), is(set()));
+
+        assertThat(mtrie.rm(msg("topic/a"), pipe), is(true));
+        assertThat(mtrie.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRemovePipeWithFunctionCall()
+    {
+        CompactMtrie mtrie = new CompactMtrie();
+        Pipe other = createPipe();
+
+        mtrie.add(msg("abc"), pipe);
+        mtrie.add(msg("abd"), pipe);
+        mtrie.add(msg("abd"), other);
+        mtrie.addOnTop(pipe);
+
+        Collector unsubscribed = new Collector();
+        assertThat(mtrie.rm(pipe, unsubscribed, null), is(true));
+        assertThat(unsubscribed.collected, is(set("", "abc")));
+        assertThat(match(mtrie, "abd"), is(set(other)));
+
+        unsubscribed = new Collector();
+        mtrie.rm(other, unsubscribed, null);
+        assertThat(unsubscribed.collected, is(set("abd")));
+        assertThat(mtrie.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testManyPipes()
+    {
+        CompactMtrie mtrie = new CompactMtrie();
+        List<Pipe> pipes = new ArrayList<>();
+        for (int idx = 0; idx < 500; ++idx) {
+            Pipe pipe = createPipe();
+            pipes.add(pipe);
+            mtrie.add(msg("all"), pipe);
+        }
+        assertThat(match(mtrie, "all"), is(new HashSet<Object>(pipes)));
+
+        for (int idx = 0; idx < pipes.size(); idx += 2) {
+            mtrie.rm(msg("all"), pipes.get(idx));
+        }
+        Set<Object> expected = new HashSet<>();
+        for (int idx = 1; idx < pipes.size(); idx += 2) {
+            expected.add(pipes.get(idx));
+        }
+        assertThat(match(mtrie, "all"), is(expected));
+    }
+
+    @Test
+    public void testSameAsMtrie()
+    {
+        Random random = new Random(42);
+        Mtrie mtrie = new Mtrie();
+        CompactMtrie compact = new CompactMtrie();
+        List<Pipe> pipes = new ArrayList<>();
+        Map<Pipe, Set<String>> subscribed = new HashMap<>();
+        for (int idx = 0; idx < 20; ++idx) {
+            Pipe pipe = createPipe();
+            pipes.add(pipe);
+            subscribed.put(pipe, new HashSet<>());
+        }
+
+        for (int round = 0; round < 3000; ++round) {
+            Pipe pipe = pipes.get(random.nextInt(pipes.size()));
+            String topic = topic(random);
+            int action = random.nextInt(10);
+            if (action < 6) {
+                subscribed.get(pipe).add(topic);
+                assertThat(topic, compact.add(msg(topic), pipe), is(mtrie.add(msg(topic), pipe)));
+            }
+            else if (action < 9) {
+                //  Mtrie asserts that the removed subscriptions exist.
+                if (subscribed.get(pipe).remove(topic)) {
+                    assertThat(topic, compact.rm(msg(topic), pipe), is(mtrie.rm(msg(topic), pipe)));
+                }
+            }
+            else {
+                Collector expected = new Collector();
+                Collector actual = new Collector();
+                subscribed.get(pipe).clear();
+                mtrie.rm(pipe, expected, null);
+                compact.rm(pipe, actual, null);
+                assertThat(actual.collected, is(expected.collected));
+            }
+            String data = topic(random) + topic(random);
+            Set<Object> matching = match(mtrie, data);
+            assertThat(data, match(compact, data), is(matching));
+            assertThat(data, matching(mtrie, data, pipes), is(matching.size()));
+            assertThat(data, matching(compact, data, pipes), is(matching.size()));
+        }
+    }
+
+    @Test
+    public void testSocketOption()
+    {
+        SocketBase publisher = ZMQ.socket(ctx, ZMQ.ZMQ_XPUB);
+        SocketBase subscriber = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+
+        assertThat(ZMQ.setSocketOption(publisher, ZMQ.ZMQ_COMPACT_TRIE, true), is(true));
+        assertThat(ZMQ.setSocketOption(subscriber, ZMQ.ZMQ_COMPACT_TRIE, true), is(true));
+        assertThat(ZMQ.getSocketOption(publisher, ZMQ.ZMQ_COMPACT_TRIE), is(1));
+
+        assertThat(ZMQ.bind(publisher, "inproc://compact"), is(true));
+        assertThat(ZMQ.connect(subscriber, "inproc://compact"), is(true));
+        assertThat(ZMQ.setSocketOption(subscriber, ZMQ.ZMQ_SUBSCRIBE, "topic"), is(true));
+
+        Msg subscription = ZMQ.recv(publisher, 0);
+        assertThat(subscription.size(), is(6));
+        assertThat(ZMQ.setSocketOption(publisher, ZMQ.ZMQ_COMPACT_TRIE, false), is(false));
+        assertThat(publisher.errno(), is(ZError.EFSM));
+        assertThat(ZMQ.setSocketOption(subscriber, ZMQ.ZMQ_COMPACT_TRIE, false), is(false));
+
+        ZMQ.send(publisher, "other", 0);
+        ZMQ.send(publisher, "topic abc", 0);
+        Msg msg = ZMQ.recv(subscriber, 0);
+        assertThat(new String(msg.data(), ZMQ.CHARSET), is("topic abc"));
+
+        ZMQ.close(subscriber);
+        ZMQ.close(publisher);
+    }
+
+    private static String topic(Random random)
+    {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(4);
+        for (int idx = 0; idx < length; ++idx) {
+            builder.append((char) ('a' + random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+
+    private static Msg msg(String topic)
+    {
+        byte[] data = topic.getBytes(ZMQ.CHARSET);
+        Msg msg = new Msg(data.length + 1);
+        msg.put((byte) 1).put(data);
+        return msg;
+    }
+
+    private Set<Object> match(IMtrie mtrie, String data)
+    {
+        Set<Object> matching = new HashSet<>();
+        Msg msg = new Msg(data.getBytes(ZMQ.CHARSET));
+        mtrie.match(msg.buf(), msg.size(), (pipe, d, size, self) -> matching.add(pipe), pub);
+        return matching;
+    }
+
+    //  Number of pipes marked as matching in a distributor.
+    private static int matching(IMtrie mtrie, String data, List<Pipe> pipes)
+    {
+        Dist dist = new Dist();
+        for (Pipe pipe : pipes) {
+            dist.attach(pipe);
+        }
+        mtrie.match(new Msg(data.getBytes(ZMQ.CHARSET)), dist);
+        int matching = dist.matching();
+        for (Pipe pipe : pipes) {
+            dist.terminated(pipe);
+        }
+        return matching;
+    }
+
+    private static Set<Object> set(Object... items)
+    {
+        Set<Object> set = new HashSet<>();
+        for (Object item : items) {
+            set.add(item);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,167 @@
+package zmq.socket.pubsub;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import zmq.Msg;
+import zmq.ZMQ;
+import zmq.ZObject;
+import zmq.pipe.Pipe;
+
+public class CompactTrieTest
+{
+    @Test
+    public void testAddRemoveNodeOnTop()
+    {
+        CompactTrie trie = new CompactTrie();
+
+        assertThat(trie.add(null, 0, 0), is(true));
+        assertThat(trie.check(data("anything")), is(true));
+        assertThat(trie.rm(null, 0, 0), is(true));
+        assertThat(trie.rm(null, 0, 0), is(false));
+        assertThat(trie.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRefCount()
+    {
+        CompactTrie trie = new CompactTrie();
+
+        assertThat(trie.add(msg("topic"), 0, 5), is(true));
+        assertThat(trie.add(msg("topic"), 0, 5), is(false));
+        assertThat(trie.rm(msg("topic"), 0, 5), is(false));
+        assertThat(trie.check(data("topic/a")), is(true));
+        assertThat(trie.rm(msg("topic"), 0, 5), is(true));
+        assertThat(trie.check(data("topic/a")), is(false));
+        assertThat(trie.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testManyChildren()
+    {
+        CompactTrie trie = new CompactTrie();
+        for (int c = 0; c < 256; ++c) {
+            trie.add(new Msg(new byte[] { 42, (byte) c }), 0, 2);
+        }
+        for (int c = 0; c < 256; ++c) {
+            assertThat(trie.check(ByteBuffer.wrap(new byte[] { 42, (byte) c, 0 })), is(true));
+        }
+        for (int c = 0; c < 256; c += 2) {
+            trie.rm(new Msg(new byte[] { 42, (byte) c }), 0, 2);
+        }
+        for (int c = 0; c < 256; ++c) {
+            assertThat(trie.check(ByteBuffer.wrap(new byte[] { 42, (byte) c, 0 })), is(c % 2 == 1));
+        }
+    }
+
+    @Test
+    public void testSameAsTrie()
+    {
+        Random random = new Random(42);
+        Trie trie = new Trie();
+        CompactTrie compact = new CompactTrie();
+
+        for (int round = 0; round < 5000; ++round) {
+            String topic = topic(random);
+            Msg msg = msg(topic);
+            if (random.nextInt(3) < 2) {
+                assertThat(topic, compact.add(msg, 0, msg.size()), is(trie.add(msg, 0, msg.size())));
+            }
+            else {
+                assertThat(topic, compact.rm(msg, 0, msg.size()), is(trie.rm(msg, 0, msg.size())));
+            }
+            String data = topic(random) + topic(random);
+            assertThat(data, compact.check(data(data)), is(trie.check(data(data))));
+        }
+        assertThat(applied(compact), is(applied(trie)));
+    }
+
+    @Test
+    public void testApplyShortest()
+    {
+        CompactTrie trie = new CompactTrie();
+        for (String topic : new String[] { "abc", "abd", "abde", "ac", "b" }) {
+            trie.add(msg(topic), 0, topic.length());
+        }
+        assertThat(shortest(trie, ""), is(Arrays.asList("abc", "abd", "ac", "b")));
+        assertThat(shortest(trie, "a"), is(Arrays.asList("abc", "abd", "ac")));
+        assertThat(shortest(trie, "abd"), is(Arrays.asList("abd")));
+        assertThat(shortest(trie, "abe"), is(Arrays.asList()));
+        assertThat(shortest(trie, "c"), is(Arrays.asList()));
+
+        trie.rm(msg("abd"), 0, 3);
+        assertThat(shortest(trie, "ab"), is(Arrays.asList("abc", "abde")));
+        assertThat(shortest(trie, "abd"), is(Arrays.asList("abde")));
+    }
+
+    @Test
+    public void testApplyShortestSameAsTrie()
+    {
+        Random random = new Random(42);
+        Trie trie = new Trie();
+        CompactTrie compact = new CompactTrie();
+
+        for (int round = 0; round < 5000; ++round) {
+            Msg msg = msg(topic(random));
+            if (random.nextInt(3) < 2) {
+                trie.add(msg, 0, msg.size());
+                compact.add(msg, 0, msg.size());
+            }
+            else {
+                trie.rm(msg, 0, msg.size());
+                compact.rm(msg, 0, msg.size());
+            }
+            String key = topic(random);
+            assertThat(key, shortest(compact, key), is(shortest(trie, key)));
+        }
+    }
+
+    private static List<String> shortest(ITrie trie, String key)
+    {
+        List<String> subscriptions = new ArrayList<>();
+        trie.applyShortest(msg(key), 0, key.length(),
+                (data, size, arg) -> subscriptions.add(new String(data, 0, size, ZMQ.CHARSET)), null);
+        subscriptions.sort(null);
+        return subscriptions;
+    }
+
+    private static List<String> applied(ITrie trie)
+    {
+        ZObject object = new ZObject(null, 0)
+        {
+        };
+        Pipe pipe = Pipe.pair(new ZObject[] { object, object }, new int[2], new boolean[2])[0];
+        List<String> subscriptions = new ArrayList<>();
+        trie.apply((data, size, arg) -> subscriptions.add(size == 0 ? "" : new String(data, 0, size, ZMQ.CHARSET)), pipe);
+        subscriptions.sort(null);
+        return subscriptions;
+    }
+
+    private static String topic(Random random)
+    {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(5);
+        for (int idx = 0; idx < length; ++idx) {
+            builder.append((char) ('a' + random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+
+    private static Msg msg(String topic)
+    {
+        return new Msg(topic.getBytes(ZMQ.CHARSET));
+    }
+
+    private static ByteBuffer data(String data)
+    {
+        return ByteBuffer.wrap(data.getBytes(ZMQ.CHARSET));
+    }
+}
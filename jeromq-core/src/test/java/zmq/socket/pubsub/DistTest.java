@@ -8,6 +8,7 @@ import zmq.ZObject;
 import zmq.pipe.Pipe;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class DistTest
@@ -145,4 +146,100 @@ public class DistTest
         // second pipe is not a matching one
         assertThat(dist.matching(), is(1));
     }
+
+    @Test
+    public void testFanout()
+    {
+        Fanout fanout = new Fanout(3, (runnable, name) -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        }, "fanout");
+        try {
+            Dist dist = new Dist();
+            dist.setFanout(fanout);
+
+            // enough pipes for 3 shards, every other one accepting a single message
+            int count = Fanout.MIN_SHARD * 3;
+            Pipe[] remotes = new Pipe[count];
+            for (int idx = 0; idx < count; ++idx) {
+                Pipe[] pipes = Pipe.pair(new ZObject[] {new Parent(), new Parent()}, new int[] {idx % 2, 0}, new boolean[2]);
+                dist.attach(pipes[0]);
+                remotes[idx] = pipes[1];
+            }
+
+            dist.sendToAll(new Msg(new byte[] {1}));
+            assertThat(fanout.shards(), is(3));
+            assertThat(dist.eligible(), is(count));
+            assertThat(dist.active(), is(count));
+
+            // the pipes having reached HWM are put out of the active and eligible ones
+            dist.sendToAll(new Msg(new byte[] {2}));
+            assertThat(dist.eligible(), is(count / 2));
+            assertThat(dist.active(), is(count / 2));
+
+            // reading from the pipes with a HWM would send activation commands
+            for (int idx = 0; idx < count; idx += 2) {
+                assertThat(remotes[idx].read().get(0), is((byte) 1));
+                assertThat(remotes[idx].read().get(0), is((byte) 2));
+            }
+        }
+        finally {
+            fanout.close();
+        }
+    }
+
+    @Test
+    public void testFanoutShardsChanging()
+    {
+        Fanout fanout = new Fanout(4, (runnable, name) -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        }, "fanout");
+        try {
+            Dist dist = new Dist();
+            dist.setFanout(fanout);
+
+            int count = Fanout.MIN_SHARD * 4;
+            Pipe[] locals = new Pipe[count];
+            Pipe[] remotes = new Pipe[count];
+            for (int idx = 0; idx < count; ++idx) {
+                Pipe[] pipes = Pipe.pair(new ZObject[] {new Parent(), new Parent()}, new int[] {0, 0}, new boolean[2]);
+                dist.attach(pipes[0]);
+                locals[idx] = pipes[0];
+                remotes[idx] = pipes[1];
+            }
+
+            // every other message is written by 4 shards, the next ones by 2 only
+            int rounds = 100;
+            for (int round = 0; round < rounds; ++round) {
+                if (round % 2 == 0) {
+                    dist.sendToAll(new Msg(new byte[] {(byte) round}));
+                    assertThat(fanout.shards(), is(4));
+                }
+                else {
+                    dist.unmatch();
+                    for (int idx = 0; idx < count / 2; ++idx) {
+                        dist.match(locals[idx]);
+                    }
+                    dist.sendToMatching(new Msg(new byte[] {(byte) round}));
+                    assertThat(fanout.shards(), is(2));
+                }
+            }
+
+            // each pipe got the messages it matched, once and in order
+            for (int idx = 0; idx < count; ++idx) {
+                for (int round = 0; round < rounds; ++round) {
+                    if (round % 2 == 0 || idx < count / 2) {
+                        assertThat(remotes[idx].read().get(0), is((byte) round));
+                    }
+                }
+                assertThat(remotes[idx].read(), nullValue());
+            }
+        }
+        finally {
+            fanout.close();
+        }
+    }
 }
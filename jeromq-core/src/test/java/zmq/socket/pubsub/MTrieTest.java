@@ -12,7 +12,7 @@ import org.junit.Test;
 import zmq.Msg;
 import zmq.ZObject;
 import zmq.pipe.Pipe;
-import zmq.socket.pubsub.Mtrie.IMtrieHandler;
+import zmq.socket.pubsub.IMtrie.IMtrieHandler;
 
 public class MTrieTest
 {
@@ -8,6 +8,7 @@ import zmq.ZMQ;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class XPubManualTest
@@ -97,4 +98,63 @@ public class XPubManualTest
         ZMQ.close(subConnect2);
         ZMQ.term(ctx);
     }
+
+    @Test
+    public void testXpubReplay()
+    {
+        Ctx ctx = ZMQ.init(1);
+
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_XPUB);
+        assertThat(ZMQ.bind(pub, "inproc://replay"), is(true));
+
+        //  Replay is only meaningful in manual mode
+        assertThat(ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_REPLAY, true), is(false));
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_MANUAL, true);
+
+        SocketBase subA = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(subA, ZMQ.ZMQ_SUBSCRIBE, "A");
+        assertThat(ZMQ.connect(subA, "inproc://replay"), is(true));
+
+        Msg sub = ZMQ.recv(pub, ZMQ.ZMQ_DONTWAIT);
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_SUBSCRIBE, sub.data());
+
+        SocketBase subB = ZMQ.socket(ctx, ZMQ.ZMQ_SUB);
+        ZMQ.setSocketOption(subB, ZMQ.ZMQ_SUBSCRIBE, "A");
+        ZMQ.setSocketOption(subB, ZMQ.ZMQ_SUBSCRIBE, "B");
+        assertThat(ZMQ.connect(subB, "inproc://replay"), is(true));
+
+        while ((sub = ZMQ.recv(pub, ZMQ.ZMQ_DONTWAIT)) != null) {
+            ZMQ.setSocketOption(pub, ZMQ.ZMQ_SUBSCRIBE, sub.data());
+        }
+
+        //  Sent to the last subscriber only
+        assertThat(ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_REPLAY, true), is(true));
+        assertThat(ZMQ.send(pub, "A0", 0), is(2));
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_REPLAY, false);
+
+        assertThat(ZMQ.send(pub, "A1", 0), is(2));
+        assertThat(ZMQ.send(pub, "B1", 0), is(2));
+
+        assertThat(ZMQ.recv(subA, 0).data(), is("A1".getBytes(ZMQ.CHARSET)));
+        assertThat(ZMQ.recv(subA, ZMQ.ZMQ_DONTWAIT), nullValue());
+        assertThat(ZMQ.recv(subB, 0).data(), is("A0".getBytes(ZMQ.CHARSET)));
+        assertThat(ZMQ.recv(subB, 0).data(), is("A1".getBytes(ZMQ.CHARSET)));
+        assertThat(ZMQ.recv(subB, 0).data(), is("B1".getBytes(ZMQ.CHARSET)));
+
+        //  Nobody to replay to once the last subscriber is gone
+        ZMQ.close(subB);
+        ZMQ.msleep(100);
+        while (ZMQ.recv(pub, ZMQ.ZMQ_DONTWAIT) != null) {
+            //  Unsubscription of the closed subscriber.
+        }
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_REPLAY, true);
+        assertThat(ZMQ.send(pub, "A2", 0), is(2));
+        ZMQ.setSocketOption(pub, ZMQ.ZMQ_XPUB_REPLAY, false);
+        assertThat(ZMQ.send(pub, "A3", 0), is(2));
+        assertThat(ZMQ.recv(subA, 0).data(), is("A3".getBytes(ZMQ.CHARSET)));
+
+        ZMQ.close(pub);
+        ZMQ.close(subA);
+        ZMQ.term(ctx);
+    }
 }
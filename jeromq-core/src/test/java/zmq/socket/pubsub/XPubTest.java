@@ -7,6 +7,7 @@ import org.junit.Test;
 
 import zmq.Ctx;
 import zmq.SocketBase;
+import zmq.ZError;
 import zmq.ZMQ;
 
 public class XPubTest
@@ -44,4 +45,24 @@ public class XPubTest
             ZMQ.term(ctx);
         }
     }
+
+    @Test
+    public void testSetFanoutThreads()
+    {
+        Ctx ctx = ZMQ.createContext();
+        SocketBase pub = null;
+        try {
+            pub = ctx.createSocket(ZMQ.ZMQ_XPUB);
+
+            assertThat(pub.setSocketOpt(ZMQ.ZMQ_FANOUT_THREADS, -1), is(false));
+            assertThat(pub.errno(), is(ZError.EINVAL));
+            assertThat(pub.setSocketOpt(ZMQ.ZMQ_FANOUT_THREADS, 4), is(true));
+            assertThat(pub.getSocketOpt(ZMQ.ZMQ_FANOUT_THREADS), is(4));
+            assertThat(pub.setSocketOpt(ZMQ.ZMQ_FANOUT_THREADS, 0), is(true));
+        }
+        finally {
+            ZMQ.close(pub);
+            ZMQ.term(ctx);
+        }
+    }
 }
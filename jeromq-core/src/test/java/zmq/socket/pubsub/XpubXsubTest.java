@@ -227,4 +227,73 @@ public class XpubXsubTest
         zmq.ZMQ.term(ctx);
         System.out.println("Done.");
     }
+
+    @Test(timeout = 5000)
+    public void testXSubAggregate()
+    {
+        Ctx ctx = ZMQ.createContext();
+
+        SocketBase pub = ZMQ.socket(ctx, ZMQ.ZMQ_XPUB);
+        assertThat(ZMQ.bind(pub, "inproc://aggregate"), is(true));
+
+        SocketBase sub = ZMQ.socket(ctx, ZMQ.ZMQ_XSUB);
+        assertThat(ZMQ.setSocketOption(sub, ZMQ.ZMQ_AGGREGATE_SUBSCRIPTIONS, true), is(true));
+        assertThat(ZMQ.connect(sub, "inproc://aggregate"), is(true));
+
+        subscribe(sub, 1, "abc");
+        assertThat(recv(pub), is("\1abc"));
+
+        //  A shorter subscription replaces the ones it covers
+        subscribe(sub, 1, "ab");
+        assertThat(recv(pub), is("\1ab"));
+        assertThat(recv(pub), is("\0abc"));
+
+        //  Covered subscriptions are not forwarded
+        subscribe(sub, 1, "abd");
+        subscribe(sub, 1, "ab");
+        subscribe(sub, 0, "ab");
+
+        //  The covered subscriptions are sent back once the shorter one is gone
+        subscribe(sub, 0, "ab");
+        assertThat(recv(pub), is("\1abc"));
+        assertThat(recv(pub), is("\1abd"));
+        assertThat(recv(pub), is("\0ab"));
+
+        subscribe(sub, 0, "abc");
+        assertThat(recv(pub), is("\0abc"));
+        assertThat(ZMQ.recv(pub, ZMQ.ZMQ_DONTWAIT), nullValue());
+
+        //  Only the shortest subscriptions are sent to a new publisher
+        subscribe(sub, 1, "a");
+        subscribe(sub, 1, "b");
+        SocketBase pub2 = ZMQ.socket(ctx, ZMQ.ZMQ_XPUB);
+        assertThat(ZMQ.bind(pub2, "inproc://aggregate2"), is(true));
+        assertThat(ZMQ.connect(sub, "inproc://aggregate2"), is(true));
+        assertThat(recv(pub2), is("\1a"));
+        assertThat(recv(pub2), is("\1b"));
+        assertThat(ZMQ.recv(pub2, ZMQ.ZMQ_DONTWAIT), nullValue());
+
+        //  Aggregation cannot change once subscribed
+        assertThat(ZMQ.setSocketOption(sub, ZMQ.ZMQ_AGGREGATE_SUBSCRIPTIONS, false), is(false));
+
+        ZMQ.close(sub);
+        ZMQ.close(pub);
+        ZMQ.close(pub2);
+        ZMQ.term(ctx);
+    }
+
+    private static void subscribe(SocketBase sub, int command, String topic)
+    {
+        byte[] data = topic.getBytes(ZMQ.CHARSET);
+        Msg msg = new Msg(data.length + 1);
+        msg.put((byte) command).put(data);
+        assertThat(sub.send(msg, 0), is(true));
+    }
+
+    private static String recv(SocketBase pub)
+    {
+        Msg msg = pub.recv(0);
+        assertThat(msg, notNullValue());
+        return new String(msg.data(), ZMQ.CHARSET);
+    }
 }
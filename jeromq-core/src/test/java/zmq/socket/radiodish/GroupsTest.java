@@ -0,0 +1,53 @@
+package zmq.socket.radiodish;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import zmq.ZMQ;
+
+public class GroupsTest
+{
+    @Test
+    public void testSameGroupFromFramesAndNames()
+    {
+        Groups groups = new Groups();
+
+        String name = groups.name(frame("\5LEAVEmovies"), 6, 6);
+        assertThat(name, is("movies"));
+        assertThat(groups.name(frame("movies"), 0, 6), sameInstance(name));
+        assertThat(groups.name(frame("\4JOINmovies"), 5, 6), sameInstance(name));
+        assertThat(groups.bytes(new String("movies")), is("movies".getBytes(ZMQ.CHARSET)));
+        assertThat(groups.bytes("movies"), sameInstance(groups.bytes("movies")));
+
+        assertThat(groups.name(frame("tv"), 0, 2), is("tv"));
+        assertThat(groups.name(frame(""), 0, 0), is(""));
+        assertThat(groups.size(), is(3));
+    }
+
+    @Test
+    public void testManyGroups()
+    {
+        Groups groups = new Groups();
+        for (int idx = 0; idx < Groups.MAX_GROUPS + 10; ++idx) {
+            String group = "group-" + idx;
+            assertThat(groups.name(frame(group), 0, group.length()), is(group));
+        }
+        assertThat(groups.size(), is(Groups.MAX_GROUPS));
+
+        //  The groups kept are still found, the other ones are decoded every time.
+        assertThat(groups.name(frame("group-0"), 0, 7), sameInstance(groups.name(frame("group-0"), 0, 7)));
+        String last = "group-" + (Groups.MAX_GROUPS + 9);
+        assertThat(groups.name(frame(last), 0, last.length()),
+                   not(sameInstance(groups.name(frame(last), 0, last.length()))));
+        assertThat(groups.bytes(last), is(last.getBytes(ZMQ.CHARSET)));
+    }
+
+    private static byte[] frame(String data)
+    {
+        return data.getBytes(ZMQ.CHARSET);
+    }
+}
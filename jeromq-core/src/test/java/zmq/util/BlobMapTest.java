@@ -0,0 +1,107 @@
+package zmq.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import zmq.ZMQ;
+
+public class BlobMapTest
+{
+    private BlobMap<String> map;
+
+    @Before
+    public void setup()
+    {
+        map = new BlobMap<>();
+    }
+
+    @Test
+    public void testPutGet()
+    {
+        assertThat(map.put(blob("A"), "a"), nullValue());
+
+        assertThat(map.size(), is(1));
+        assertThat(map.get(blob("A")), is("a"));
+        assertThat(map.get("A".getBytes(ZMQ.CHARSET)), is("a"));
+        assertThat(map.containsKey(blob("A")), is(true));
+        assertThat(map.get(blob("B")), nullValue());
+        assertThat(map.containsKey(blob("B")), is(false));
+    }
+
+    @Test
+    public void testPutTwice()
+    {
+        map.put(blob("A"), "a");
+        assertThat(map.put(blob("A"), "b"), is("a"));
+
+        assertThat(map.size(), is(1));
+        assertThat(map.get(blob("A")), is("b"));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        map.put(blob("A"), "a");
+
+        assertThat(map.remove(blob("B")), nullValue());
+        assertThat(map.remove(blob("A")), is("a"));
+        assertThat(map.isEmpty(), is(true));
+        assertThat(map.get(blob("A")), nullValue());
+    }
+
+    @Test
+    public void testEmptyIdentity()
+    {
+        map.put(Blob.createBlob(new byte[0]), "empty");
+
+        assertThat(map.get(new byte[0]), is("empty"));
+    }
+
+    @Test
+    public void testClear()
+    {
+        map.put(blob("A"), "a");
+        map.put(blob("B"), "b");
+        map.clear();
+
+        assertThat(map.isEmpty(), is(true));
+        assertThat(map.get(blob("A")), nullValue());
+    }
+
+    @Test
+    public void testAgainstHashMap()
+    {
+        Random random = new Random(42);
+        Map<Blob, String> expected = new HashMap<>();
+        for (int idx = 0; idx < 100000; ++idx) {
+            // Short identities to get plenty of collisions and removals of existing keys.
+            byte[] identity = new byte[1 + random.nextInt(2)];
+            random.nextBytes(identity);
+            Blob key = Blob.createBlob(identity);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key), is(expected.remove(key)));
+            }
+            else {
+                String value = Integer.toString(idx);
+                assertThat(map.put(key, value), is(expected.put(key, value)));
+            }
+            assertThat(map.size(), is(expected.size()));
+        }
+        for (Map.Entry<Blob, String> entry : expected.entrySet()) {
+            assertThat(map.get(entry.getKey().data()), is(entry.getValue()));
+        }
+    }
+
+    private static Blob blob(String identity)
+    {
+        return Blob.createBlob(identity.getBytes(ZMQ.CHARSET));
+    }
+}
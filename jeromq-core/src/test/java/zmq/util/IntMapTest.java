@@ -0,0 +1,87 @@
+package zmq.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntMapTest
+{
+    private IntMap<String> map;
+
+    @Before
+    public void setup()
+    {
+        map = new IntMap<>();
+    }
+
+    @Test
+    public void testPutGet()
+    {
+        assertThat(map.put(1, "a"), nullValue());
+
+        assertThat(map.size(), is(1));
+        assertThat(map.get(1), is("a"));
+        assertThat(map.containsKey(1), is(true));
+        assertThat(map.get(2), nullValue());
+        assertThat(map.containsKey(2), is(false));
+    }
+
+    @Test
+    public void testZeroAndNegativeKeys()
+    {
+        map.put(0, "zero");
+        map.put(-1, "minus");
+
+        assertThat(map.get(0), is("zero"));
+        assertThat(map.get(-1), is("minus"));
+    }
+
+    @Test
+    public void testPutTwice()
+    {
+        map.put(1, "a");
+        assertThat(map.put(1, "b"), is("a"));
+
+        assertThat(map.size(), is(1));
+        assertThat(map.get(1), is("b"));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        map.put(1, "a");
+
+        assertThat(map.remove(2), nullValue());
+        assertThat(map.remove(1), is("a"));
+        assertThat(map.isEmpty(), is(true));
+        assertThat(map.get(1), nullValue());
+    }
+
+    @Test
+    public void testAgainstHashMap()
+    {
+        Random random = new Random(42);
+        Map<Integer, String> expected = new HashMap<>();
+        for (int idx = 0; idx < 100000; ++idx) {
+            int key = random.nextInt(1000) - 500;
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key), is(expected.remove(key)));
+            }
+            else {
+                String value = Integer.toString(idx);
+                assertThat(map.put(key, value), is(expected.put(key, value)));
+            }
+            assertThat(map.size(), is(expected.size()));
+        }
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            assertThat(map.get(entry.getKey()), is(entry.getValue()));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package zmq.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import zmq.util.TimerWheel.Timeout;
+
+public class TimerWheelTest
+{
+    private final TimerWheel<String> wheel = new TimerWheel<>(16);
+
+    @Test
+    public void testEmpty()
+    {
+        assertThat(wheel.isEmpty(), is(true));
+        assertThat(wheel.nextDeadline(), is(Long.MAX_VALUE));
+        assertThat(wheel.poll(1000), nullValue());
+    }
+
+    @Test
+    public void testOrder()
+    {
+        // Spread over several rotations, with shared slots and deadlines
+        Timeout<String> t100 = wheel.add(100, "100");
+        Timeout<String> t4 = wheel.add(4, "4");
+        Timeout<String> t20 = wheel.add(20, "20");
+        Timeout<String> t4bis = wheel.add(4, "4bis");
+        Timeout<String> t36 = wheel.add(36, "36");
+
+        assertThat(wheel.size(), is(5));
+        assertThat(wheel.nextDeadline(), is(4L));
+        assertThat(wheel.poll(3), nullValue());
+
+        assertThat(wheel.poll(50), sameInstance(t4));
+        assertThat(wheel.poll(50), sameInstance(t4bis));
+        assertThat(wheel.poll(50), sameInstance(t20));
+        assertThat(wheel.poll(50), sameInstance(t36));
+        assertThat(wheel.poll(50), nullValue());
+        assertThat(wheel.nextDeadline(), is(100L));
+
+        assertThat(wheel.poll(100), sameInstance(t100));
+        assertThat(wheel.isEmpty(), is(true));
+        assertThat(t100.isScheduled(), is(false));
+    }
+
+    @Test
+    public void testCancel()
+    {
+        Timeout<String> t10 = wheel.add(10, "10");
+        Timeout<String> t26 = wheel.add(26, "26");
+        Timeout<String> t30 = wheel.add(30, "30");
+
+        assertThat(wheel.nextDeadline(), is(10L));
+        assertThat(wheel.cancel(t10), is(true));
+        assertThat(wheel.cancel(t10), is(false));
+        assertThat(wheel.nextDeadline(), is(26L));
+
+        assertThat(wheel.cancel(t26), is(true));
+        assertThat(wheel.poll(29), nullValue());
+        assertThat(wheel.poll(30), sameInstance(t30));
+        assertThat(wheel.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testReschedule()
+    {
+        Timeout<String> t10 = wheel.add(10, "10");
+        Timeout<String> t20 = wheel.add(20, "20");
+
+        wheel.reschedule(t10, 25);
+        assertThat(wheel.size(), is(2));
+        assertThat(wheel.nextDeadline(), is(20L));
+
+        wheel.reschedule(t10, 5);
+        assertThat(wheel.nextDeadline(), is(5L));
+
+        assertThat(wheel.poll(100), sameInstance(t10));
+        assertThat(t10.deadline(), is(5L));
+        assertThat(wheel.poll(100), sameInstance(t20));
+        assertThat(wheel.poll(100), nullValue());
+    }
+
+    @Test
+    public void testRandomAgainstSortedOrder()
+    {
+        Random random = new Random(42);
+        List<Timeout<String>> scheduled = new ArrayList<>();
+        for (int idx = 0; idx < 1000; ++idx) {
+            scheduled.add(wheel.add(random.nextInt(200), Integer.toString(idx)));
+        }
+        for (int idx = 0; idx < 300; ++idx) {
+            Timeout<String> timeout = scheduled.remove(random.nextInt(scheduled.size()));
+            assertThat(wheel.cancel(timeout), is(true));
+        }
+        scheduled.sort((first, second) -> Long.compare(first.deadline(), second.deadline()));
+
+        long last = Long.MIN_VALUE;
+        for (Timeout<String> expected : scheduled) {
+            Timeout<String> timeout = wheel.poll(1000);
+            assertThat(timeout.deadline(), is(expected.deadline()));
+            assertThat(timeout.deadline() >= last, is(true));
+            last = timeout.deadline();
+        }
+        assertThat(wheel.isEmpty(), is(true));
+    }
+}
@@ -227,4 +227,39 @@ public class TimersTest
         assertThat(entries.next().getKey(), is(timer100));
         assertThat(entries.hasNext(), is(false));
     }
+
+    @Test
+    public void testTimerWheelOrder()
+    {
+        final AtomicLong time = new AtomicLong();
+        Timers timer = new Timers(time::get, true);
+        final StringBuilder executed = new StringBuilder();
+
+        timer.add(100, args -> executed.append(args[0]), "100 ");
+        Timer timer1000 = timer.add(1000, args -> executed.append(args[0]), "1000 ");
+        Timer timer10 = timer.add(10, args -> executed.append(args[0]), "10 ");
+
+        assertThat(timer.timeout(), is(10L));
+        timer10.cancel();
+        assertThat(timer.timeout(), is(100L));
+
+        time.set(99);
+        int rc = timer.execute();
+        assertThat(rc, is(0));
+        assertThat(timer.timeout(), is(1L));
+
+        time.set(1000);
+        rc = timer.execute();
+        // both are due, and executed in order
+        assertThat(rc, is(2));
+        assertThat(executed.toString(), is("100 1000 "));
+        // repeated timers are scheduled again from now
+        assertThat(timer.timeout(), is(100L));
+
+        timer1000.cancel();
+        time.set(2000);
+        rc = timer.execute();
+        assertThat(rc, is(1));
+        assertThat(executed.toString(), is("100 1000 100 "));
+    }
 }
@@ -0,0 +1,108 @@
+package perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZError;
+import zmq.ZMQ;
+
+// End-to-end one-way throughput between a PUSH and a PULL socket,
+// the JMH counterpart of the LocalThr / RemoteThr pair.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PushPullBenchmark
+{
+    private static final int MESSAGES = 1000;
+
+    @Param({ "inproc", "tcp", "ipc" })
+    public String transport;
+
+    @Param({ "16", "256", "4096", "65536" })
+    public int size;
+
+    private Ctx ctx;
+    private SocketBase push;
+    private SocketBase pull;
+    private Thread receiver;
+    private byte[] data;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException
+    {
+        ctx = ZMQ.createContext();
+        pull = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        push = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+
+        boolean rc = ZMQ.bind(pull, bindAddress(transport));
+        assert (rc);
+        rc = ZMQ.connect(push, (String) ZMQ.getSocketOptionExt(pull, ZMQ.ZMQ_LAST_ENDPOINT));
+        assert (rc);
+
+        data = new byte[size];
+
+        receiver = new Thread(() -> {
+            while (ZMQ.recv(pull, 0) != null) {
+                // drain until the context is terminated
+            }
+            assert (pull.errno() == ZError.ETERM);
+            ZMQ.closeZeroLinger(pull);
+        }, "pull");
+        receiver.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws InterruptedException
+    {
+        ZMQ.closeZeroLinger(push);
+        Thread terminator = new Thread(() -> ZMQ.term(ctx), "term");
+        terminator.start();
+        receiver.join();
+        terminator.join();
+    }
+
+    // The bounded pipes push back on the sender, so the rate observed
+    // here is the rate at which the receiving side consumes messages.
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void send()
+    {
+        for (int idx = 0; idx < MESSAGES; ++idx) {
+            ZMQ.send(push, new Msg(data), 0);
+        }
+    }
+
+    static String bindAddress(String transport)
+    {
+        switch (transport) {
+        case "inproc":
+            return "inproc://benchmark-" + System.nanoTime();
+        case "tcp":
+            return "tcp://127.0.0.1:*";
+        case "ipc":
+            return "ipc://*";
+        default:
+            throw new IllegalArgumentException("Unsupported transport " + transport);
+        }
+    }
+}
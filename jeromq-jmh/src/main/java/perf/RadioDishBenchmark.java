@@ -0,0 +1,107 @@
+package perf;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+// One-way throughput between a RADIO and a DISH on the loopback interface.
+// The RADIO sends as fast as it can and drops what does not fit, as does UDP,
+// so the rate observed here is the rate at which the DISH receives messages.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RadioDishBenchmark
+{
+    private static final int MESSAGES = 1000;
+
+    @Param({ "tcp", "udp" })
+    public String transport;
+
+    @Param({ "16", "256", "4096" })
+    public int size;
+
+    private Ctx ctx;
+    private SocketBase radio;
+    private SocketBase dish;
+    private Thread sender;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        ctx = ZMQ.createContext();
+        radio = ZMQ.socket(ctx, ZMQ.ZMQ_RADIO);
+        dish = ZMQ.socket(ctx, ZMQ.ZMQ_DISH);
+        boolean rc = dish.join("benchmark");
+        assert (rc);
+
+        if ("udp".equals(transport)) {
+            int port;
+            try (DatagramSocket socket = new DatagramSocket(0)) {
+                port = socket.getLocalPort();
+            }
+            rc = ZMQ.bind(dish, "udp://127.0.0.1:" + port);
+            assert (rc);
+            rc = ZMQ.connect(radio, "udp://127.0.0.1:" + port);
+        }
+        else {
+            rc = ZMQ.bind(radio, "tcp://127.0.0.1:*");
+            assert (rc);
+            rc = ZMQ.connect(dish, (String) ZMQ.getSocketOptionExt(radio, ZMQ.ZMQ_LAST_ENDPOINT));
+        }
+        assert (rc);
+
+        byte[] data = new byte[size];
+        running = true;
+        sender = new Thread(() -> {
+            while (running) {
+                Msg msg = new Msg(data);
+                msg.setGroup("benchmark");
+                radio.send(msg, 0);
+            }
+            ZMQ.closeZeroLinger(radio);
+        }, "radio");
+        sender.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws InterruptedException
+    {
+        running = false;
+        sender.join();
+        ZMQ.closeZeroLinger(dish);
+        ZMQ.term(ctx);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void receive()
+    {
+        for (int idx = 0; idx < MESSAGES; ++idx) {
+            dish.recv(0);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+// Round-trip latency between a REQ and an echoing REP socket,
+// the JMH counterpart of the LocalLat / InprocLat programs.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ReqRepBenchmark
+{
+    @Param({ "inproc", "tcp", "ipc" })
+    public String transport;
+
+    @Param({ "16", "256", "4096", "65536" })
+    public int size;
+
+    private Ctx ctx;
+    private SocketBase req;
+    private SocketBase rep;
+    private Thread echo;
+    private byte[] data;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        ctx = ZMQ.createContext();
+        rep = ZMQ.socket(ctx, ZMQ.ZMQ_REP);
+        req = ZMQ.socket(ctx, ZMQ.ZMQ_REQ);
+
+        boolean rc = ZMQ.bind(rep, PushPullBenchmark.bindAddress(transport));
+        assert (rc);
+        rc = ZMQ.connect(req, (String) ZMQ.getSocketOptionExt(rep, ZMQ.ZMQ_LAST_ENDPOINT));
+        assert (rc);
+
+        data = new byte[size];
+
+        echo = new Thread(() -> {
+            Msg msg;
+            while ((msg = ZMQ.recvMsg(rep, 0)) != null) {
+                if (ZMQ.sendMsg(rep, msg, 0) < 0) {
+                    break;
+                }
+            }
+            ZMQ.closeZeroLinger(rep);
+        }, "rep");
+        echo.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws InterruptedException
+    {
+        ZMQ.closeZeroLinger(req);
+        Thread terminator = new Thread(() -> ZMQ.term(ctx), "term");
+        terminator.start();
+        echo.join();
+        terminator.join();
+    }
+
+    @Benchmark
+    public Msg roundtrip()
+    {
+        ZMQ.sendMsg(req, new Msg(data), 0);
+        return ZMQ.recvMsg(req, 0);
+    }
+}
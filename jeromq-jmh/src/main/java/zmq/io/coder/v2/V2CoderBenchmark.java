@@ -0,0 +1,123 @@
+package zmq.io.coder.v2;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import zmq.Config;
+import zmq.Msg;
+import zmq.ZMQ;
+import zmq.io.coder.IDecoder.Step;
+import zmq.util.Errno;
+import zmq.util.ValueReference;
+
+// ZMTP/2.0+ framing cost, driven the same way StreamEngine drives the coders:
+// the encoder fills batches of OUT_BATCH_SIZE, the decoder consumes batches of IN_BATCH_SIZE.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class V2CoderBenchmark
+{
+    private static final int MESSAGES = 64;
+
+    @Param({ "16", "256", "4096", "65536" })
+    public int size;
+
+    private V2Encoder encoder;
+    private V2Decoder decoder;
+
+    private Msg msg;
+
+    // wire image of MESSAGES consecutive frames
+    private ByteBuffer stream;
+
+    private final ValueReference<ByteBuffer> outpos = new ValueReference<>();
+    private final ValueReference<Integer> processed = new ValueReference<>(0);
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        Errno errno = new Errno();
+        encoder = new V2Encoder(errno, Config.OUT_BATCH_SIZE.getValue());
+        decoder = new V2Decoder(errno, Config.IN_BATCH_SIZE.getValue(), -1, ZMQ.DEFAULT_MSG_ALLOCATOR);
+
+        msg = new Msg(size);
+
+        stream = ByteBuffer.allocate(MESSAGES * (size + 9));
+        for (int idx = 0; idx < MESSAGES; ++idx) {
+            stream.put((byte) (size > 255 ? V2Protocol.LARGE_FLAG : 0));
+            if (size > 255) {
+                stream.putLong(size);
+            }
+            else {
+                stream.put((byte) size);
+            }
+            stream.position(stream.position() + size);
+        }
+        stream.flip();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int encode()
+    {
+        int total = 0;
+        for (int idx = 0; idx < MESSAGES; ++idx) {
+            encoder.loadMsg(msg);
+            int n;
+            do {
+                outpos.set(null);
+                n = encoder.encode(outpos, 0);
+                encoder.encoded();
+                total += n;
+            } while (n > 0);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void decode(Blackhole hole)
+    {
+        ByteBuffer src = stream.duplicate();
+        while (src.hasRemaining()) {
+            // as if it was read from the socket
+            ByteBuffer in = decoder.getBuffer();
+            int limit = src.limit();
+            src.limit(Math.min(limit, src.position() + in.remaining()));
+            int insize = src.remaining();
+            in.put(src);
+            src.limit(limit);
+            in.flip();
+
+            while (insize > 0) {
+                Step.Result result = decoder.decode(in, insize, processed);
+                insize -= processed.get();
+                if (result == Step.Result.DECODED) {
+                    hole.consume(decoder.msg());
+                }
+                else {
+                    assert (result == Step.Result.MORE_DATA);
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package zmq.io.mechanism.curve;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Per-message cost of the CURVE mechanism once the handshake is done:
+// every frame is boxed and unboxed with the precomputed shared key.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CurveBenchmark
+{
+    @Param({ "64", "1024", "16384" })
+    public int size;
+
+    private Curve curve;
+
+    private byte[] precom;
+    private byte[] nonce;
+    private byte[] plaintext;
+    private byte[] box;
+    private byte[] opened;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        curve = new Curve();
+        byte[][] client = curve.keypair();
+        byte[][] server = curve.keypair();
+
+        precom = new byte[Curve.Size.BEFORENM.bytes()];
+        int rc = curve.beforenm(precom, server[0], client[1]);
+        assert (rc == 0);
+
+        nonce = curve.random(Curve.Size.NONCE.bytes());
+
+        int mlen = Curve.Size.ZERO.bytes() + size;
+        plaintext = new byte[mlen];
+        box = new byte[mlen];
+        opened = new byte[mlen];
+
+        rc = curve.afternm(box, plaintext, mlen, nonce, precom);
+        assert (rc == 0);
+    }
+
+    @Benchmark
+    public int box()
+    {
+        return curve.afternm(box, plaintext, plaintext.length, nonce, precom);
+    }
+
+    @Benchmark
+    public int unbox()
+    {
+        return curve.openAfternm(opened, box, box.length, nonce, precom);
+    }
+}
@@ -0,0 +1,69 @@
+package zmq.pipe;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zmq.Config;
+import zmq.Msg;
+import zmq.ZMQ;
+
+// A consumer falling behind a stream of updates over a set of instruments,
+// then reading everything pending: the whole backlog with a plain pipe, or
+// the latest update of each instrument with a pipe conflated by key.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class KeyedConflateBenchmark
+{
+    @Param({ "false", "true" })
+    public boolean keyed;
+
+    @Param({ "100" })
+    public int instruments;
+
+    @Param({ "10000" })
+    public int backlog;
+
+    private Msg[] updates;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        updates = new Msg[instruments];
+        for (int idx = 0; idx < instruments; ++idx) {
+            updates[idx] = new Msg(String.format("md.%04d price", idx).getBytes(ZMQ.CHARSET));
+        }
+    }
+
+    @Benchmark
+    public int catchUp()
+    {
+        YPipeBase<Msg> pipe = keyed ? new YPipeKeyedConflate<>(7)
+                : new YPipe<>(Config.MESSAGE_PIPE_GRANULARITY.getValue());
+        for (int idx = 0; idx < backlog; ++idx) {
+            pipe.write(updates[idx % instruments], false);
+        }
+        pipe.flush();
+
+        int read = 0;
+        while (pipe.read() != null) {
+            ++read;
+        }
+        return read;
+    }
+}
@@ -0,0 +1,115 @@
+package zmq.pipe;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import zmq.Config;
+import zmq.Msg;
+
+// Raw throughput of the lock-free single-producer / single-consumer pipe
+// used between sockets and sessions, and of its underlying chunked queue.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Group)
+public class YPipeBenchmark
+{
+    // Bounds the backlog of the cross-thread benchmark, the pipe itself is unbounded.
+    private static final long MAX_INFLIGHT = 64 * 1024;
+
+    @Param({ "1", "16" })
+    public int batch;
+
+    private YPipe<Msg> pipe;
+    private YQueue<Msg> queue;
+    private Msg msg;
+
+    private final AtomicLong consumed = new AtomicLong();
+    private long produced;
+
+    @Setup(Level.Iteration)
+    public void setup()
+    {
+        pipe = new YPipe<>(Config.MESSAGE_PIPE_GRANULARITY.getValue());
+        queue = new YQueue<>(Config.MESSAGE_PIPE_GRANULARITY.getValue());
+        msg = new Msg(8);
+        consumed.set(0);
+        produced = 0;
+    }
+
+    // Writer and reader run on the same thread: measures the bookkeeping cost only.
+    @Benchmark
+    @Group("local")
+    @GroupThreads(1)
+    public void writeFlushRead(Blackhole hole)
+    {
+        for (int idx = 0; idx < batch; ++idx) {
+            pipe.write(msg, false);
+        }
+        pipe.flush();
+        for (int idx = 0; idx < batch; ++idx) {
+            hole.consume(pipe.read());
+        }
+    }
+
+    @Benchmark
+    @Group("queue")
+    @GroupThreads(1)
+    public void pushPop(Blackhole hole)
+    {
+        for (int idx = 0; idx < batch; ++idx) {
+            queue.push(msg);
+        }
+        for (int idx = 0; idx < batch; ++idx) {
+            hole.consume(queue.pop());
+        }
+    }
+
+    // One writer thread and one reader thread sharing the pipe, as between
+    // an application thread and an I/O thread.
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public boolean write()
+    {
+        if (produced - consumed.get() > MAX_INFLIGHT) {
+            return false;
+        }
+        for (int idx = 0; idx < batch; ++idx) {
+            pipe.write(msg, false);
+        }
+        produced += batch;
+        return pipe.flush();
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public Msg read()
+    {
+        Msg read = null;
+        if (pipe.checkRead()) {
+            read = pipe.read();
+            consumed.lazySet(consumed.get() + 1);
+        }
+        return read;
+    }
+}
@@ -0,0 +1,81 @@
+package zmq.poll;
+
+import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zmq.Ctx;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+// A worker loop polling the same idle sockets without waiting, registering
+// them anew with ZMQ.poll() or keeping them registered in a poll set.
+// Run with -prof gc to see the allocations per poll.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PollSetBenchmark
+{
+    @Param({ "1", "5", "50" })
+    public int sockets;
+
+    private Ctx          ctx;
+    private Selector     selector;
+    private SocketBase[] bound;
+    private PollItem[]   items;
+    private PollSet      set;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        ctx = ZMQ.createContext();
+        selector = ctx.createSelector();
+        bound = new SocketBase[sockets];
+        items = new PollItem[sockets];
+        set = new PollSet(selector);
+        for (int idx = 0; idx < sockets; ++idx) {
+            bound[idx] = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+            ZMQ.bind(bound[idx], "inproc://poll-set-" + idx);
+            items[idx] = new PollItem(bound[idx], ZMQ.ZMQ_POLLIN);
+            set.add(items[idx]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        for (SocketBase socket : bound) {
+            ZMQ.close(socket);
+        }
+        ctx.closeSelector(selector);
+        ZMQ.term(ctx);
+    }
+
+    @Benchmark
+    public int poll()
+    {
+        return ZMQ.poll(selector, items, 0);
+    }
+
+    @Benchmark
+    public int pollSet()
+    {
+        return set.poll(0);
+    }
+}
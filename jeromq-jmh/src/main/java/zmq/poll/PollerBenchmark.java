@@ -0,0 +1,129 @@
+package zmq.poll;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zmq.Ctx;
+
+// Cost of an event dispatched by the I/O thread poller, while the handler toggles
+// an interest op as a stalled output would do. The idle connections only
+// hold registrations, so the cost should not depend on their number.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PollerBenchmark
+{
+    @Param({ "1", "100", "1000" })
+    public int connections;
+
+    private Ctx    ctx;
+    private Poller poller;
+
+    private final List<Pipe> idles = new ArrayList<>();
+
+    private Pipe             signal;
+    private Poller.Handle    toggled;
+    private final ByteBuffer dummy  = ByteBuffer.allocate(1);
+    private final AtomicLong events = new AtomicLong();
+    private long             sent;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        ctx = new Ctx();
+        poller = new Poller(ctx, "benchmark");
+
+        for (int idx = 0; idx < connections; ++idx) {
+            Pipe pipe = Pipe.open();
+            pipe.source().configureBlocking(false);
+            Poller.Handle handle = poller.addHandle(pipe.source(), new IPollEvents() {});
+            poller.setPollIn(handle);
+            idles.add(pipe);
+        }
+        Pipe pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+        toggled = poller.addHandle(pipe.source(), new IPollEvents() {});
+        idles.add(pipe);
+
+        signal = Pipe.open();
+        signal.source().configureBlocking(false);
+        ByteBuffer received = ByteBuffer.allocate(64);
+        Poller.Handle handle = poller.addHandle(signal.source(), new IPollEvents()
+        {
+            @Override
+            public void inEvent()
+            {
+                try {
+                    received.clear();
+                    int read = signal.source().read(received);
+                    for (int idx = 0; idx < read; ++idx) {
+                        //  Toggles an interest op, as a stalled output does.
+                        if ((events.get() & 1) == 0) {
+                            poller.setPollIn(toggled);
+                        }
+                        else {
+                            poller.resetPollIn(toggled);
+                        }
+                        events.lazySet(events.get() + 1);
+                    }
+                }
+                catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        poller.setPollIn(handle);
+        poller.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        poller.destroy();
+        signal.sink().close();
+        signal.source().close();
+        for (Pipe pipe : idles) {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+        idles.clear();
+        ctx.terminate();
+    }
+
+    // Wakes the poller up and waits until it has dispatched the event.
+    @Benchmark
+    public long dispatch() throws IOException
+    {
+        dummy.clear();
+        while (signal.sink().write(dummy) == 0) {
+            Thread.onSpinWait();
+        }
+        ++sent;
+        while (events.get() < sent) {
+            Thread.onSpinWait();
+        }
+        return sent;
+    }
+}
@@ -0,0 +1,102 @@
+package zmq.proxy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.SocketBase;
+import zmq.ZMQ;
+
+// Messages going through a proxy between inproc PULL and PUSH sockets, in bursts
+// smaller than the high water marks so that the producer never blocks.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ProxyBenchmark
+{
+    private static final int BURST = 500;
+
+    @Param({ "1", "3" })
+    public int frames;
+
+    private Ctx        ctx;
+    private SocketBase producer;
+    private SocketBase consumer;
+    private SocketBase steer;
+    private Thread     proxy;
+    private byte[]     data;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        ctx = ZMQ.createContext();
+        SocketBase frontend = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.bind(frontend, "inproc://frontend");
+        SocketBase backend = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.bind(backend, "inproc://backend");
+        SocketBase control = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        ZMQ.bind(control, "inproc://control");
+
+        proxy = new Thread(() -> {
+            ZMQ.proxy(frontend, backend, null, control);
+            ZMQ.close(frontend);
+            ZMQ.close(backend);
+            ZMQ.close(control);
+        });
+        proxy.start();
+
+        steer = ZMQ.socket(ctx, ZMQ.ZMQ_PAIR);
+        ZMQ.connect(steer, "inproc://control");
+        producer = ZMQ.socket(ctx, ZMQ.ZMQ_PUSH);
+        ZMQ.connect(producer, "inproc://frontend");
+        consumer = ZMQ.socket(ctx, ZMQ.ZMQ_PULL);
+        ZMQ.connect(consumer, "inproc://backend");
+        data = new byte[64];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException
+    {
+        ZMQ.send(steer, ZMQ.PROXY_TERMINATE, 0);
+        proxy.join();
+        ZMQ.close(steer);
+        ZMQ.close(producer);
+        ZMQ.close(consumer);
+        ZMQ.term(ctx);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public Msg forward()
+    {
+        for (int idx = 0; idx < BURST; ++idx) {
+            for (int frame = 1; frame < frames; ++frame) {
+                producer.send(new Msg(data), ZMQ.ZMQ_SNDMORE);
+            }
+            producer.send(new Msg(data), 0);
+        }
+        Msg msg = null;
+        for (int idx = 0; idx < BURST * frames; ++idx) {
+            msg = consumer.recv(0);
+        }
+        return msg;
+    }
+}
@@ -0,0 +1,91 @@
+package zmq.socket.pubsub;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.ZMQ;
+import zmq.ZObject;
+import zmq.pipe.Pipe;
+
+// Cost of publishing a message matched by every subscriber of an XPUB,
+// from the subscription matching to the write into each pipe. Pipes are
+// attached directly to the socket so that neither the transport nor the
+// command machinery gets measured. With several threads, only the writes
+// are shared between them, the pipes are still read by the benchmark thread.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FanOutBenchmark
+{
+    @Param({ "1000", "10000", "50000" })
+    public int subscribers;
+
+    // threads writing to the pipes, see ZMQ_FANOUT_THREADS
+    @Param({ "0", "4" })
+    public int threads;
+
+    private Ctx ctx;
+    private XPub pub;
+
+    // Subscriber side of each pipe, where the published messages arrive.
+    private Pipe[] remotes;
+    private Msg body;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        ctx = new Ctx();
+        pub = new XPub(ctx, 0, 0);
+        pub.setSocketOpt(ZMQ.ZMQ_FANOUT_THREADS, threads);
+        ZObject parent = new ZObject(null, 0)
+        {
+        };
+
+        remotes = new Pipe[subscribers];
+        for (int idx = 0; idx < subscribers; ++idx) {
+            // No high water mark: there is no reader thread to send activation commands back.
+            Pipe[] pipes = Pipe.pair(new ZObject[] { parent, parent }, new int[] { 0, 0 },
+                                     new boolean[] { false, false });
+            // Subscribed to everything.
+            pub.xattachPipe(pipes[0], true, false);
+            remotes[idx] = pipes[1];
+        }
+        body = new Msg(8);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown()
+    {
+        pub.setSocketOpt(ZMQ.ZMQ_FANOUT_THREADS, 0);
+        ctx.terminate();
+    }
+
+    @Benchmark
+    public void publish(Blackhole hole)
+    {
+        pub.xsend(body);
+        // Only read what was written, so that the pipes never go to sleep.
+        for (Pipe remote : remotes) {
+            hole.consume(remote.read());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package zmq.socket.pubsub;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.ZMQ;
+import zmq.ZObject;
+import zmq.pipe.Pipe;
+import zmq.socket.pubsub.IMtrie.IMtrieHandler;
+
+// Subscription matching, as done by XSUB (Trie) for every received message
+// and by XPUB (Mtrie) for every published message, with the original tries
+// or the compact ones selected by ZMQ_COMPACT_TRIE.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class TrieBenchmark
+{
+    private static final class Counter implements IMtrieHandler
+    {
+        private int matched;
+
+        @Override
+        public void invoke(Pipe pipe, byte[] data, int size, XPub pub)
+        {
+            ++matched;
+        }
+    }
+
+    // number of distinct topics subscribed
+    @Param({ "1000", "100000", "500000" })
+    public int topics;
+
+    // number of subscribers sharing the topics
+    @Param({ "16" })
+    public int pipes;
+
+    @Param({ "false", "true" })
+    public boolean compact;
+
+    private ITrie  trie;
+    private IMtrie mtrie;
+
+    private ByteBuffer[] messages;
+    private Msg[] subscriptions;
+    private Pipe[] subscribers;
+    private int next;
+
+    private final Counter counter = new Counter();
+
+    private Ctx ctx;
+    private XPub pub;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        trie = compact ? new CompactTrie() : new Trie();
+        mtrie = compact ? new CompactMtrie() : new Mtrie();
+
+        subscribers = new Pipe[pipes];
+        ZObject parent = new ZObject(null, 0)
+        {
+        };
+        for (int idx = 0; idx < pipes; ++idx) {
+            subscribers[idx] = Pipe.pair(new ZObject[] { parent, parent }, new int[2], new boolean[2])[0];
+        }
+
+        subscriptions = new Msg[topics];
+        messages = new ByteBuffer[topics];
+        for (int idx = 0; idx < topics; ++idx) {
+            byte[] topic = topic(idx);
+            Msg sub = new Msg(topic.length + 1);
+            sub.put((byte) 1).put(topic);
+            subscriptions[idx] = sub;
+
+            trie.add(sub, 1, sub.size() - 1);
+            mtrie.add(sub, subscribers[idx % pipes]);
+
+            // the published message is the topic followed by a payload
+            messages[idx] = ByteBuffer.wrap(String.format("%s|%064d", new String(topic, ZMQ.CHARSET), idx)
+                    .getBytes(ZMQ.CHARSET));
+        }
+        // only used as the opaque argument of the handler
+        ctx = new Ctx();
+        pub = new XPub(ctx, 0, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        ctx.terminate();
+    }
+
+    private static byte[] topic(int idx)
+    {
+        return String.format("md.%02d.instrument.%08d", idx % 32, idx).getBytes(ZMQ.CHARSET);
+    }
+
+    private int nextIndex()
+    {
+        if (++next == topics) {
+            next = 0;
+        }
+        return next;
+    }
+
+    @Benchmark
+    public boolean trieCheck()
+    {
+        return trie.check(messages[nextIndex()]);
+    }
+
+    @Benchmark
+    public int mtrieMatch()
+    {
+        counter.matched = 0;
+        ByteBuffer data = messages[nextIndex()];
+        mtrie.match(data, data.limit(), counter, pub);
+        return counter.matched;
+    }
+
+    @Benchmark
+    public void mtrieRemoveAdd(Blackhole hole)
+    {
+        int idx = nextIndex();
+        Msg sub = subscriptions[idx];
+        Pipe pipe = subscribers[idx % pipes];
+        hole.consume(mtrie.rm(sub, pipe));
+        hole.consume(mtrie.add(sub, pipe));
+    }
+
+    @Benchmark
+    public void trieRemoveAdd(Blackhole hole)
+    {
+        Msg sub = subscriptions[nextIndex()];
+        hole.consume(trie.rm(sub, 1, sub.size() - 1));
+        hole.consume(trie.add(sub, 1, sub.size() - 1));
+    }
+}
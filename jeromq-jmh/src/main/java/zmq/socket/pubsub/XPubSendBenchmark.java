@@ -0,0 +1,132 @@
+package zmq.socket.pubsub;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.ZMQ;
+import zmq.ZObject;
+import zmq.pipe.Pipe;
+
+// Publishing through an XPUB whose subscribers are spread over a few topics,
+// from the subscription matching to the write into the matching pipes.
+// Run the main method to check that publishing does not allocate.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class XPubSendBenchmark
+{
+    private static final int TOPICS = 10;
+
+    @Param({ "false", "true" })
+    public boolean compact;
+
+    @Param({ "100" })
+    public int subscribers;
+
+    private Ctx  ctx;
+    private XPub pub;
+
+    // Subscriber side of each pipe, where the published messages arrive.
+    private Pipe[] remotes;
+    private Msg[]  messages;
+    private int    next;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        ctx = new Ctx();
+        pub = new XPub(ctx, 0, 0);
+        pub.setSocketOpt(ZMQ.ZMQ_COMPACT_TRIE, compact);
+        ZObject parent = new ZObject(null, 0)
+        {
+        };
+
+        remotes = new Pipe[subscribers];
+        for (int idx = 0; idx < subscribers; ++idx) {
+            // No high water mark: there is no reader thread to send activation commands back.
+            Pipe[] pipes = Pipe.pair(new ZObject[] { parent, parent }, new int[] { 0, 0 },
+                                     new boolean[] { false, false });
+            // The subscription is read when the pipe gets attached.
+            byte[] topic = topic(idx % TOPICS);
+            Msg subscription = new Msg(topic.length + 1);
+            subscription.put((byte) 1).put(topic);
+            pipes[1].write(subscription);
+            pipes[1].flush();
+            pub.xattachPipe(pipes[0], false, false);
+            remotes[idx] = pipes[1];
+        }
+
+        messages = new Msg[TOPICS];
+        for (int idx = 0; idx < TOPICS; ++idx) {
+            messages[idx] = new Msg(String.format("%s|%064d", new String(topic(idx), ZMQ.CHARSET), idx)
+                    .getBytes(ZMQ.CHARSET));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown()
+    {
+        ctx.terminate();
+    }
+
+    private static byte[] topic(int idx)
+    {
+        return String.format("md.instrument.%04d", idx).getBytes(ZMQ.CHARSET);
+    }
+
+    @Benchmark
+    public void publish(Blackhole hole)
+    {
+        if (++next == TOPICS) {
+            next = 0;
+        }
+        hole.consume(pub.xsend(messages[next]));
+        // Only read what was written, so that the pipes never go to sleep.
+        for (int idx = next; idx < subscribers; idx += TOPICS) {
+            hole.consume(remotes[idx].read());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options options = new OptionsBuilder().include(XPubSendBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        for (RunResult result : new Runner(options).run()) {
+            Map<String, Result> secondary = result.getSecondaryResults();
+            double allocated = secondary.get("gc.alloc.rate.norm").getScore();
+            // Leaves some room for the infrastructure of the benchmark itself.
+            if (allocated > 1) {
+                throw new AssertionError(String.format("Publishing with compact=%s allocates %.1f bytes per message",
+                                                       result.getParams().getParam("compact"), allocated));
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package zmq.socket.pubsub;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.ZMQ;
+import zmq.ZObject;
+import zmq.pipe.Pipe;
+
+// Subscribers reconnecting all at once to an XPUB, each one sending all its
+// subscriptions, until the XPUB has applied them and its user has received
+// the resulting notifications.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(2)
+@State(Scope.Thread)
+public class XPubStormBenchmark
+{
+    @Param({ "false", "true" })
+    public boolean compact;
+
+    @Param({ "false", "true" })
+    public boolean verbose;
+
+    @Param({ "10000" })
+    public int subscribers;
+
+    // subscriptions of each subscriber, among 2000 topics
+    @Param({ "20" })
+    public int topics;
+
+    private Ctx    ctx;
+    private XPub   pub;
+    private Pipe[] pipes;
+
+    @Setup(Level.Invocation)
+    public void setup()
+    {
+        ctx = new Ctx();
+        pub = new XPub(ctx, 0, 0);
+        pub.setSocketOpt(ZMQ.ZMQ_COMPACT_TRIE, compact);
+        pub.setSocketOpt(ZMQ.ZMQ_XPUB_VERBOSE, verbose);
+        ZObject parent = new ZObject(null, 0)
+        {
+        };
+
+        Random random = new Random(42);
+        pipes = new Pipe[subscribers];
+        for (int idx = 0; idx < subscribers; ++idx) {
+            Pipe[] pair = Pipe.pair(new ZObject[] { parent, parent }, new int[2], new boolean[2]);
+            for (int sub = 0; sub < topics; ++sub) {
+                byte[] topic = String.format("md.instrument.%04d", random.nextInt(2000)).getBytes(ZMQ.CHARSET);
+                Msg subscription = new Msg(topic.length + 1);
+                subscription.put((byte) 1).put(topic);
+                pair[1].write(subscription);
+            }
+            // The subscriptions are read when the pipe gets attached.
+            pair[1].flush();
+            pipes[idx] = pair[0];
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void teardown()
+    {
+        ctx.terminate();
+    }
+
+    @Benchmark
+    public int reconnect()
+    {
+        for (Pipe pipe : pipes) {
+            pub.xattachPipe(pipe, false, false);
+        }
+        int notifications = 0;
+        while (pub.xrecv() != null) {
+            ++notifications;
+        }
+        return notifications;
+    }
+}
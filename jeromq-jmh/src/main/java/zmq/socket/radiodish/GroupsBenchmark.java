@@ -0,0 +1,77 @@
+package zmq.socket.radiodish;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zmq.Msg;
+
+// Group of each message received by a DISH: decoded from the group frame by
+// the session, then looked up in the groups joined by the socket.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class GroupsBenchmark
+{
+    @Param({ "16", "1024" })
+    public int groups;
+
+    private Msg[]       frames;
+    private Set<String> joined;
+    private Groups      interned;
+    private int         next;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        frames = new Msg[groups];
+        joined = new HashSet<>();
+        interned = new Groups();
+        for (int idx = 0; idx < groups; ++idx) {
+            String group = String.format("telemetry.host-%04d.cpu", idx);
+            frames[idx] = new Msg(group.getBytes(StandardCharsets.US_ASCII));
+            if (idx % 2 == 0) {
+                joined.add(group);
+            }
+        }
+    }
+
+    private Msg nextFrame()
+    {
+        if (++next == groups) {
+            next = 0;
+        }
+        return frames[next];
+    }
+
+    @Benchmark
+    public boolean decode()
+    {
+        Msg frame = nextFrame();
+        return joined.contains(new String(frame.data(), StandardCharsets.US_ASCII));
+    }
+
+    @Benchmark
+    public boolean intern()
+    {
+        Msg frame = nextFrame();
+        return joined.contains(interned.name(frame.data(), 0, frame.size()));
+    }
+}
@@ -0,0 +1,104 @@
+package zmq.socket.reqrep;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zmq.Ctx;
+import zmq.Msg;
+import zmq.ZObject;
+import zmq.pipe.Pipe;
+
+// Cost of routing a message to a peer selected by its identity, the hot path of
+// a ROUTER with many connected peers. Pipes are attached directly to the socket
+// so that neither the transport nor the command machinery gets measured.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RouterBenchmark
+{
+    private static final int IDENTITY_SIZE = 16;
+
+    @Param({ "1000", "10000", "100000" })
+    public int peers;
+
+    private Ctx ctx;
+    private Router router;
+
+    // Peer side of each pipe, where the routed messages arrive.
+    private Pipe[] remotes;
+    private Msg[] identities;
+    private int[] order;
+    private int next;
+    private Msg body;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        ctx = new Ctx();
+        router = new Router(ctx, 0, 0);
+        ZObject parent = new ZObject(null, 0)
+        {
+        };
+
+        remotes = new Pipe[peers];
+        identities = new Msg[peers];
+        for (int idx = 0; idx < peers; ++idx) {
+            byte[] identity = new byte[IDENTITY_SIZE];
+            ThreadLocalRandom.current().nextBytes(identity);
+            identity[0] = (byte) (1 + idx % 255);
+
+            // No high water mark: there is no reader thread to send activation commands back.
+            Pipe[] pipes = Pipe.pair(new ZObject[] { parent, parent }, new int[] { 0, 0 },
+                                     new boolean[] { false, false });
+            Msg msg = new Msg(identity);
+            msg.setFlags(Msg.IDENTITY);
+            pipes[1].write(msg);
+            pipes[1].flush();
+            router.xattachPipe(pipes[0], false, false);
+
+            remotes[idx] = pipes[1];
+            identities[idx] = new Msg(identity);
+            identities[idx].setFlags(Msg.MORE);
+        }
+
+        // Visit the peers in random order to defeat the caches as a real workload would.
+        order = new int[1 << 16];
+        for (int idx = 0; idx < order.length; ++idx) {
+            order[idx] = ThreadLocalRandom.current().nextInt(peers);
+        }
+        body = new Msg(8);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown()
+    {
+        ctx.terminate();
+    }
+
+    @Benchmark
+    public Msg route()
+    {
+        int peer = order[next++ & (order.length - 1)];
+        router.xsend(identities[peer]);
+        router.xsend(body);
+        // Only read what was written, so that the pipe never goes to sleep.
+        return remotes[peer].read();
+    }
+}
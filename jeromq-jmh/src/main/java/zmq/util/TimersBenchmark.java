@@ -0,0 +1,90 @@
+package zmq.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of the timer operations of heartbeating connections, with the timers
+// sorted in a multimap or stored in a timing wheel.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class TimersBenchmark
+{
+    private static final long INTERVAL = 1000;
+
+    private static final Timers.Handler HANDLER = args -> { };
+
+    @Param({ "false", "true" })
+    public boolean timerWheel;
+
+    @Param({ "1000", "20000" })
+    public int timers;
+
+    private long           now;
+    private Timers         set;
+    private Timers.Timer[] scheduled;
+    private int            index;
+
+    @Setup(Level.Iteration)
+    public void setup()
+    {
+        now = 0;
+        set = new Timers(() -> now, timerWheel);
+        scheduled = new Timers.Timer[timers];
+        for (int idx = 0; idx < timers; ++idx) {
+            //  Spread the timers over a whole interval.
+            now = idx * INTERVAL / timers;
+            scheduled[idx] = set.add(INTERVAL, HANDLER);
+        }
+        index = 0;
+    }
+
+    // A connection closed and another one opened.
+    @Benchmark
+    public long cancelAdd()
+    {
+        int idx = next();
+        scheduled[idx].cancel();
+        scheduled[idx] = set.add(INTERVAL, HANDLER);
+        return set.timeout();
+    }
+
+    // Traffic on a connection postpones its heartbeat.
+    @Benchmark
+    public long reset()
+    {
+        scheduled[next()].reset();
+        return set.timeout();
+    }
+
+    // Time goes by one millisecond, and the due heartbeats are sent.
+    @Benchmark
+    public int execute()
+    {
+        ++now;
+        return set.execute();
+    }
+
+    private int next()
+    {
+        if (++index == timers) {
+            index = 0;
+        }
+        return index;
+    }
+}